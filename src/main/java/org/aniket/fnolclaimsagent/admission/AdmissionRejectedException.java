@@ -0,0 +1,25 @@
+package org.aniket.fnolclaimsagent.admission;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * The analysis was not admitted: too many requests are already waiting, or none of them got
+ * a slot in time. Answered with 429 and {@code Retry-After}.
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /** For the Retry-After header: whole seconds, at least one. */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+}
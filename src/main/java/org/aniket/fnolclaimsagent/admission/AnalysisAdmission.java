@@ -0,0 +1,309 @@
+package org.aniket.fnolclaimsagent.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.config.AdmissionProperties;
+import org.aniket.fnolclaimsagent.model.ClaimRoute;
+import org.aniket.fnolclaimsagent.routing.RoutingRuleSet;
+import org.aniket.fnolclaimsagent.routing.RoutingRulesProvider;
+import org.aniket.fnolclaimsagent.service.DocumentExtractionService;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for single-claim analysis. At most {@code max-concurrent} analyses and
+ * {@code max-in-flight-size} upload bytes run at once. A request that finds no room waits in
+ * a queue ordered by priority, then arrival, and is rejected when the queue is full or no
+ * slot frees up within {@code max-wait}.
+ * <p>
+ * Only a request that has to wait pays for its priority: the start of its text is checked
+ * against the keyword and claim-type rules of the routing table ({@link RoutingRuleSet#preRoute}),
+ * and claims likely headed for one of the {@code priority-routes} go ahead of the rest.
+ * That read happens before the request holds a slot, so it is bounded on its own: at most
+ * {@code pre-classify-chars} characters and {@code pre-classify-pages} PDF pages (a scanned
+ * PDF yields no text to count), by at most {@code pre-classify-concurrent} requests at once.
+ * A request that finds them all busy waits as an ordinary claim.
+ * Freed slots go to the head of the queue; a head too large for the free bytes holds back
+ * the requests behind it, so large uploads are delayed but never starved.
+ * <p>
+ * Meters: {@code fnol.admission.queue.depth}, {@code fnol.admission.active},
+ * {@code fnol.admission.active.bytes}, {@code fnol.admission.wait} tagged with the estimated
+ * route ({@code immediate} when nothing had to wait) and {@code fnol.admission.rejected}
+ * tagged with the reason.
+ */
+@Component
+@Slf4j
+public class AnalysisAdmission {
+
+    private static final Permit UNLIMITED = new Permit(null, 0);
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    private final AdmissionProperties properties;
+    private final DocumentExtractionService documentExtractionService;
+    private final RoutingRulesProvider rules;
+    private final List<ClaimRoute> priorityRoutes;
+    private final int maxConcurrent;
+    private final long maxBytes;
+
+    private final Semaphore preRouting;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>();
+    private long arrivals;
+    // written under the lock, read without it by the gauges
+    private volatile int active;
+    private volatile long activeBytes;
+    private volatile int queued;
+
+    private final Timer immediate;
+    private final Timer[] waits;
+    private final Counter queueFull;
+    private final Counter timedOut;
+
+    public AnalysisAdmission(AdmissionProperties properties,
+                             DocumentExtractionService documentExtractionService,
+                             RoutingRulesProvider rules,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.documentExtractionService = documentExtractionService;
+        this.rules = rules;
+        this.priorityRoutes = List.copyOf(properties.getPriorityRoutes());
+        this.maxConcurrent = properties.effectiveMaxConcurrent();
+        this.maxBytes = properties.getMaxInFlightSize().toBytes();
+        this.preRouting = new Semaphore(Math.max(properties.getPreClassifyConcurrent(), 0));
+
+        this.immediate = waitTimer(meterRegistry, "immediate");
+        this.waits = new Timer[priorityRoutes.size() + 1];
+        for (int i = 0; i < priorityRoutes.size(); i++) {
+            waits[i] = waitTimer(meterRegistry, priorityRoutes.get(i).name().toLowerCase(Locale.ROOT));
+        }
+        waits[priorityRoutes.size()] = waitTimer(meterRegistry, "other");
+        this.queueFull = rejectedCounter(meterRegistry, "queue_full");
+        this.timedOut = rejectedCounter(meterRegistry, "timeout");
+        Gauge.builder("fnol.admission.queue.depth", this, a -> a.queued)
+                .description("Analyze requests waiting for a slot")
+                .register(meterRegistry);
+        Gauge.builder("fnol.admission.active", this, a -> a.active)
+                .description("Analyses running")
+                .register(meterRegistry);
+        Gauge.builder("fnol.admission.active.bytes", this, a -> a.activeBytes)
+                .description("Upload bytes of the analyses running")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Waits for room to analyze {@code file}; the permit must be closed when the analysis is done.
+     *
+     * @throws AdmissionRejectedException when too many requests wait already or the wait ran out
+     */
+    public Permit admit(MultipartFile file) {
+        if (!properties.isEnabled()) return UNLIMITED;
+        // an upload larger than the whole budget runs, but only on its own
+        long bytes = Math.min(file != null ? Math.max(0, file.getSize()) : 0, maxBytes);
+        Permit permit = tryAdmit(bytes);
+        if (permit != null) {
+            immediate.record(0, TimeUnit.NANOSECONDS);
+            return permit;
+        }
+        if (queued >= properties.getMaxQueued()) {
+            // not worth reading the upload just to turn it away
+            queueFull.increment();
+            throw rejected("Too many claims waiting for analysis");
+        }
+        return acquire(priorityOf(preRoute(file)), bytes);
+    }
+
+    int priorityOf(ClaimRoute route) {
+        int i = route != null ? priorityRoutes.indexOf(route) : -1;
+        return i >= 0 ? i : priorityRoutes.size();
+    }
+
+    Permit tryAdmit(long bytes) {
+        lock.lock();
+        try {
+            if (!queue.isEmpty() || !fits(bytes)) return null;
+            take(bytes);
+            return new Permit(this, bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Permit acquire(int priority, long bytes) {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (queue.size() >= properties.getMaxQueued()) {
+                queueFull.increment();
+                throw rejected("Too many claims waiting for analysis");
+            }
+            Waiter waiter = new Waiter(priority, arrivals++, bytes, lock.newCondition());
+            queue.add(waiter);
+            dispatch();
+            long remaining = properties.getMaxWait().toNanos();
+            while (!waiter.admitted) {
+                if (remaining <= 0) {
+                    leave(waiter);
+                    timedOut.increment();
+                    throw rejected("No analysis slot within " + properties.getMaxWait().toSeconds() + "s");
+                }
+                try {
+                    remaining = waiter.ready.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (waiter.admitted) break;
+                    leave(waiter);
+                    throw rejected("Interrupted while waiting for an analysis slot");
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        waits[priority].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Permit(this, bytes);
+    }
+
+    private void release(long bytes) {
+        lock.lock();
+        try {
+            active--;
+            activeBytes -= bytes;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // hands free room to the head of the queue for as long as the head fits
+    private void dispatch() {
+        Waiter head;
+        while ((head = queue.peek()) != null && fits(head.bytes)) {
+            queue.poll();
+            take(head.bytes);
+            head.admitted = true;
+            head.ready.signal();
+        }
+        queued = queue.size();
+    }
+
+    private void leave(Waiter waiter) {
+        queue.remove(waiter);
+        // the head may have been the one holding back smaller requests
+        dispatch();
+    }
+
+    private boolean fits(long bytes) {
+        return active < maxConcurrent && (active == 0 || activeBytes + bytes <= maxBytes);
+    }
+
+    private void take(long bytes) {
+        active++;
+        activeBytes += bytes;
+    }
+
+    ClaimRoute preRoute(MultipartFile file) {
+        if (file == null || file.isEmpty()) return null;
+        // parsing is the admitted analysis' job; a waiting request only estimates when there is room to
+        if (!preRouting.tryAcquire()) return null;
+        try {
+            // plain text comes a line at a time, so only a PDF's parts count as pages
+            int maxPages = isPdf(file) ? properties.getPreClassifyPages() : Integer.MAX_VALUE;
+            StringBuilder sample = new StringBuilder(properties.getPreClassifyChars() + 1024);
+            int[] pages = {0};
+            documentExtractionService.streamText(file, page -> {
+                sample.append(page).append('\n');
+                return sample.length() < properties.getPreClassifyChars() && ++pages[0] < maxPages;
+            });
+            return rules.current().preRoute(sample.toString());
+        } catch (RuntimeException | IOException ex) {
+            // the analysis itself reports an unreadable upload
+            log.debug("Could not pre-classify {}: {}", file.getOriginalFilename(), ex.toString());
+            return null;
+        } finally {
+            preRouting.release();
+        }
+    }
+
+    private static boolean isPdf(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return Arrays.equals(in.readNBytes(PDF_MAGIC.length), PDF_MAGIC);
+        }
+    }
+
+    private AdmissionRejectedException rejected(String message) {
+        return new AdmissionRejectedException(message, properties.getRetryAfter());
+    }
+
+    private static Timer waitTimer(MeterRegistry registry, String priority) {
+        return Timer.builder("fnol.admission.wait")
+                .description("Time an analyze request waited for a slot")
+                .tag("priority", priority)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("fnol.admission.rejected")
+                .description("Analyze requests turned away with 429")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    /** Room for one analysis; closing it more than once has no further effect. */
+    public static final class Permit implements AutoCloseable {
+
+        private final AnalysisAdmission owner;
+        private final long bytes;
+        private boolean closed;
+
+        private Permit(AnalysisAdmission owner, long bytes) {
+            this.owner = owner;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            if (owner == null || closed) return;
+            closed = true;
+            owner.release(bytes);
+        }
+    }
+
+    private static final class Waiter implements Comparable<Waiter> {
+
+        private final int priority;
+        private final long arrival;
+        private final long bytes;
+        private final Condition ready;
+        private boolean admitted;
+
+        private Waiter(int priority, long arrival, long bytes, Condition ready) {
+            this.priority = priority;
+            this.arrival = arrival;
+            this.bytes = bytes;
+            this.ready = ready;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            return priority != other.priority ? Integer.compare(priority, other.priority)
+                    : Long.compare(arrival, other.arrival);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.aniket.fnolclaimsagent.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.aniket.fnolclaimsagent.config.ResultCacheProperties;
+import org.aniket.fnolclaimsagent.dto.ClaimAnalysisResultDTO;
+import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+
+/**
+ * Extracted text and analysis results keyed by the SHA-256 of the uploaded bytes, so a
+ * re-submitted FNOL skips PDFBox entirely. Both caches are bounded by size and TTL; hit,
+ * miss and eviction counts are published as {@code cache.*} meters tagged
+ * {@code cache=fnol.extraction.text|fnol.analysis}.
+ */
+@Component
+public class ExtractionResultCache {
+
+    private final boolean enabled;
+    private final Cache<String, String> texts;
+    private final Cache<String, ClaimAnalysisResultDTO> analyses;
+
+    public ExtractionResultCache(ResultCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.texts = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String key, String text) -> weigh(text))
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.analyses = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String key, ClaimAnalysisResultDTO analysis) -> weigh(analysis.getRawText()))
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, texts, "fnol.extraction.text");
+        CaffeineCacheMetrics.monitor(meterRegistry, analyses, "fnol.analysis");
+    }
+
+    /**
+     * Cache key for an upload: SHA-256 of its bytes plus the declared content type, which
+     * decides how the bytes are parsed. Null when caching is off or there is nothing uploaded.
+     */
+    public String contentKey(MultipartFile file) throws IOException {
+        if (!enabled || file == null || file.isEmpty()) return null;
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = file.getInputStream()) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest()) + "|" + file.getContentType();
+    }
+
+    public String getText(String key) {
+        return texts.getIfPresent(key);
+    }
+
+    public void putText(String key, String text) {
+        if (text != null) texts.put(key, text);
+    }
+
+    /** A copy of the cached result, so callers may modify what they get. */
+    public ClaimAnalysisResultDTO getAnalysis(String key) {
+        ClaimAnalysisResultDTO cached = analyses.getIfPresent(key);
+        return cached != null ? copyOf(cached) : null;
+    }
+
+    public void putAnalysis(String key, ClaimAnalysisResultDTO analysis) {
+        analyses.put(key, copyOf(analysis));
+    }
+
+    /** Drop cached analysis results, e.g. after the routing rules changed. */
+    public void invalidateAnalyses() {
+        analyses.invalidateAll();
+    }
+
+    private static int weigh(String text) {
+        return text == null ? 1 : (int) Math.min(Integer.MAX_VALUE, 2L * text.length() + 64);
+    }
+
+    private static ClaimAnalysisResultDTO copyOf(ClaimAnalysisResultDTO source) {
+        ClaimAnalysisResultDTO copy = new ClaimAnalysisResultDTO();
+        if (source.getExtractedFields() != null) {
+            ExtractedFieldsDTO f = source.getExtractedFields();
+            ExtractedFieldsDTO fields = new ExtractedFieldsDTO();
+            fields.setPolicyNumber(f.getPolicyNumber());
+            fields.setPolicyHolderName(f.getPolicyHolderName());
+            fields.setIncidentDate(f.getIncidentDate());
+            fields.setIncidentTime(f.getIncidentTime());
+            fields.setLocation(f.getLocation());
+            fields.setDescription(f.getDescription());
+            fields.setClaimType(f.getClaimType());
+            fields.setEstimatedDamage(f.getEstimatedDamage());
+            copy.setExtractedFields(fields);
+        }
+        copy.setMissingFields(source.getMissingFields() != null ? new ArrayList<>(source.getMissingFields()) : null);
+        copy.setRecommendedRoute(source.getRecommendedRoute());
+        copy.setReasoning(source.getReasoning());
+        copy.setRawText(source.getRawText());
+        copy.setDocumentHash(source.getDocumentHash());
+        // possibleDuplicates is left out: it depends on the claims saved since
+        return copy;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
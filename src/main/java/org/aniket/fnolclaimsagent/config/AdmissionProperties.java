@@ -0,0 +1,51 @@
+package org.aniket.fnolclaimsagent.config;
+
+import lombok.Data;
+import org.aniket.fnolclaimsagent.model.ClaimRoute;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Admission limits in front of {@code /api/claims/analyze}, bound from {@code fnol.admission.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fnol.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /** Analyses running at once; 0 means one per core. */
+    private int maxConcurrent = 0;
+
+    /** Upload bytes of the analyses running at once; a larger upload only runs on its own. */
+    private DataSize maxInFlightSize = DataSize.ofMegabytes(256);
+
+    /** Requests waiting for a slot; any more are turned away with 429. */
+    private int maxQueued = 100;
+
+    /** Longest wait for a slot before a request is turned away with 429. */
+    private Duration maxWait = Duration.ofSeconds(30);
+
+    /** Sent as Retry-After with a 429. */
+    private Duration retryAfter = Duration.ofSeconds(5);
+
+    /** Routes whose claims are admitted first, most urgent first; other claims follow in arrival order. */
+    private List<ClaimRoute> priorityRoutes = new ArrayList<>(List.of(ClaimRoute.SPECIALIST_QUEUE, ClaimRoute.INVESTIGATION));
+
+    /** Characters read from the start of a queued upload to estimate its route. */
+    private int preClassifyChars = 4000;
+
+    /** PDF pages read at most to estimate a queued upload's route, whatever text they hold. */
+    private int preClassifyPages = 3;
+
+    /** Queued uploads read at once to estimate their route; the others wait without an estimate. */
+    private int preClassifyConcurrent = 2;
+
+    public int effectiveMaxConcurrent() {
+        return maxConcurrent > 0 ? maxConcurrent : Runtime.getRuntime().availableProcessors();
+    }
+}
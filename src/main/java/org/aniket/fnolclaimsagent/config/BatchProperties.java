@@ -0,0 +1,38 @@
+package org.aniket.fnolclaimsagent.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Limits of the batch analyze pipeline, bound from {@code fnol.batch.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fnol.batch")
+public class BatchProperties {
+
+    /** Threads stripping text; 0 means one per core. */
+    private int extractConcurrency = 0;
+
+    /** Threads running field extraction and validation. */
+    private int fieldsConcurrency = 2;
+
+    /** Threads running the routing decision. */
+    private int routeConcurrency = 2;
+
+    /** Tasks waiting in front of each stage; a full queue blocks the stage feeding it. */
+    private int stageQueueCapacity = 32;
+
+    /** Documents of one batch that may be read but not yet written back to the client. */
+    private int maxInFlight = 64;
+
+    /** Largest ZIP entry that is accepted. */
+    private DataSize maxEntrySize = DataSize.ofMegabytes(50);
+
+    /** Most documents accepted in one batch. */
+    private int maxDocuments = 10_000;
+
+    public int effectiveExtractConcurrency() {
+        return extractConcurrency > 0 ? extractConcurrency : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,39 @@
+package org.aniket.fnolclaimsagent.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Claim ids used to come from AUTO_INCREMENT. MySQL has no sequences, so Hibernate backs
+ * {@code claim_seq} with a one-row table that schema update creates starting at 1. Before
+ * the first insert, move it past the highest existing id so pooled ids cannot collide with
+ * rows saved under IDENTITY.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class ClaimIdSequenceAligner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void align() {
+        try {
+            Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from claim", Long.class);
+            int updated = jdbcTemplate.update("update claim_seq set next_val = ? where next_val <= ?",
+                    maxId + Claim.ID_ALLOCATION_SIZE + 1, maxId);
+            if (updated > 0) {
+                log.info("Moved claim_seq past existing claim id {}", maxId);
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Could not align claim_seq with existing claim ids: {}", ex.getMessage());
+        }
+    }
+}
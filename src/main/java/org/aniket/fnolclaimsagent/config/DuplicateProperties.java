@@ -0,0 +1,32 @@
+package org.aniket.fnolclaimsagent.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Duplicate claim detection settings, bound from {@code fnol.duplicates.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fnol.duplicates")
+public class DuplicateProperties {
+
+    /** Check analyzed claims against recently saved ones. */
+    private boolean enabled = true;
+
+    /** Estimated similarity (0..1) from which a saved claim is reported as a possible duplicate. */
+    private double threshold = 0.5;
+
+    /** Most possible duplicates reported per claim, most similar first. */
+    private int maxMatches = 5;
+
+    /** Most recent saved claims kept in the index, about 700 bytes of heap each; older ones are dropped first. */
+    private int maxClaims = 100_000;
+
+    /** Snapshot of the index, loaded on start; empty to keep it in memory only. */
+    private String snapshotFile = "data/duplicate-index.bin";
+
+    /** How often the snapshot is rewritten when claims were added. */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+}
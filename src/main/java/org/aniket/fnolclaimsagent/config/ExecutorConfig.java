@@ -0,0 +1,94 @@
+package org.aniket.fnolclaimsagent.config;
+
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executors used inside the claim pipeline. Each one is sized from its own properties so a
+ * busy stage cannot starve the others.
+ * <p>
+ * With {@code spring.threads.virtual.enabled=true} the stages that mostly wait on I/O (reading
+ * uploads, spooling temp files, database writes) run on virtual threads. Their pool size and
+ * queue still bound how much work is in flight. Page ranges, field extraction and routing are
+ * pure CPU work and stay on platform threads in both modes.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    private final boolean virtual;
+
+    public ExecutorConfig(Environment environment) {
+        this.virtual = Threading.VIRTUAL.isActive(environment);
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService pageExtractionExecutor(ExtractionProperties properties) {
+        return Executors.newFixedThreadPool(properties.effectiveParallelism(), threads("pdf-pages-"));
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService batchExtractStage(BatchProperties properties) {
+        return blockingStage("batch-extract-", properties.effectiveExtractConcurrency(), properties.getStageQueueCapacity(),
+                ioThreads("batch-extract-"));
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService batchFieldsStage(BatchProperties properties) {
+        return blockingStage("batch-fields-", properties.getFieldsConcurrency(), properties.getStageQueueCapacity());
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService batchRouteStage(BatchProperties properties) {
+        return blockingStage("batch-route-", properties.getRouteConcurrency(), properties.getStageQueueCapacity());
+    }
+
+    /** One long-running worker loop per thread; each takes its jobs from the claim_job table. */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService claimJobExecutor(JobProperties properties) {
+        return Executors.newFixedThreadPool(Math.max(1, properties.getWorkers()), ioThreads("claim-job-"));
+    }
+
+    /**
+     * Fixed pool with a bounded queue where submitting to a full queue waits for room
+     * instead of failing, which is what pushes back on the stage in front of it.
+     */
+    public static ExecutorService blockingStage(String name, int threads, int queueCapacity) {
+        return blockingStage(name, threads, queueCapacity, threads(name));
+    }
+
+    public static ExecutorService blockingStage(String name, int threads, int queueCapacity, ThreadFactory threadFactory) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, (task, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException(name + " is shut down");
+                    }
+                    try {
+                        executor.getQueue().put(task);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for " + name, e);
+                    }
+                });
+    }
+
+    private ThreadFactory ioThreads(String name) {
+        return virtual ? Thread.ofVirtual().name(name, 1).factory() : threads(name);
+    }
+
+    private static CustomizableThreadFactory threads(String name) {
+        CustomizableThreadFactory threads = new CustomizableThreadFactory(name);
+        threads.setDaemon(true);
+        return threads;
+    }
+}
@@ -0,0 +1,57 @@
+package org.aniket.fnolclaimsagent.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Tuning for {@code DocumentExtractionServiceImpl}, bound from {@code fnol.extraction.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fnol.extraction")
+public class ExtractionProperties {
+
+    /**
+     * Spool uploads to a temp file and parse from disk instead of holding the whole
+     * upload in a byte[]. Text is stripped page by page into one buffer.
+     */
+    private boolean streaming = true;
+
+    /** Memory-map the spooled file instead of reading it through a buffered file. */
+    private boolean memoryMapped = false;
+
+    /** Heap PDFBox may use for decoded streams per document before it spills to a scratch file. */
+    private DataSize maxMainMemory = DataSize.ofMegabytes(8);
+
+    /** Directory for spooled uploads and PDFBox scratch files; the JVM temp dir when unset. */
+    private String tempDir;
+
+    /** Documents with at least this many pages are stripped in parallel page ranges. */
+    private int parallelPageThreshold = 16;
+
+    /** Page ranges per document and size of the page extraction pool; 0 means one per core. */
+    private int parallelism = 0;
+
+    /** Smallest page range worth handing to another thread. */
+    private int minPagesPerRange = 4;
+
+    /**
+     * Stop reading a document once every mandatory field has been found. Routing keywords
+     * and the stored raw text then only cover the pages that were read.
+     */
+    private boolean stopWhenComplete = false;
+
+    /** Idle text strippers kept for reuse across documents; 0 creates one per document. */
+    private int stripperPoolSize = 16;
+
+    /**
+     * PDFBox's removal of text drawn twice at nearly the same spot (fake bold). It indexes
+     * every glyph position and accounts for roughly 40% of the heap allocated while stripping;
+     * turn it off when uploads are known not to rely on it.
+     */
+    private boolean suppressDuplicateOverlappingText = true;
+
+    public int effectiveParallelism() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+}
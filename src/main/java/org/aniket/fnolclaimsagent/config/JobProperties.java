@@ -0,0 +1,61 @@
+package org.aniket.fnolclaimsagent.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Asynchronous ingestion settings, bound from {@code fnol.jobs.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fnol.jobs")
+public class JobProperties {
+
+    public enum Role {
+        /** Accept jobs and run them. */
+        ALL,
+        /** Accept jobs, leave running them to worker nodes. */
+        API,
+        /** Run jobs from the shared table; run with {@code spring.main.web-application-type=none} to serve no HTTP. */
+        WORKER
+    }
+
+    private Role role = Role.ALL;
+
+    /** Threads analyzing and saving queued jobs on this node. */
+    private int workers = 2;
+
+    /** How often an idle worker checks the table for jobs; a job submitted on this node wakes one at once. */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /** A running job whose lease is not renewed for this long is taken over by another worker. */
+    private Duration leaseDuration = Duration.ofSeconds(60);
+
+    /** How often this node renews the leases of the jobs it runs; well below {@link #leaseDuration}. */
+    private Duration leaseRenewInterval = Duration.ofSeconds(20);
+
+    /** Runs of a job (failures and expired leases) before it is left FAILED for inspection. */
+    private int maxAttempts = 3;
+
+    /** Wait before the second run of a failed job, doubled for each further run. */
+    private Duration retryBackoff = Duration.ofSeconds(30);
+
+    /** Lease owner written to the table; empty = host name, process id and a random suffix. */
+    private String workerId = "";
+
+    /** Connect and read timeout of completion callbacks. */
+    private Duration callbackTimeout = Duration.ofSeconds(5);
+
+    /**
+     * URLs completion callbacks may go to, e.g. {@code https://hooks.example.com/fnol}: a callbackUrl must have the
+     * scheme, host and port of one of them and a path under its path. Empty = no callbacks are accepted.
+     */
+    private List<String> callbackAllowedUrls = new ArrayList<>();
+
+    public boolean runsWorkers() {
+        return role != Role.API && workers > 0;
+    }
+}
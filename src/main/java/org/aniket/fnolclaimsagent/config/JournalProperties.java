@@ -0,0 +1,33 @@
+package org.aniket.fnolclaimsagent.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Write-behind claim journal, bound from {@code fnol.journal.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fnol.journal")
+public class JournalProperties {
+
+    /** Saves are acknowledged once in the local journal and written to the database in the background. */
+    private boolean enabled = false;
+
+    /** Directory of the journal segments and checkpoint; one per node, on a local disk. */
+    private String dir = "data/claim-journal";
+
+    /** Size of one memory-mapped segment; a larger claim gets a segment of its own. */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /** Pause between database flushes while the journal is drained. */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /** Claims written to the database per flush transaction. */
+    private int flushBatchSize = 500;
+
+    /** Claim ids reserved from claim_seq at a time, so journaled saves need no database round trip. */
+    private int idBlockSize = 1000;
+}
@@ -0,0 +1,42 @@
+package org.aniket.fnolclaimsagent.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas for the claim read endpoints, bound from {@code fnol.read-replicas.*}. The
+ * replica pools are tuned under {@code fnol.read-replicas.hikari.*}, the primary's as usual
+ * under {@code spring.datasource.hikari.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fnol.read-replicas")
+public class ReplicaProperties {
+
+    /** Route list, search, stats and get-by-id reads to the replicas below. */
+    private boolean enabled = false;
+
+    /** JDBC URLs of the replicas; reads are spread over them in turn. */
+    private List<String> urls = new ArrayList<>();
+
+    /** Replica credentials; the primary's when blank. */
+    private String username;
+
+    private String password;
+
+    /**
+     * A replica further behind the primary than this gets no reads. Zero only checks that it
+     * answers, for replicas that are not fed by replication (e.g. two plain local instances).
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /** How often the primary writes the heartbeat row and the replicas' lag is read back. */
+    private Duration heartbeatInterval = Duration.ofSeconds(1);
+
+    /** Pool settings shared by every replica pool ({@code maximum-pool-size}, {@code connection-timeout}, ...). */
+    private final HikariConfig hikari = new HikariConfig();
+}
@@ -0,0 +1,23 @@
+package org.aniket.fnolclaimsagent.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Bounds of the content-hash keyed extraction cache, bound from {@code fnol.cache.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fnol.cache")
+public class ResultCacheProperties {
+
+    private boolean enabled = true;
+
+    /** Approximate heap per cache (extracted text, analysis results), counted as 2 bytes per char. */
+    private DataSize maxSize = DataSize.ofMegabytes(128);
+
+    /** Entries are dropped this long after they were written. */
+    private Duration ttl = Duration.ofMinutes(30);
+}
@@ -0,0 +1,20 @@
+package org.aniket.fnolclaimsagent.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Routing rule settings, bound from {@code fnol.routing.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fnol.routing")
+public class RoutingProperties {
+
+    /** YAML rule table; a {@code file:} location is re-read when it changes. */
+    private String rulesLocation = "classpath:routing-rules.yml";
+
+    /** How often the rule file's modification time is checked. */
+    private Duration reloadInterval = Duration.ofSeconds(10);
+}
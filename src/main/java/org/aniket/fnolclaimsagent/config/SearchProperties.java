@@ -0,0 +1,35 @@
+package org.aniket.fnolclaimsagent.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Claim search index settings, bound from {@code fnol.search.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fnol.search")
+public class SearchProperties {
+
+    /** Directory of the local full-text index; created on first start. */
+    private String indexDir = "data/claim-index";
+
+    /** How often indexed claims are committed to disk; a crash loses at most this much, caught up on restart. */
+    private Duration commitInterval = Duration.ofSeconds(5);
+
+    /** How often claims indexed since the last refresh become searchable; searches never wait for one. */
+    private Duration refreshInterval = Duration.ofMillis(500);
+
+    /** How often the claim table is polled for claims other nodes (or the journal flush) wrote. */
+    private Duration catchUpInterval = Duration.ofSeconds(5);
+
+    /**
+     * Claims written longer ago than this are taken to be committed: the index catch-up only records
+     * progress up to here. Keep it above the longest transaction that saves claims.
+     */
+    private Duration catchUpLookback = Duration.ofMinutes(1);
+
+    /** Largest page a search returns. */
+    private int maxResults = 200;
+}
@@ -0,0 +1,26 @@
+package org.aniket.fnolclaimsagent.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Claim statistics rollup behind {@code /api/claims/stats}, bound from {@code fnol.stats.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fnol.stats")
+public class StatsProperties {
+
+    /** Update the rollup on every save; off leaves the stats endpoint unavailable. */
+    private boolean enabled = true;
+
+    /** Rows each bucket is split over, so concurrent saves seldom update the same row. */
+    private int stripes = 8;
+
+    /** How often the rollup is checked against the claim table and corrected; one node at a time does it. */
+    private Duration reconcileInterval = Duration.ofHours(1);
+
+    /** First check after start; it also fills the rollup for claims saved before it existed. */
+    private Duration reconcileInitialDelay = Duration.ofMinutes(1);
+}
@@ -0,0 +1,26 @@
+package org.aniket.fnolclaimsagent.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Startup warmup, bound from {@code fnol.warmup.*}. Runs before readiness reports UP.
+ */
+@Data
+@ConfigurationProperties(prefix = "fnol.warmup")
+public class WarmupProperties {
+
+    private boolean enabled = true;
+
+    /** Passes over the sample documents; each pass runs every document through the whole pipeline. */
+    private int iterations = 50;
+
+    /** Upper bound on the whole warmup, so a slow host still becomes ready. */
+    private Duration timeout = Duration.ofSeconds(20);
+
+    /** Classpath PDFs used as warmup input. */
+    private List<String> documents = List.of("fnols/sample.pdf");
+}
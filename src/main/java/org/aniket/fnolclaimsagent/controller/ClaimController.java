@@ -3,20 +3,44 @@ package org.aniket.fnolclaimsagent.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.admission.AdmissionRejectedException;
+import org.aniket.fnolclaimsagent.admission.AnalysisAdmission;
+import org.aniket.fnolclaimsagent.config.BatchProperties;
 import org.aniket.fnolclaimsagent.dto.ClaimAnalysisResultDTO;
-import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.aniket.fnolclaimsagent.dto.ClaimPageDTO;
+import org.aniket.fnolclaimsagent.dto.ClaimSearchResultDTO;
+import org.aniket.fnolclaimsagent.dto.ClaimStatsDTO;
 import org.aniket.fnolclaimsagent.dto.TextExtractionResponse;
 import org.aniket.fnolclaimsagent.model.Claim;
+import org.aniket.fnolclaimsagent.search.ClaimSearchQuery;
 import org.aniket.fnolclaimsagent.service.*;
+import org.aniket.fnolclaimsagent.service.ClaimDocumentService.StoredText;
+import org.aniket.fnolclaimsagent.util.StreamingJson;
+import org.aniket.fnolclaimsagent.util.ZipEntryIterator;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @RestController
 @RequestMapping("/api/claims")
@@ -25,11 +49,17 @@ import java.util.Optional;
 @Slf4j
 public class ClaimController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_SAVE_BATCH = 5_000;
+
     private final DocumentExtractionService documentExtractionService;
-    private final FieldExtractionService fieldExtractionService;
-    private final ValidationService validationService;
-    private final RoutingService routingService;
+    private final ClaimAnalysisService claimAnalysisService;
+    private final AnalysisAdmission admission;
+    private final BatchAnalysisService batchAnalysisService;
     private final ClaimService claimService;
+    private final ClaimDocumentService claimDocumentService;
+    private final BatchProperties batchProperties;
+    private final JsonMapper jsonMapper;
 
 
     @Operation(summary = "Upload file & extract raw text")
@@ -53,16 +83,21 @@ public class ClaimController {
     @Operation(summary = "Extract fields + validate + routing decision")
     @PostMapping("/analyze")
     public ResponseEntity<?> analyzeClaim(
-            @RequestParam(value = "file", required = false) MultipartFile file) {
-
-        try {
-            String text = documentExtractionService.extractText(file);
-            ExtractedFieldsDTO extracted = fieldExtractionService.extractFields(text);
-            List<String> missing = validationService.findMissingFields(extracted);
+            @RequestParam(value = "file", required = false) MultipartFile file,
+            @RequestParam(value = "includeRawText", defaultValue = "true") boolean includeRawText) {
 
-            ClaimAnalysisResultDTO result = routingService.routeClaim(extracted, missing, text);
-            result.setRawText(text);
+        try (AnalysisAdmission.Permit permit = admission.admit(file)) {
+            ClaimAnalysisResultDTO result = claimAnalysisService.analyze(file);
+            if (!includeRawText) {
+                // store the text now and hand back its hash, which /save takes in place of the text
+                result.setDocumentHash(claimDocumentService.store(result.getRawText()));
+                result.setRawText(null);
+            }
             return ResponseEntity.ok(result);
+        } catch (AdmissionRejectedException ex) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                    .body(Map.of("error", ex.getMessage()));
         } catch (Exception ex) {
             log.error("Failed to analyze claim", ex);
             Map<String, Object> err = new HashMap<>();
@@ -72,35 +107,166 @@ public class ClaimController {
         }
     }
 
+    @Operation(summary = "Analyze many FNOLs (files and/or a ZIP archive), streaming NDJSON results as they complete")
+    @PostMapping(value = "/analyze/batch", produces = NDJSON)
+    public ResponseEntity<?> analyzeBatch(
+            @RequestParam(value = "files", required = false) List<MultipartFile> files,
+            @RequestParam(value = "archive", required = false) MultipartFile archive,
+            @RequestParam(value = "includeRawText", defaultValue = "false") boolean includeRawText) {
+
+        List<MultipartFile> uploads = files != null ? files : List.of();
+        if (uploads.isEmpty() && (archive == null || archive.isEmpty())) {
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", "Provide 'files' and/or a ZIP 'archive'"));
+        }
+
+        StreamingResponseBody body = out -> {
+            try (ZipEntryIterator entries = archive != null && !archive.isEmpty()
+                    ? new ZipEntryIterator(archive.getInputStream(), batchProperties.getMaxEntrySize().toBytes())
+                    : null) {
+                // archive entries are only read as the pipeline asks for them
+                Iterator<MultipartFile> documents = entries != null
+                        ? Stream.concat(uploads.stream(), StreamSupport.stream(
+                                Spliterators.spliteratorUnknownSize(entries, Spliterator.ORDERED), false)).iterator()
+                        : uploads.iterator();
+                batchAnalysisService.analyzeAll(documents, includeRawText, item -> {
+                    try {
+                        out.write(jsonMapper.writeValueAsBytes(item));
+                        out.write('\n');
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (RuntimeException ex) {
+                log.error("Batch analysis aborted", ex);
+                out.write(jsonMapper.writeValueAsBytes(Map.of("error", "Batch aborted", "message", String.valueOf(ex.getMessage()))));
+                out.write('\n');
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
     @Operation(summary = "Save Analyzed Claim")
     @PostMapping("/save")
     public ResponseEntity<?> saveClaim(@RequestBody ClaimAnalysisResultDTO analysis) {
         try {
             Claim saved = claimService.saveFromAnalysis(analysis);
+            // the caller sent the text (or its hash), no need to send it back
+            saved.setRawText(null);
             return ResponseEntity.ok(saved);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
         } catch (Exception ex) {
             log.error("Failed to save claim", ex);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", ex.getMessage()));
         }
     }
 
-    @Operation(summary = "List all saved claims")
+    @Operation(summary = "Save many analyzed claims in one transaction with batched inserts")
+    @PostMapping("/save/batch")
+    public ResponseEntity<?> saveClaims(@RequestBody List<ClaimAnalysisResultDTO> analyses) {
+        if (analyses == null || analyses.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "No claims in request"));
+        }
+        if (analyses.size() > MAX_SAVE_BATCH) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_SAVE_BATCH + " claims per request"));
+        }
+        try {
+            List<Long> ids = claimService.saveAllFromAnalyses(analyses).stream().map(Claim::getId).toList();
+            return ResponseEntity.ok(Map.of("saved", ids.size(), "ids", ids));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (Exception ex) {
+            log.error("Failed to save claim batch", ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    @Operation(summary = "List saved claims, highest id first, one page at a time (no raw text)")
     @GetMapping
-    public ResponseEntity<List<Claim>> listAll() {
-        return ResponseEntity.ok(claimService.findAll());
+    public ResponseEntity<ClaimPageDTO> listAll(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestParam(value = "policyNumber", required = false) String policyNumber,
+            @RequestParam(value = "route", required = false) String route,
+            @RequestParam(value = "claimType", required = false) String claimType,
+            @RequestParam(value = "incidentFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate incidentFrom,
+            @RequestParam(value = "incidentTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate incidentTo) {
+        return ResponseEntity.ok(claimService.findPage(after, limit, policyNumber, route, claimType, incidentFrom, incidentTo));
+    }
+
+    @Operation(summary = "Search saved claims by words in name / location / description / document text and by attributes")
+    @GetMapping("/search")
+    public ResponseEntity<?> search(
+            @RequestParam(value = "q", required = false) String text,
+            @RequestParam(value = "policyNumber", required = false) String policyNumber,
+            @RequestParam(value = "holderName", required = false) String holderName,
+            @RequestParam(value = "location", required = false) String location,
+            @RequestParam(value = "route", required = false) String route,
+            @RequestParam(value = "incidentFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate incidentFrom,
+            @RequestParam(value = "incidentTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate incidentTo,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        try {
+            ClaimSearchResultDTO result = claimService.search(new ClaimSearchQuery(
+                    text, policyNumber, holderName, location, route, incidentFrom, incidentTo), limit);
+            return ResponseEntity.ok(result);
+        } catch (Exception ex) {
+            log.error("Claim search failed", ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Search failed"));
+        }
+    }
+
+    @Operation(summary = "Claim counts and estimated damage in total and per route, claim type, incident day and created day")
+    @GetMapping("/stats")
+    public ResponseEntity<?> statistics(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Optional<ClaimStatsDTO> stats = claimService.statistics(from, to);
+        if (stats.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Claim statistics are disabled"));
+        }
+        return ResponseEntity.ok(stats.get());
     }
 
-    @Operation(summary = "Get single claim by ID")
+    @Operation(summary = "Get single claim by ID, the raw text streamed from storage")
     @GetMapping("/{id}")
-    public ResponseEntity<Claim> getById(@PathVariable Long id) {
+    public ResponseEntity<?> getById(
+            @PathVariable Long id,
+            @RequestParam(value = "includeRawText", defaultValue = "true") boolean includeRawText) {
         Optional<Claim> opt = claimService.findById(id);
-        if (opt.isPresent()) {
-            return ResponseEntity.ok(opt.get());
-        } else {
+        if (opt.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
+        Claim claim = opt.get();
+        Optional<StoredText> text = includeRawText ? claimService.openRawText(claim) : Optional.empty();
+        if (text.isEmpty()) {
+            return ResponseEntity.ok(claim);
+        }
+        StreamingResponseBody body = out -> {
+            try (InputStream utf8 = text.get().utf8()) {
+                StreamingJson.writeWithText(jsonMapper, claim, "rawText", utf8, out);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
-
-
+    @Operation(summary = "Raw text of a saved claim as text/plain, streamed from storage")
+    @GetMapping(value = "/{id}/raw-text", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<StreamingResponseBody> getRawText(@PathVariable Long id) {
+        Optional<StoredText> text = claimService.findById(id).flatMap(claimService::openRawText);
+        if (text.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        StreamingResponseBody body = out -> {
+            try (InputStream utf8 = text.get().utf8()) {
+                utf8.transferTo(out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .contentLength(text.get().length())
+                .body(body);
+    }
 }
@@ -0,0 +1,66 @@
+package org.aniket.fnolclaimsagent.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.model.ClaimJob;
+import org.aniket.fnolclaimsagent.service.ClaimJobService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/claims/jobs")
+@CrossOrigin
+@RequiredArgsConstructor
+@Slf4j
+public class ClaimJobController {
+
+    private final ClaimJobService claimJobService;
+
+    @Operation(summary = "Queue a file for analysis + save; returns the job to poll")
+    @PostMapping
+    public ResponseEntity<?> submit(
+            @RequestParam(value = "file", required = false) MultipartFile file,
+            @RequestParam(value = "callbackUrl", required = false) String callbackUrl) {
+        try {
+            ClaimJob job = claimJobService.submit(file, callbackUrl);
+            return ResponseEntity.accepted().location(URI.create("/api/claims/jobs/" + job.getId())).body(job);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (Exception ex) {
+            log.error("Failed to queue claim job", ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Get job status")
+    @GetMapping("/{id}")
+    public ResponseEntity<ClaimJob> getById(@PathVariable Long id) {
+        Optional<ClaimJob> opt = claimJobService.findById(id);
+        if (opt.isPresent()) {
+            return ResponseEntity.ok(opt.get());
+        } else {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    @Operation(summary = "Queue a FAILED job again")
+    @PostMapping("/{id}/retry")
+    public ResponseEntity<?> retry(@PathVariable Long id) {
+        try {
+            Optional<ClaimJob> job = claimJobService.requeue(id);
+            if (job.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            return ResponseEntity.ok(job.get());
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.aniket.fnolclaimsagent.datasource;
+
+/**
+ * Marks the read-only transactions that may run on a replica:
+ * {@code @Transactional(readOnly = true, label = ReadReplicas.LABEL)}. Other read-only
+ * transactions, including Spring Data's default ones, stay on the primary, because most of
+ * them read something written a moment before.
+ */
+public final class ReadReplicas {
+
+    public static final String LABEL = "read-replica";
+
+    private static final ThreadLocal<Boolean> REQUESTED = new ThreadLocal<>();
+
+    private ReadReplicas() {
+    }
+
+    /** Whether the current transaction asked for a replica (it may still have been given the primary). */
+    public static boolean isRequested() {
+        return Boolean.TRUE.equals(REQUESTED.get());
+    }
+
+    static void request(boolean replica) {
+        if (replica) {
+            REQUESTED.set(Boolean.TRUE);
+        } else {
+            REQUESTED.remove();
+        }
+    }
+}
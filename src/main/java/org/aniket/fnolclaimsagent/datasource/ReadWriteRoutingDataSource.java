@@ -0,0 +1,59 @@
+package org.aniket.fnolclaimsagent.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands out replica connections to transactions that asked for one (see {@link ReadReplicas})
+ * while a replica is fit to serve them, and primary connections to everything else. A replica
+ * that fails to connect is taken out of rotation and the read goes to the primary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReplicaPool replicas;
+
+    public ReadWriteRoutingDataSource(DataSource primary, ReplicaPool replicas) {
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return ReadReplicas.isRequested() ? replicaConnection(null, null) : primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return ReadReplicas.isRequested()
+                ? replicaConnection(username, password)
+                : primary.getConnection(username, password);
+    }
+
+    private Connection replicaConnection(String username, String password) throws SQLException {
+        DataSource replica = replicas.pick();
+        if (replica != null) {
+            try {
+                return username == null ? replica.getConnection() : replica.getConnection(username, password);
+            } catch (SQLException ex) {
+                replicas.failed(replica, ex);
+            }
+        }
+        return username == null ? primary.getConnection() : primary.getConnection(username, password);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return (T) this;
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,40 @@
+package org.aniket.fnolclaimsagent.datasource;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+/**
+ * Tells {@link ReadWriteRoutingDataSource} which transactions it may send to a replica. The
+ * flag is set before the transaction takes its connection and cleared when it completes; a
+ * resumed outer transaction keeps the connection it already holds.
+ */
+public class ReplicaAwareTransactionManager extends JpaTransactionManager {
+
+    public ReplicaAwareTransactionManager(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        ReadReplicas.request(definition.isReadOnly()
+                && definition instanceof TransactionAttribute attribute
+                && attribute.getLabels().contains(ReadReplicas.LABEL));
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error ex) {
+            ReadReplicas.request(false);
+            throw ex;
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            ReadReplicas.request(false);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.aniket.fnolclaimsagent.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The replicas reads may go to, and which of them are fit to serve right now. Every
+ * {@code heartbeat-interval} the primary writes the time into a one-row heartbeat table and
+ * each replica is asked how old its copy of that row is. That age is the replication lag
+ * plus at most one interval. A replica that cannot be reached, or lags more than
+ * {@code max-lag}, gets no reads until a later heartbeat finds it caught up. Reads go to
+ * the replicas in turn; when none is fit they fall back to the primary.
+ * <p>
+ * Meters: {@code fnol.replica.lag} and {@code fnol.replica.available}, tagged with the
+ * replica, and {@code fnol.replica.reads} tagged {@code target=replica|primary}.
+ */
+@Slf4j
+public class ReplicaPool implements Closeable {
+
+    static final String HEARTBEAT_TABLE = "fnol_replica_heartbeat";
+
+    private final JdbcTemplate primary;
+    private final List<Replica> replicas;
+    private final long maxLagMicros;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+    private boolean heartbeatTableReady;
+    private boolean heartbeatFailing;
+
+    /** @param maxLag zero to only check that a replica answers, e.g. for two instances without replication */
+    public ReplicaPool(DataSource primary, Map<String, DataSource> replicas, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.maxLagMicros = maxLag.toNanos() / 1000;
+        this.replicas = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            Gauge.builder("fnol.replica.lag", replica, r -> r.lagMicros / 1e6)
+                    .description("Replication lag seen by the last heartbeat; -1 when the replica did not answer")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            Gauge.builder("fnol.replica.available", replica, r -> r.available ? 1 : 0)
+                    .description("Whether reads go to this replica")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+        this.replicaReads = readCounter(meterRegistry, "replica");
+        this.primaryReads = readCounter(meterRegistry, "primary");
+    }
+
+    /** The next replica fit for reads, or null to read from the primary. */
+    DataSource pick() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.available) {
+                replicaReads.increment();
+                return replica.dataSource;
+            }
+        }
+        primaryReads.increment();
+        return null;
+    }
+
+    /** The replica could not hand out a connection; it gets no reads until the next heartbeat finds it. */
+    void failed(DataSource dataSource, Exception ex) {
+        for (Replica replica : replicas) {
+            if (replica.dataSource == dataSource && replica.available) {
+                replica.available = false;
+                log.warn("Read replica {} failed, reading from the primary: {}", replica.name, ex.toString());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fnol.read-replicas.heartbeat-interval:1s}")
+    public void heartbeat() {
+        if (maxLagMicros > 0) {
+            try {
+                if (!heartbeatTableReady) {
+                    primary.execute("create table if not exists " + HEARTBEAT_TABLE
+                            + " (id int primary key, beat timestamp(6) not null)");
+                    heartbeatTableReady = true;
+                }
+                primary.update("replace into " + HEARTBEAT_TABLE + " (id, beat) values (1, now(6))");
+                heartbeatFailing = false;
+            } catch (RuntimeException ex) {
+                // the replicas' lag keeps growing until the primary is back, so they drop out on their own
+                if (!heartbeatFailing) log.warn("Could not write the replica heartbeat: {}", ex.toString());
+                heartbeatFailing = true;
+            }
+        }
+        for (Replica replica : replicas) {
+            Long lag;
+            try {
+                lag = measure(replica);
+            } catch (RuntimeException ex) {
+                log.debug("Read replica {} did not answer the heartbeat: {}", replica.name, ex.toString());
+                lag = null;
+            }
+            update(replica, lag);
+        }
+    }
+
+    // null: not reachable (or no heartbeat replicated yet)
+    private Long measure(Replica replica) {
+        JdbcTemplate jdbc = new JdbcTemplate(replica.dataSource);
+        if (maxLagMicros == 0) {
+            jdbc.queryForObject("select 1", Integer.class);
+            return 0L;
+        }
+        List<Long> ages = jdbc.queryForList(
+                "select timestampdiff(microsecond, beat, now(6)) from " + HEARTBEAT_TABLE + " where id = 1", Long.class);
+        return ages.isEmpty() ? null : Math.max(0, ages.getFirst());
+    }
+
+    void update(Replica replica, Long lagMicros) {
+        boolean fit = lagMicros != null && (maxLagMicros == 0 || lagMicros <= maxLagMicros);
+        replica.lagMicros = lagMicros != null ? lagMicros : -1_000_000;
+        if (fit != replica.available) {
+            if (fit) {
+                log.info("Read replica {} is back (lag {} ms)", replica.name, lagMicros / 1000);
+            } else if (lagMicros != null) {
+                log.warn("Read replica {} lags {} ms, reading from the primary", replica.name, lagMicros / 1000);
+            } else {
+                log.warn("Read replica {} is unreachable, reading from the primary", replica.name);
+            }
+        }
+        replica.available = fit;
+    }
+
+    List<Replica> replicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) closeable.close();
+        }
+    }
+
+    private static Counter readCounter(MeterRegistry registry, String target) {
+        return Counter.builder("fnol.replica.reads")
+                .description("Replica-eligible transactions, by where they were sent")
+                .tag("target", target)
+                .register(registry);
+    }
+
+    static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        // unknown until the first heartbeat: no reads before then
+        private volatile boolean available;
+        private volatile long lagMicros = -1_000_000;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        boolean available() {
+            return available;
+        }
+    }
+}
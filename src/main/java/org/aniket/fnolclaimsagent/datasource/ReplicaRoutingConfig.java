@@ -0,0 +1,84 @@
+package org.aniket.fnolclaimsagent.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.aniket.fnolclaimsagent.config.ReplicaProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.boot.transaction.autoconfigure.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * With {@code fnol.read-replicas.enabled=true} the application's DataSource is a
+ * {@link ReadWriteRoutingDataSource} over the primary pool ({@code spring.datasource.*}) and one
+ * pool per replica URL ({@code fnol.read-replicas.*}), and the JPA transaction manager marks the
+ * transactions labelled {@link ReadReplicas#LABEL} for it. Without it Boot's single pool and
+ * transaction manager are used and the label has no effect.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "fnol.read-replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (!StringUtils.hasText(dataSource.getPoolName())) dataSource.setPoolName("primary");
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaPool replicaPool(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                   ReplicaProperties replicas, DataSourceProperties primary, MeterRegistry meterRegistry) {
+        List<String> urls = replicas.getUrls();
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("fnol.read-replicas.enabled is set but fnol.read-replicas.urls is empty");
+        }
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            replicas.getHikari().copyStateTo(config);
+            config.setPoolName("replica-" + (i + 1));
+            config.setJdbcUrl(urls.get(i));
+            config.setDriverClassName(primary.determineDriverClassName());
+            config.setUsername(StringUtils.hasText(replicas.getUsername()) ? replicas.getUsername() : primary.determineUsername());
+            config.setPassword(replicas.getPassword() != null ? replicas.getPassword() : primary.determinePassword());
+            config.setReadOnly(true);
+            // start even when a replica is down; the heartbeat brings it into rotation later
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        return new ReplicaPool(primaryDataSource, pools, replicas.getMaxLag(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                 ReplicaPool replicaPool) {
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicaPool);
+    }
+
+    @Bean
+    public ReplicaAwareTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                             ObjectProvider<TransactionManagerCustomizers> customizers) {
+        ReplicaAwareTransactionManager transactionManager = new ReplicaAwareTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+}
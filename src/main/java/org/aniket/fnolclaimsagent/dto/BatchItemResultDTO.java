@@ -0,0 +1,13 @@
+package org.aniket.fnolclaimsagent.dto;
+
+import lombok.Data;
+
+@Data
+public class BatchItemResultDTO {
+    // position of the document in the request (files first, then archive entries)
+    private int index;
+    private String fileName;
+    private String status;
+    private ClaimAnalysisResultDTO analysis;
+    private String error;
+}
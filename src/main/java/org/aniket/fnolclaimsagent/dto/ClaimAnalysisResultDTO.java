@@ -11,5 +11,9 @@ public class ClaimAnalysisResultDTO {
     private String recommendedRoute;
     private String reasoning;
     private String rawText;
+    // set instead of rawText when analyze stored the text (includeRawText=false); save accepts either
+    private String documentHash;
+    // saved claims that look like the same loss; worked out on every analyze, never cached
+    private List<DuplicateMatchDTO> possibleDuplicates;
 
 }
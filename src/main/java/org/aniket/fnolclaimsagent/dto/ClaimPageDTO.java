@@ -0,0 +1,16 @@
+package org.aniket.fnolclaimsagent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaimPageDTO {
+    private List<ClaimSummaryDTO> items;
+    // pass as "after" to get the next page; null on the last page
+    private Long nextCursor;
+}
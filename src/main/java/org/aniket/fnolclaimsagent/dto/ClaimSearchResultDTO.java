@@ -0,0 +1,18 @@
+package org.aniket.fnolclaimsagent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaimSearchResultDTO {
+    // best match first for word searches, highest id first otherwise
+    private List<ClaimSummaryDTO> items;
+    private long totalHits;
+    // false when totalHits is only a lower bound
+    private boolean totalHitsExact;
+}
@@ -0,0 +1,31 @@
+package org.aniket.fnolclaimsagent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/** Claim counts and estimated damage, in total and per route, claim type and day. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaimStatsDTO {
+    private long claims;
+    private BigDecimal estimatedDamage;
+    private List<Bucket> byRoute;
+    private List<Bucket> byClaimType;
+    private List<Bucket> byIncidentDate;
+    private List<Bucket> byCreatedDate;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        // null for claims without a route / type / date
+        private String key;
+        private long claims;
+        private BigDecimal estimatedDamage;
+    }
+}
@@ -0,0 +1,19 @@
+package org.aniket.fnolclaimsagent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.aniket.fnolclaimsagent.model.StatsDimension;
+
+import java.math.BigDecimal;
+
+/** One rollup bucket with its stripes added up. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaimStatsRowDTO {
+    private StatsDimension dimension;
+    private String bucket;
+    private Long claims;
+    private BigDecimal estimatedDamage;
+}
@@ -0,0 +1,24 @@
+package org.aniket.fnolclaimsagent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/** Listing row: the claim without its description / reasoning / raw text columns. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaimSummaryDTO {
+    private Long id;
+    private String policyNumber;
+    private String policyHolderName;
+    private LocalDate incidentDate;
+    private String claimType;
+    private BigDecimal estimatedDamage;
+    private String recommendedRoute;
+    private LocalDateTime createdAt;
+}
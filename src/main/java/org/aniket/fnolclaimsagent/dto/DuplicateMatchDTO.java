@@ -0,0 +1,16 @@
+package org.aniket.fnolclaimsagent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateMatchDTO {
+    private Long claimId;
+    // estimated Jaccard similarity of description, location, policy number and incident date
+    private double similarity;
+    private boolean samePolicyNumber;
+    private boolean sameIncidentDate;
+}
@@ -1,6 +1,16 @@
 package org.aniket.fnolclaimsagent.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.aniket.fnolclaimsagent.util.FieldNormalization;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Data
 public class ExtractedFieldsDTO {
@@ -16,4 +26,42 @@ public class ExtractedFieldsDTO {
     // Claim / asset info
     private String claimType;
     private String estimatedDamage;
+
+    // Parsed once on first use and shared by routing and persistence; reset by the setters
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude @ToString.Exclude
+    private transient LocalDate parsedIncidentDate;
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude @ToString.Exclude
+    private transient BigDecimal parsedEstimatedDamage;
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude @ToString.Exclude
+    private transient boolean incidentDateParsed;
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude @ToString.Exclude
+    private transient boolean estimatedDamageParsed;
+
+    public void setIncidentDate(String incidentDate) {
+        this.incidentDate = incidentDate;
+        this.incidentDateParsed = false;
+    }
+
+    public void setEstimatedDamage(String estimatedDamage) {
+        this.estimatedDamage = estimatedDamage;
+        this.estimatedDamageParsed = false;
+    }
+
+    @JsonIgnore
+    public LocalDate getIncidentDateValue() {
+        if (!incidentDateParsed) {
+            parsedIncidentDate = FieldNormalization.parseIncidentDate(incidentDate);
+            incidentDateParsed = true;
+        }
+        return parsedIncidentDate;
+    }
+
+    @JsonIgnore
+    public BigDecimal getEstimatedDamageAmount() {
+        if (!estimatedDamageParsed) {
+            parsedEstimatedDamage = FieldNormalization.parseAmount(estimatedDamage);
+            estimatedDamageParsed = true;
+        }
+        return parsedEstimatedDamage;
+    }
 }
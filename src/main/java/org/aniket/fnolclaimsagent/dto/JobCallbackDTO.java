@@ -0,0 +1,22 @@
+package org.aniket.fnolclaimsagent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.aniket.fnolclaimsagent.model.JobStatus;
+
+import java.time.LocalDateTime;
+
+/** Body of a job completion callback: the outcome of the job, none of its lease or upload details. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobCallbackDTO {
+    private Long jobId;
+    private JobStatus status;
+    private Long claimId;
+    private String recommendedRoute;
+    private String error;
+    private int attempts;
+    private LocalDateTime finishedAt;
+}
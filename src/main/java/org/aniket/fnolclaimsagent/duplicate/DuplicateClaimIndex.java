@@ -0,0 +1,395 @@
+package org.aniket.fnolclaimsagent.duplicate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.config.DuplicateProperties;
+import org.aniket.fnolclaimsagent.dto.DuplicateMatchDTO;
+import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.aniket.fnolclaimsagent.util.MinHash;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory locality-sensitive hashing index over the {@link MinHash} signatures of the
+ * most recently saved claims, used to flag likely duplicates while a claim is analyzed.
+ * <p>
+ * The signature is cut into {@link #BANDS} bands; claims that agree on all values of any
+ * one band land in the same bucket and become candidates, whose similarity is then
+ * estimated from the full signatures. A lookup reads at most {@link #MAX_CHAIN} newest
+ * entries per bucket, so its cost does not depend on how many claims are indexed.
+ * <p>
+ * Entries live in a ring of {@code fnol.duplicates.max-claims} slots; when it is full the
+ * oldest claim is overwritten. Buckets are chains through the slots, newest first, in one
+ * open-addressing table; a link to an overwritten slot is recognized by its sequence
+ * number and ends the chain, so eviction needs no unlinking. The index is written to
+ * {@code fnol.duplicates.snapshot-file} periodically and on shutdown and read back on start.
+ */
+@Component
+@Slf4j
+public class DuplicateClaimIndex implements AutoCloseable {
+
+    static final int BANDS = 16;
+    static final int ROWS = MinHash.SIZE / BANDS;
+    static final int MAX_CHAIN = 32;
+
+    private static final int SNAPSHOT_MAGIC = 0x464e4450;
+    // 2 adds the written_at the claim table was read up to
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int EMPTY = -1;
+
+    private final DuplicateProperties properties;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int capacity;
+
+    // per slot
+    private final long[] ids;
+    private final long[] seqs;
+    private final long[] policies;
+    private final int[] days;
+    private final int[] signatures;
+    private final int[] next;
+    private final Map<Long, Integer> slotById = new HashMap<>();
+
+    // bucket table: band key -> newest slot of the chain
+    private final int[] tableKeys;
+    private final int[] tableHeads;
+    private int tableUsed;
+
+    private long seq;
+    private long maxClaimId;
+    private long snapshotClaimId;
+    private LocalDateTime caughtUpTo;
+    private LocalDateTime snapshotCaughtUpTo;
+    private boolean dirty;
+
+    public DuplicateClaimIndex(DuplicateProperties properties) {
+        this.properties = properties;
+        this.capacity = properties.isEnabled() ? Math.max(1, properties.getMaxClaims()) : 0;
+        this.ids = new long[capacity];
+        this.seqs = new long[capacity];
+        this.policies = new long[capacity];
+        this.days = new int[capacity];
+        this.signatures = new int[capacity * MinHash.SIZE];
+        this.next = new int[capacity * BANDS];
+        int tableSize = capacity == 0 ? 0 : Integer.highestOneBit(Math.max(16, capacity * BANDS * 2 - 1)) << 1;
+        this.tableKeys = new int[tableSize];
+        this.tableHeads = new int[tableSize];
+        Arrays.fill(tableHeads, EMPTY);
+        if (capacity > 0) {
+            loadSnapshot();
+        }
+    }
+
+    /** Highest claim id in the snapshot read on start; 0 without one. */
+    public long snapshotClaimId() {
+        return snapshotClaimId;
+    }
+
+    /** {@code written_at} up to which the snapshot read on start held every claim; null without one. */
+    public LocalDateTime snapshotCaughtUpTo() {
+        return snapshotCaughtUpTo;
+    }
+
+    /** Every claim written up to {@code writtenAt} has been added; recorded with the next snapshot. Never moves back. */
+    public void caughtUpTo(LocalDateTime writtenAt) {
+        lock.writeLock().lock();
+        try {
+            if (caughtUpTo == null || writtenAt.isAfter(caughtUpTo)) {
+                caughtUpTo = writtenAt;
+                dirty = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return (int) Math.min(seq, capacity);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(Claim claim) {
+        if (capacity == 0 || claim.getId() == null) return;
+        int[] signature = MinHash.signature(claim.getDescription(), claim.getLocation(),
+                claim.getPolicyNumber(), claim.getIncidentDate());
+        if (signature == null) return;
+        lock.writeLock().lock();
+        try {
+            if (slotById.containsKey(claim.getId())) return;
+            insert(claim.getId(), MinHash.policyHash(claim.getPolicyNumber()),
+                    claim.getIncidentDate() != null ? (int) claim.getIncidentDate().toEpochDay() : NO_DATE, signature);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addAll(List<Claim> claims) {
+        for (Claim claim : claims) {
+            add(claim);
+        }
+    }
+
+    /** Saved claims that look like the same loss, most similar first; empty when there are none. */
+    public List<DuplicateMatchDTO> findMatches(ExtractedFieldsDTO fields) {
+        if (capacity == 0 || fields == null) return List.of();
+        LocalDate incidentDate = fields.getIncidentDateValue();
+        int[] signature = MinHash.signature(fields.getDescription(), fields.getLocation(),
+                fields.getPolicyNumber(), incidentDate);
+        if (signature == null) return List.of();
+        long policy = MinHash.policyHash(fields.getPolicyNumber());
+        int day = incidentDate != null ? (int) incidentDate.toEpochDay() : NO_DATE;
+
+        List<DuplicateMatchDTO> matches = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            for (int band = 0; band < BANDS; band++) {
+                int key = bandKey(signature, 0, band);
+                int t = find(key, band);
+                int slot = t < 0 ? EMPTY : tableHeads[t];
+                long newerThan = Long.MAX_VALUE;
+                for (int n = 0; n < MAX_CHAIN && isLink(slot, key, band, newerThan); n++) {
+                    if (seen.add(slot)) {
+                        double similarity = similarity(signature, slot);
+                        if (similarity >= properties.getThreshold()) {
+                            matches.add(new DuplicateMatchDTO(ids[slot], similarity,
+                                    policy != 0 && policies[slot] == policy, day != NO_DATE && days[slot] == day));
+                        }
+                    }
+                    newerThan = seqs[slot];
+                    slot = next[slot * BANDS + band];
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingDouble(DuplicateMatchDTO::getSimilarity).reversed()
+                .thenComparing(DuplicateMatchDTO::getClaimId, Comparator.reverseOrder()));
+        return matches.size() > properties.getMaxMatches()
+                ? new ArrayList<>(matches.subList(0, properties.getMaxMatches())) : matches;
+    }
+
+    @Scheduled(fixedDelayString = "${fnol.duplicates.snapshot-interval:5m}")
+    public synchronized void snapshot() throws IOException {
+        String file = properties.getSnapshotFile();
+        if (capacity == 0 || file == null || file.isBlank()) return;
+        Path path = Path.of(file);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        int written;
+        // readers carry on while the snapshot is written, new claims wait for it
+        lock.readLock().lock();
+        try {
+            if (!dirty) return;
+            written = (int) Math.min(seq, capacity);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(MinHash.SIZE);
+                out.writeUTF(caughtUpTo != null ? caughtUpTo.toString() : "");
+                out.writeInt(written);
+                // oldest first, so loading re-creates the same eviction order
+                for (long s = seq - written; s < seq; s++) {
+                    int slot = (int) (s % capacity);
+                    out.writeLong(ids[slot]);
+                    out.writeLong(policies[slot]);
+                    out.writeInt(days[slot]);
+                    for (int i = 0; i < MinHash.SIZE; i++) {
+                        out.writeInt(signatures[slot * MinHash.SIZE + i]);
+                    }
+                }
+            }
+            dirty = false;
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Duplicate index snapshot: {} claims written to {}", written, path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        snapshot();
+    }
+
+    private void loadSnapshot() {
+        String file = properties.getSnapshotFile();
+        if (file == null || file.isBlank() || !Files.exists(Path.of(file))) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Path.of(file)), 1 << 16))) {
+            int version;
+            if (in.readInt() != SNAPSHOT_MAGIC || (version = in.readInt()) < 1 || version > SNAPSHOT_VERSION
+                    || in.readInt() != MinHash.SIZE) {
+                log.warn("Ignoring duplicate index snapshot {}: unknown format", file);
+                return;
+            }
+            // a version 1 snapshot says nothing about written_at, so the catch-up reads the whole table once
+            String caughtUp = version >= 2 ? in.readUTF() : "";
+            int count = in.readInt();
+            int[] signature = new int[MinHash.SIZE];
+            for (int n = 0; n < count; n++) {
+                long id = in.readLong();
+                long policy = in.readLong();
+                int day = in.readInt();
+                for (int i = 0; i < MinHash.SIZE; i++) {
+                    signature[i] = in.readInt();
+                }
+                if (!slotById.containsKey(id)) {
+                    insert(id, policy, day, signature);
+                }
+            }
+            snapshotClaimId = maxClaimId;
+            snapshotCaughtUpTo = caughtUp.isEmpty() ? null : LocalDateTime.parse(caughtUp);
+            caughtUpTo = snapshotCaughtUpTo;
+            log.info("Duplicate index: {} claims loaded from {}", size(), file);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not read duplicate index snapshot {}, starting empty: {}", file, ex.toString());
+            clear();
+        }
+    }
+
+    private void insert(long id, long policy, int day, int[] signature) {
+        if (tableUsed >= tableKeys.length * 3 / 4) {
+            rebuildTable();
+        }
+        int slot = (int) (seq % capacity);
+        if (seq >= capacity) {
+            slotById.remove(ids[slot]);
+        }
+        ids[slot] = id;
+        seqs[slot] = seq;
+        policies[slot] = policy;
+        days[slot] = day;
+        System.arraycopy(signature, 0, signatures, slot * MinHash.SIZE, MinHash.SIZE);
+        link(slot);
+        slotById.put(id, slot);
+        maxClaimId = Math.max(maxClaimId, id);
+        seq++;
+    }
+
+    private void link(int slot) {
+        for (int band = 0; band < BANDS; band++) {
+            int key = bandKey(signatures, slot * MinHash.SIZE, band);
+            int t = findOrInsert(key, band);
+            next[slot * BANDS + band] = tableHeads[t];
+            tableHeads[t] = slot;
+        }
+    }
+
+    /** Table position holding {@code key}, -1 when it has none. */
+    private int find(int key, int band) {
+        int mask = tableKeys.length - 1;
+        for (int t = mix(key, band) & mask; ; t = (t + 1) & mask) {
+            if (tableHeads[t] == EMPTY) return -1;
+            if (tableKeys[t] == key && isLink(tableHeads[t], key, band, Long.MAX_VALUE)) return t;
+        }
+    }
+
+    /** Position of {@code key}, reusing the first position whose chain is all overwritten when the key is new. */
+    private int findOrInsert(int key, int band) {
+        int mask = tableKeys.length - 1;
+        int reusable = -1;
+        for (int t = mix(key, band) & mask; ; t = (t + 1) & mask) {
+            int head = tableHeads[t];
+            if (head == EMPTY) {
+                if (reusable < 0) {
+                    reusable = t;
+                    tableUsed++;
+                }
+                break;
+            }
+            if (tableKeys[t] == key && isLink(head, key, band, Long.MAX_VALUE)) return t;
+            if (reusable < 0 && !isLive(head, tableKeys[t])) reusable = t;
+        }
+        tableKeys[reusable] = key;
+        tableHeads[reusable] = EMPTY;
+        return reusable;
+    }
+
+    /**
+     * Whether {@code slot} still holds an entry of the chain: not overwritten, older than the
+     * entry linking to it, and in the same bucket.
+     */
+    private boolean isLink(int slot, int key, int band, long newerThan) {
+        if (slot == EMPTY) return false;
+        long s = seqs[slot];
+        return s < newerThan && s >= seq - capacity && bandKey(signatures, slot * MinHash.SIZE, band) == key;
+    }
+
+    // the band of a table position is not stored, so any band whose key matches keeps it alive
+    private boolean isLive(int slot, int key) {
+        if (seqs[slot] < seq - capacity) return false;
+        for (int band = 0; band < BANDS; band++) {
+            if (bandKey(signatures, slot * MinHash.SIZE, band) == key) return true;
+        }
+        return false;
+    }
+
+    private void rebuildTable() {
+        Arrays.fill(tableHeads, EMPTY);
+        tableUsed = 0;
+        long live = Math.min(seq, capacity);
+        for (long s = seq - live; s < seq; s++) {
+            link((int) (s % capacity));
+        }
+    }
+
+    private void clear() {
+        Arrays.fill(tableHeads, EMPTY);
+        tableUsed = 0;
+        slotById.clear();
+        seq = 0;
+        maxClaimId = 0;
+    }
+
+    private double similarity(int[] signature, int slot) {
+        int base = slot * MinHash.SIZE;
+        int equal = 0;
+        for (int i = 0; i < MinHash.SIZE; i++) {
+            if (signatures[base + i] == signature[i]) equal++;
+        }
+        return (double) equal / MinHash.SIZE;
+    }
+
+    private static int bandKey(int[] signature, int offset, int band) {
+        int h = band;
+        for (int r = 0; r < ROWS; r++) {
+            h = h * 0x9e3779b1 + signature[offset + band * ROWS + r];
+        }
+        return h;
+    }
+
+    private static int mix(int key, int band) {
+        int h = (key ^ (band * 0x85ebca6b)) * 0xcc9e2d51;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,70 @@
+package org.aniket.fnolclaimsagent.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Claim ids for journaled saves, taken from {@code claim_seq} a block at a time. Hibernate's
+ * pooled optimizer reads {@code next_val} as the top of its next 50 ids, so moving the row
+ * on by {@code k * 50} leaves the {@code (k - 1) * 50} ids above the old value to us and
+ * never overlaps an id Hibernate hands out. The next block is reserved in the background
+ * as soon as the current one is started, so a save waits on the database only when a whole
+ * block was used up while it was down.
+ */
+@Slf4j
+final class ClaimIdBlocks {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int steps;
+
+    private long next;
+    private long last = -1;
+    private CompletableFuture<long[]> spare;
+
+    ClaimIdBlocks(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.steps = Math.ceilDiv(Math.max(1, blockSize), Claim.ID_ALLOCATION_SIZE) + 1;
+        this.spare = prefetch();
+    }
+
+    synchronized long[] take(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (next > last) startNextBlock();
+            ids[i] = next++;
+        }
+        return ids;
+    }
+
+    private void startNextBlock() {
+        long[] block;
+        try {
+            block = spare.join();
+        } catch (RuntimeException ex) {
+            log.warn("Background claim id reservation failed, retrying: {}", ex.toString());
+            block = reserve();
+        }
+        next = block[0];
+        last = block[1];
+        spare = prefetch();
+    }
+
+    private CompletableFuture<long[]> prefetch() {
+        return CompletableFuture.supplyAsync(this::reserve,
+                task -> Thread.ofVirtual().name("claim-id-block").start(task));
+    }
+
+    private long[] reserve() {
+        return transactionTemplate.execute(status -> {
+            Long value = jdbcTemplate.queryForObject("select next_val from claim_seq for update", Long.class);
+            jdbcTemplate.update("update claim_seq set next_val = ?", value + (long) steps * Claim.ID_ALLOCATION_SIZE);
+            return new long[]{value + 1, value + (long) (steps - 1) * Claim.ID_ALLOCATION_SIZE};
+        });
+    }
+}
@@ -0,0 +1,397 @@
+package org.aniket.fnolclaimsagent.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of opaque records in memory-mapped segment files. A record is
+ * {@code [int length][int crc32c][payload]}; a zero length marks the end of the written part
+ * of a segment. {@link #append} returns once the records are forced to disk. Appenders that
+ * arrive while a force is running are covered by the next one, so concurrent saves share
+ * fsyncs.
+ * <p>
+ * A reader only sees records once they are on disk. If a force fails, every record not yet
+ * forced is taken back: the appenders waiting on it all get the failure, and a retried save
+ * is not stored twice.
+ * <p>
+ * A reader takes records in order from the checkpoint on with {@link #read} and moves the
+ * checkpoint past them with {@link #commit} once they are stored elsewhere; segments behind
+ * the checkpoint are deleted. On open, records after the checkpoint are found again, and a
+ * torn record at the end (crash during a write) is cut off.
+ * <p>
+ * Positions are {@code segment << 32 | offset}, so they compare in journal order.
+ */
+@Slf4j
+public final class ClaimJournal implements AutoCloseable {
+
+    private static final int HEADER = 8;
+    private static final String SUFFIX = ".journal";
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path dir;
+    private final int segmentSize;
+    // open segments from the checkpoint's to the one being written
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Object forceLock = new Object();
+
+    private Segment current;
+    // end of the last appended batch; published once the whole batch is in the buffer
+    private volatile long written;
+    // end of what is forced to disk; the reader stops here
+    private volatile long durable;
+    // bumped, under both locks, when unforced records are taken back after a failed force
+    private int discarded;
+    // durable at each take-back, by generation; one entry per failed force
+    private final List<Long> discardedAt = new ArrayList<>();
+    private volatile long checkpoint;
+    // reader cursor, only used by the thread draining the journal
+    private long readPosition;
+    // test seam: runs right before each force and may throw to stand in for a failed one
+    volatile Runnable beforeForce = () -> {
+    };
+
+    public ClaimJournal(Path dir, long segmentSize) throws IOException {
+        this.dir = dir;
+        this.segmentSize = (int) Math.min(segmentSize, Integer.MAX_VALUE);
+        Files.createDirectories(dir);
+        this.checkpoint = readCheckpoint();
+        List<Integer> numbers;
+        try (Stream<Path> files = Files.list(dir)) {
+            numbers = files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.endsWith(SUFFIX))
+                    .map(n -> Integer.parseInt(n.substring(0, n.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+        for (int number : numbers) {
+            if (number < segmentOf(checkpoint)) {
+                Files.deleteIfExists(segmentPath(number));
+            } else {
+                segments.put(number, Segment.open(segmentPath(number), number, 0));
+            }
+        }
+        if (segments.isEmpty()) {
+            int first = Math.max(1, segmentOf(checkpoint));
+            segments.put(first, Segment.open(segmentPath(first), first, this.segmentSize));
+            if (segmentOf(checkpoint) != first) checkpoint = position(first, 0);
+        } else if (!segments.containsKey(segmentOf(checkpoint))) {
+            // the checkpoint's segment was consumed and deleted before a newer one existed
+            checkpoint = position(segments.firstKey(), 0);
+        }
+        this.current = segments.lastEntry().getValue();
+        this.written = recoverEnd();
+        this.durable = written;
+        this.readPosition = checkpoint;
+    }
+
+    /** Appends the payloads in order; on return they are on disk. Returns each record's position. */
+    public long[] append(List<byte[]> payloads) throws IOException {
+        long[] positions = new long[payloads.size()];
+        long end;
+        int generation;
+        writeLock.lock();
+        try {
+            generation = discarded;
+            Segment first = current;
+            long start = written;
+            int touched = offsetOf(start);
+            end = start;
+            try {
+                for (int i = 0; i < payloads.size(); i++) {
+                    byte[] payload = payloads.get(i);
+                    int offset = offsetOf(end);
+                    if ((long) offset + HEADER + payload.length + HEADER > current.size) {
+                        roll(payload.length);
+                        offset = 0;
+                    }
+                    if (current == first) touched = offset + HEADER + payload.length;
+                    CRC32C crc = new CRC32C();
+                    crc.update(payload);
+                    current.buffer.put(offset + HEADER, payload);
+                    current.buffer.putInt(offset + 4, (int) crc.getValue());
+                    // length last: a reader (or recovery) never sees a length before its payload
+                    current.buffer.putInt(offset, payload.length);
+                    positions[i] = position(current.number, offset);
+                    end = position(current.number, offset + HEADER + payload.length);
+                }
+            } catch (IOException | RuntimeException ex) {
+                undo(first, offsetOf(start), touched);
+                throw ex;
+            }
+            written = end;
+        } finally {
+            writeLock.unlock();
+        }
+        force(end, generation);
+        return positions;
+    }
+
+    /** Up to {@code max} forced records after the last one read, in order; empty when caught up. */
+    public List<Record> read(int max) {
+        List<Record> records = new ArrayList<>(Math.min(max, 64));
+        long end = durable;
+        while (records.size() < max && readPosition < end) {
+            Segment segment = segment(segmentOf(readPosition));
+            int offset = offsetOf(readPosition);
+            int length = offset + HEADER <= segment.size ? segment.buffer.getInt(offset) : 0;
+            if (length == 0) {
+                // rest of this segment was left empty when the next one was started
+                readPosition = position(segmentOf(readPosition) + 1, 0);
+                continue;
+            }
+            byte[] payload = new byte[length];
+            segment.buffer.get(offset + HEADER, payload);
+            long next = position(segment.number, offset + HEADER + length);
+            records.add(new Record(readPosition, next, payload));
+            readPosition = next;
+        }
+        return records;
+    }
+
+    /** Starts reading again at the checkpoint, e.g. to retry records that could not be stored. */
+    public void rewind() {
+        readPosition = checkpoint;
+    }
+
+    /** The payload of the record at {@code position}, which must not be behind the checkpoint. */
+    public byte[] payloadAt(long position) {
+        Segment segment = segment(segmentOf(position));
+        int offset = offsetOf(position);
+        byte[] payload = new byte[segment.buffer.getInt(offset)];
+        segment.buffer.get(offset + HEADER, payload);
+        return payload;
+    }
+
+    /** Everything before {@code position} is stored elsewhere; persists the checkpoint and drops old segments. */
+    public void commit(long position) throws IOException {
+        Path file = dir.resolve(CHECKPOINT);
+        Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+        ByteBuffer bytes = ByteBuffer.allocate(16).putLong(position).putLong(~position).flip();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(bytes);
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = position;
+        writeLock.lock();
+        try {
+            while (segments.firstKey() < segmentOf(position) && segments.firstKey() < current.number) {
+                Segment done = segments.pollFirstEntry().getValue();
+                done.channel.close();
+                Files.deleteIfExists(segmentPath(done.number));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Position after the last appended record. */
+    public long end() {
+        return written;
+    }
+
+    public long checkpoint() {
+        return checkpoint;
+    }
+
+    /** Bytes of records appended but not yet committed, counting each segment at its used length. */
+    public long uncommittedBytes() {
+        long end = written;
+        long from = checkpoint;
+        if (segmentOf(from) == segmentOf(end)) return offsetOf(end) - offsetOf(from);
+        // whole segments in between count at their nominal size
+        return (long) (segmentOf(end) - segmentOf(from)) * segmentSize - offsetOf(from) + offsetOf(end);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            current.buffer.force();
+            for (Segment segment : segments.values()) {
+                segment.channel.close();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void force(long end, int generation) throws IOException {
+        synchronized (forceLock) {
+            if (discarded != generation) {
+                // positions after a take-back are handed out again, so only the one right after the append tells
+                if (end <= discardedAt.get(generation)) return;
+                throw new IOException("Claim journal: batch taken back after a failed force");
+            }
+            if (durable >= end) return;
+            Segment segment;
+            long upTo;
+            writeLock.lock();
+            try {
+                segment = current;
+                upTo = written;
+            } finally {
+                writeLock.unlock();
+            }
+            // older segments were forced in full when the next one was started
+            int from = segmentOf(durable) == segment.number ? offsetOf(durable) : 0;
+            try {
+                beforeForce.run();
+                segment.buffer.force(from, offsetOf(upTo) - from);
+            } catch (RuntimeException ex) {
+                discardUnforced();
+                throw new IOException("Claim journal: force failed", ex);
+            }
+            durable = upTo;
+        }
+    }
+
+    // under the force lock: the records after durable may or may not be on disk, so none of them may be read or recovered
+    private void discardUnforced() {
+        writeLock.lock();
+        try {
+            Segment first = segments.get(segmentOf(durable));
+            int to = first == current ? offsetOf(written) : first.size;
+            try {
+                undo(first, offsetOf(durable), to);
+            } catch (RuntimeException ex) {
+                log.warn("Claim journal: could not take back unforced records: {}", ex.toString());
+            }
+            written = durable;
+            discardedAt.add(durable);
+            discarded++;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // under the write lock
+    private void roll(int payloadLength) throws IOException {
+        current.buffer.force();
+        int number = current.number + 1;
+        int size = (int) Math.max(segmentSize, (long) payloadLength + 2 * HEADER);
+        Segment next = Segment.open(segmentPath(number), number, size);
+        segments.put(number, next);
+        current = next;
+        // the new file's directory entry must survive a crash too
+        next.channel.force(true);
+    }
+
+    // under the write lock: takes back a batch that failed half way, so neither a reader nor recovery finds part of it
+    private void undo(Segment first, int from, int to) {
+        while (current != first) {
+            Segment started = segments.pollLastEntry().getValue();
+            current = segments.lastEntry().getValue();
+            try {
+                started.channel.close();
+                Files.deleteIfExists(segmentPath(started.number));
+            } catch (IOException ex) {
+                // left empty, so recovery passes over it
+                log.warn("Claim journal: could not delete segment {}: {}", started.number, ex.toString());
+            }
+        }
+        for (int i = from; i < to; i++) first.buffer.put(i, (byte) 0);
+        first.buffer.force(from, to - from);
+    }
+
+    private Segment segment(int number) {
+        writeLock.lock();
+        try {
+            Segment segment = segments.get(number);
+            if (segment == null) throw new IllegalStateException("Journal segment " + number + " is gone");
+            return segment;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // walks the records after the checkpoint to find where the next append goes
+    private long recoverEnd() throws IOException {
+        long position = checkpoint;
+        int recovered = 0;
+        while (true) {
+            Segment segment = segments.get(segmentOf(position));
+            int offset = offsetOf(position);
+            int length = offset + HEADER <= segment.size ? segment.buffer.getInt(offset) : 0;
+            boolean valid = length > 0 && (long) offset + HEADER + length <= segment.size && crcMatches(segment, offset, length);
+            if (valid) {
+                position = position(segment.number, offset + HEADER + length);
+                recovered++;
+                continue;
+            }
+            if (length != 0) {
+                log.warn("Claim journal: cutting off a torn record at segment {} offset {}", segment.number, offset);
+                for (int i = offset; i < segment.size; i++) segment.buffer.put(i, (byte) 0);
+                segment.buffer.force();
+            }
+            Integer nextSegment = segments.higherKey(segment.number);
+            if (nextSegment == null) break;
+            position = position(nextSegment, 0);
+        }
+        if (recovered > 0) log.info("Claim journal: {} record(s) after the checkpoint", recovered);
+        return position;
+    }
+
+    private static boolean crcMatches(Segment segment, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(segment.buffer.slice(offset + HEADER, length));
+        return (int) crc.getValue() == segment.buffer.getInt(offset + 4);
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = dir.resolve(CHECKPOINT);
+        if (!Files.exists(file)) return position(1, 0);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (bytes.remaining() < 16) throw new IOException("Claim journal checkpoint is truncated: " + file);
+        long position = bytes.getLong();
+        if (bytes.getLong() != ~position) throw new IOException("Claim journal checkpoint is corrupt: " + file);
+        return position;
+    }
+
+    private Path segmentPath(int number) {
+        return dir.resolve(String.format("%010d%s", number, SUFFIX));
+    }
+
+    static long position(int segment, int offset) {
+        return (long) segment << 32 | (offset & 0xffffffffL);
+    }
+
+    static int segmentOf(long position) {
+        return (int) (position >>> 32);
+    }
+
+    static int offsetOf(long position) {
+        return (int) position;
+    }
+
+    /** A record and the position right after it, to {@link #commit} up to. */
+    public record Record(long position, long next, byte[] payload) {
+    }
+
+    private record Segment(int number, FileChannel channel, MappedByteBuffer buffer, int size) {
+
+        // size 0: map the existing file as it is
+        static Segment open(Path path, int number, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            int length = size > 0 ? size : (int) channel.size();
+            return new Segment(number, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, length), length);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package org.aniket.fnolclaimsagent.journal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.config.JournalProperties;
+import org.aniket.fnolclaimsagent.duplicate.DuplicateClaimIndex;
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.aniket.fnolclaimsagent.search.ClaimSearchIndex;
+import org.aniket.fnolclaimsagent.service.ClaimDocumentService;
+import org.aniket.fnolclaimsagent.stats.ClaimStatsRollup;
+import org.aniket.fnolclaimsagent.service.ClaimDocumentService.StoredText;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind saves ({@code fnol.journal.enabled}). A save gets its id from a reserved
+ * block ({@link ClaimIdBlocks}), is appended to the local {@link ClaimJournal} as JSON and
+ * returns once the journal is on disk. Every {@code flush-interval} the journal is drained
+ * into the database in batches: documents first, then the claim rows with their ids, then
+ * the journal checkpoint. Rows that are already there (a flush that committed but crashed
+ * before its checkpoint) are skipped, so a batch can be replayed any number of times.
+ * <p>
+ * Claims not yet in the database are served from memory (the row) and from the journal
+ * (the text). On start, records after the checkpoint are loaded back and indexed again.
+ * <p>
+ * Meters: {@code fnol.journal.lag} (claims not yet in the database),
+ * {@code fnol.journal.lag.bytes}, {@code fnol.journal.append} (append and fsync),
+ * {@code fnol.journal.flushed} and {@code fnol.journal.flush}.
+ */
+@Component
+@DependsOn("claimIdSequenceAligner")
+@Slf4j
+public class ClaimWriteBehind implements AutoCloseable {
+
+    private static final String INSERT = """
+            insert into claim (id, policy_number, policy_holder_name, incident_date, incident_time, location,
+                               description, claim_type, estimated_damage, recommended_route, reasoning,
+                               document_hash, created_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+    // a pending claim whose append has not returned yet
+    private static final long UNKNOWN_POSITION = -1;
+
+    private final JournalProperties properties;
+    private final JsonMapper jsonMapper;
+    private final ClaimDocumentService claimDocumentService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ClaimStatsRollup statsRollup;
+    private final ClaimJournal journal;
+    private final ClaimIdBlocks idBlocks;
+    // claims in the journal but not yet in the database, without their text
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    private final Timer append;
+    private final Timer flushTimer;
+    private final Counter flushed;
+
+    public ClaimWriteBehind(JournalProperties properties,
+                            JsonMapper jsonMapper,
+                            ClaimDocumentService claimDocumentService,
+                            JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ClaimStatsRollup statsRollup,
+                            ClaimSearchIndex searchIndex,
+                            DuplicateClaimIndex duplicateIndex,
+                            MeterRegistry meterRegistry) throws IOException {
+        this.properties = properties;
+        this.jsonMapper = jsonMapper;
+        this.claimDocumentService = claimDocumentService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.statsRollup = statsRollup;
+        this.append = Timer.builder("fnol.journal.append")
+                .description("Time to append saved claims to the journal and force it to disk")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("fnol.journal.flush")
+                .description("Time to write one batch of journaled claims to the database")
+                .register(meterRegistry);
+        this.flushed = Counter.builder("fnol.journal.flushed")
+                .description("Journaled claims written to the database")
+                .register(meterRegistry);
+        if (!properties.isEnabled()) {
+            this.journal = null;
+            this.idBlocks = null;
+            return;
+        }
+        this.journal = new ClaimJournal(Path.of(properties.getDir()), properties.getSegmentSize().toBytes());
+        this.idBlocks = new ClaimIdBlocks(jdbcTemplate, transactionTemplate, properties.getIdBlockSize());
+        Gauge.builder("fnol.journal.lag", pending, Map::size)
+                .description("Saved claims not yet written to the database")
+                .register(meterRegistry);
+        Gauge.builder("fnol.journal.lag.bytes", journal, ClaimJournal::uncommittedBytes)
+                .description("Journal bytes not yet written to the database")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        recover(searchIndex, duplicateIndex);
+    }
+
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    ClaimJournal journal() {
+        return journal;
+    }
+
+    /** Assigns ids and journals the claims; on return they are durable. The claims are updated in place. */
+    public List<Claim> append(List<Claim> claims) {
+        long[] ids = idBlocks.take(claims.size());
+        List<byte[]> payloads = new ArrayList<>(claims.size());
+        for (int i = 0; i < claims.size(); i++) {
+            Claim claim = claims.get(i);
+            claim.setId(ids[i]);
+            payloads.add(jsonMapper.writeValueAsBytes(claim));
+        }
+        // registered before the batch can be read, so a flush that gets to it first has an entry to remove
+        for (Claim claim : claims) {
+            pending.put(claim.getId(), new Pending(UNKNOWN_POSITION, claim.toBuilder().rawText(null).build()));
+        }
+        long start = System.nanoTime();
+        long[] positions;
+        try {
+            positions = journal.append(payloads);
+        } catch (IOException e) {
+            // never readable, so no flush has seen these
+            claims.forEach(claim -> pending.remove(claim.getId()));
+            throw new UncheckedIOException("Could not write the claim journal", e);
+        }
+        append.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        for (int i = 0; i < claims.size(); i++) {
+            long position = positions[i];
+            // a flush may have written and dropped it meanwhile
+            pending.computeIfPresent(claims.get(i).getId(), (id, p) -> new Pending(position, p.claim()));
+        }
+        return claims;
+    }
+
+    /** The claim if it is still waiting for the database. */
+    public Optional<Claim> find(Long id) {
+        Pending p = id != null ? pending.get(id) : null;
+        return p != null ? Optional.of(p.claim()) : Optional.empty();
+    }
+
+    /** The text of a claim still waiting for the database, read from the journal. */
+    public Optional<StoredText> text(Long id) {
+        Pending p = id != null ? pending.get(id) : null;
+        if (p == null || p.position() == UNKNOWN_POSITION) return Optional.empty();
+        byte[] payload;
+        try {
+            payload = journal.payloadAt(p.position());
+        } catch (IllegalStateException flushedMeanwhile) {
+            return Optional.empty();
+        }
+        String text = jsonMapper.readValue(payload, Claim.class).getRawText();
+        if (text == null) return Optional.empty();
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        return Optional.of(new StoredText(utf8.length, new ByteArrayInputStream(utf8)));
+    }
+
+    /** Drains the journal into the database; a failed batch stays in the journal and is retried next time. */
+    @Scheduled(fixedDelayString = "${fnol.journal.flush-interval:200ms}")
+    public synchronized void flush() {
+        if (journal == null) return;
+        int read;
+        do {
+            List<ClaimJournal.Record> records = journal.read(properties.getFlushBatchSize());
+            read = records.size();
+            if (read == 0) return;
+            try {
+                flushTimer.record(() -> write(records));
+            } catch (RuntimeException ex) {
+                journal.rewind();
+                log.warn("Could not write {} journaled claim(s) to the database, retrying: {}",
+                        records.size(), ex.toString());
+                return;
+            }
+        } while (read == properties.getFlushBatchSize());
+    }
+
+    private void write(List<ClaimJournal.Record> records) {
+        List<Claim> claims = new ArrayList<>(records.size());
+        for (ClaimJournal.Record record : records) {
+            claims.add(jsonMapper.readValue(record.payload(), Claim.class));
+        }
+        // the hashes were computed on save; this stores texts not in claim_document yet
+        claimDocumentService.storeAll(claims.stream().map(Claim::getRawText).toList());
+        transactionTemplate.executeWithoutResult(status -> {
+            String ids = claims.stream().map(c -> c.getId().toString()).collect(Collectors.joining(","));
+            Set<Long> existing = new HashSet<>(jdbcTemplate.queryForList(
+                    "select id from claim where id in (" + ids + ")", Long.class));
+            List<Object[]> rows = new ArrayList<>(claims.size());
+            List<Claim> inserted = new ArrayList<>(claims.size());
+            for (Claim c : claims) {
+                if (existing.contains(c.getId())) continue;
+                inserted.add(c);
+                rows.add(new Object[]{c.getId(), c.getPolicyNumber(), c.getPolicyHolderName(), c.getIncidentDate(),
+                        c.getIncidentTime(), c.getLocation(), c.getDescription(), c.getClaimType(),
+                        c.getEstimatedDamage(), c.getRecommendedRoute(), c.getReasoning(), c.getDocumentHash(),
+                        c.getCreatedAt()});
+            }
+            jdbcTemplate.batchUpdate(INSERT, rows);
+            statsRollup.record(inserted);
+        });
+        // readers find the row in the database before the journal forgets it
+        for (Claim claim : claims) {
+            pending.remove(claim.getId());
+        }
+        try {
+            journal.commit(records.getLast().next());
+        } catch (IOException e) {
+            // the rows are in; the next start replays this batch and skips them
+            log.warn("Could not move the claim journal checkpoint: {}", e.toString());
+        }
+        flushed.increment(claims.size());
+    }
+
+    private void recover(ClaimSearchIndex searchIndex, DuplicateClaimIndex duplicateIndex) throws IOException {
+        int recovered = 0;
+        List<ClaimJournal.Record> records;
+        while (!(records = journal.read(properties.getFlushBatchSize())).isEmpty()) {
+            List<Claim> claims = new ArrayList<>(records.size());
+            for (ClaimJournal.Record record : records) {
+                Claim claim = jsonMapper.readValue(record.payload(), Claim.class);
+                claims.add(claim);
+                pending.put(claim.getId(), new Pending(record.position(), claim.toBuilder().rawText(null).build()));
+            }
+            // the indexes may have lost them with the crash
+            duplicateIndex.addAll(claims);
+            searchIndex.indexAll(claims);
+            recovered += claims.size();
+        }
+        journal.rewind();
+        if (recovered > 0) {
+            log.info("Claim journal: {} saved claim(s) not yet in the database, flushing them", recovered);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journal == null) return;
+        flush();
+        journal.close();
+    }
+
+    private record Pending(long position, Claim claim) {
+    }
+}
@@ -0,0 +1,78 @@
+package org.aniket.fnolclaimsagent.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aniket.fnolclaimsagent.model.ClaimRoute;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Per-stage timers and routing outcome counters for the claim pipeline. Meters are
+ * registered once up front so the hot path is a map lookup plus {@code record}.
+ * <p>
+ * Stage timers publish a percentile histogram for server-side quantiles (Prometheus
+ * {@code histogram_quantile}) as well as p50/p95/p99 computed in-process.
+ */
+@Component
+public class ClaimMetrics {
+
+    public enum Stage {
+        EXTRACT, FIELDS, VALIDATE, ROUTE, SAVE, SAVE_BATCH, INDEX, SEARCH, DUPLICATES, STATS;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final Map<ClaimRoute, Counter> routes = new EnumMap<>(ClaimRoute.class);
+
+    public ClaimMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder("fnol.stage.duration")
+                    .description("Time spent in one claim pipeline stage")
+                    .tag("stage", stage.tag)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofMinutes(2))
+                    .register(registry));
+        }
+        for (ClaimRoute route : ClaimRoute.values()) {
+            routes.put(route, routeCounter(route.name()));
+        }
+    }
+
+    public <T> T time(Stage stage, Supplier<T> work) {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            return work.get();
+        } finally {
+            sample.stop(stages.get(stage));
+        }
+    }
+
+    public void routed(String route) {
+        if (route == null) return;
+        Counter counter;
+        try {
+            counter = routes.get(ClaimRoute.valueOf(route));
+        } catch (IllegalArgumentException unknown) {
+            counter = routeCounter(route);
+        }
+        counter.increment();
+    }
+
+    private Counter routeCounter(String route) {
+        return Counter.builder("fnol.route.outcome")
+                .description("Claims routed, by recommended route")
+                .tag("route", route)
+                .register(registry);
+    }
+}
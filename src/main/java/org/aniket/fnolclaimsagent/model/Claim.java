@@ -1,5 +1,6 @@
 package org.aniket.fnolclaimsagent.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -8,16 +9,27 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "claim")
+// recommended_route also serves the highest-id-first listing, InnoDB secondary indexes end in the id
+@Table(name = "claim", indexes = {
+        @Index(name = "idx_claim_policy_number", columnList = "policy_number"),
+        @Index(name = "idx_claim_incident_date", columnList = "incident_date"),
+        @Index(name = "idx_claim_recommended_route", columnList = "recommended_route"),
+        @Index(name = "idx_claim_created_at", columnList = "created_at"),
+        @Index(name = "idx_claim_written_at", columnList = "written_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Claim {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // pooled sequence instead of IDENTITY so Hibernate can batch inserts; see ClaimIdSequenceAligner
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "claim_id")
+    @SequenceGenerator(name = "claim_id", sequenceName = "claim_seq", allocationSize = Claim.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "policy_number", length = 100)
@@ -50,9 +62,21 @@ public class Claim {
     @Column(columnDefinition = "TEXT")
     private String reasoning;
 
-    @Column(name = "raw_text", columnDefinition = "LONGTEXT")
+    // SHA-256 of the extracted text in claim_document
+    @Column(name = "document_hash", length = 64)
+    private String documentHash;
+
+    // set on save for the search index; GET /api/claims/{id} streams it from claim_document instead
+    @Transient
     private String rawText;
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
+
+    // set by the database when the row is inserted, which for a journaled claim is its flush, not its save:
+    // the index catch-up reads new rows in this order rather than by id
+    @JsonIgnore
+    @Column(name = "written_at", insertable = false, updatable = false,
+            columnDefinition = "datetime(6) not null default current_timestamp(6)")
+    private LocalDateTime writtenAt;
 }
@@ -0,0 +1,57 @@
+package org.aniket.fnolclaimsagent.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Extracted text of a claim document, Deflate-compressed and keyed by the SHA-256 of the
+ * text, so re-submitted documents are stored once. Kept out of the {@code claim} table so
+ * that scans and entity loads there only touch the structured fields.
+ */
+@Entity
+@Table(name = "claim_document")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClaimDocument implements Persistable<String> {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Lob
+    @Column(columnDefinition = "LONGBLOB", nullable = false)
+    private byte[] compressed;
+
+    @Column(name = "original_bytes", nullable = false)
+    private int originalBytes;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // ids are assigned, so tell Spring Data to insert instead of select-then-merge
+    @Transient
+    @Builder.Default
+    private boolean fresh = true;
+
+    @Override
+    public String getId() {
+        return contentHash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        fresh = false;
+    }
+}
@@ -0,0 +1,73 @@
+package org.aniket.fnolclaimsagent.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An uploaded FNOL waiting for, or done with, asynchronous analysis. The upload itself is
+ * kept in {@link ClaimJobPayload} so polling a job never loads the document. A RUNNING job
+ * is leased to one worker until {@code leaseUntil}; see ClaimJobServiceImpl.
+ */
+@Entity
+@Table(name = "claim_job", indexes = @Index(name = "idx_claim_job_status", columnList = "status, id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClaimJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private JobStatus status;
+
+    @Column(name = "file_name", length = 255)
+    private String fileName;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    @Column(name = "callback_url", length = 2048)
+    private String callbackUrl;
+
+    @Column(name = "claim_id")
+    private Long claimId;
+
+    @Column(name = "recommended_route", length = 100)
+    private String recommendedRoute;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    // runs started, including ones whose worker died
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    // a failed job is not picked up again before this
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,24 @@
+package org.aniket.fnolclaimsagent.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Uploaded bytes of a {@link ClaimJob}; removed once the job completed.
+ */
+@Entity
+@Table(name = "claim_job_payload")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaimJobPayload {
+
+    @Id
+    @Column(name = "job_id")
+    private Long jobId;
+
+    @Lob
+    @Column(columnDefinition = "LONGBLOB", nullable = false)
+    private byte[] content;
+}
@@ -0,0 +1,52 @@
+package org.aniket.fnolclaimsagent.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Running count and estimated-damage sum of the saved claims in one bucket, e.g. route
+ * {@code FAST_TRACK} or incident date {@code 2026-03-14}. Every bucket is split over a few
+ * stripes that saves pick at random, so concurrent saves rarely wait on the same row; readers
+ * add the stripes up. Written with upserts by {@code ClaimStatsRollup}, in the transaction
+ * that inserts the claims.
+ */
+@Entity
+@Table(name = "claim_stats")
+@IdClass(ClaimStatsBucket.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaimStatsBucket {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private StatsDimension dimension;
+
+    // the route, claim type or yyyy-MM-dd day; empty when the claim has none
+    @Id
+    @Column(length = 100)
+    private String bucket;
+
+    @Id
+    private int stripe;
+
+    @Column(nullable = false)
+    private long claims;
+
+    @Column(name = "estimated_damage", precision = 19, scale = 2, nullable = false)
+    private BigDecimal estimatedDamage;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private StatsDimension dimension;
+        private String bucket;
+        private int stripe;
+    }
+}
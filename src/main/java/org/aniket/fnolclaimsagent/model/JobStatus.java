@@ -0,0 +1,10 @@
+package org.aniket.fnolclaimsagent.model;
+
+public enum JobStatus {
+
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+
+}
@@ -0,0 +1,12 @@
+package org.aniket.fnolclaimsagent.model;
+
+/** What a {@link ClaimStatsBucket} groups saved claims by. */
+public enum StatsDimension {
+
+    ROUTE,
+    CLAIM_TYPE,
+    INCIDENT_DATE,
+    CREATED_DATE,
+    TOTAL
+
+}
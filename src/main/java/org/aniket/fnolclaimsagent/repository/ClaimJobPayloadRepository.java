@@ -0,0 +1,9 @@
+package org.aniket.fnolclaimsagent.repository;
+
+import org.aniket.fnolclaimsagent.model.ClaimJobPayload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ClaimJobPayloadRepository extends JpaRepository<ClaimJobPayload, Long> {
+}
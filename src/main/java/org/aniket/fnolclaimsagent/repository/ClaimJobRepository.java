@@ -0,0 +1,67 @@
+package org.aniket.fnolclaimsagent.repository;
+
+import org.aniket.fnolclaimsagent.model.ClaimJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ClaimJobRepository extends JpaRepository<ClaimJob, Long> {
+
+    /**
+     * Locks up to {@code max} jobs that are due: QUEUED ones past their retry time and RUNNING
+     * ones whose lease ran out. Rows locked by another worker are skipped, not waited for.
+     * Needs the caller's transaction; the locks are what make the lease that follows exclusive.
+     */
+    @Query(value = """
+            select id from claim_job
+            where (status = 'QUEUED' and (next_attempt_at is null or next_attempt_at <= :now))
+               or (status = 'RUNNING' and (lease_until is null or lease_until < :now))
+            order by id
+            limit :max
+            for update skip locked""", nativeQuery = true)
+    List<Long> lockDue(@Param("now") LocalDateTime now, @Param("max") int max);
+
+    /** Locks the job if {@code owner} still holds its lease; empty when another worker took it over. */
+    @Query(value = "select id from claim_job where id = :id and status = 'RUNNING' and lease_owner = :owner for update",
+            nativeQuery = true)
+    Optional<Long> lockLeased(@Param("id") Long id, @Param("owner") String owner);
+
+    @Transactional
+    @Modifying
+    @Query("update ClaimJob j set j.leaseUntil = :until "
+            + "where j.leaseOwner = :owner and j.status = org.aniket.fnolclaimsagent.model.JobStatus.RUNNING")
+    int renewLeases(@Param("owner") String owner, @Param("until") LocalDateTime until);
+
+    /** Puts a failed run back in the queue, to be picked up again after {@code at}. */
+    @Transactional
+    @Modifying
+    @Query("update ClaimJob j set j.status = org.aniket.fnolclaimsagent.model.JobStatus.QUEUED, j.error = :error, "
+            + "j.nextAttemptAt = :at, j.leaseOwner = null, j.leaseUntil = null "
+            + "where j.id = :id and j.leaseOwner = :owner and j.status = org.aniket.fnolclaimsagent.model.JobStatus.RUNNING")
+    int retryLater(@Param("id") Long id, @Param("owner") String owner, @Param("error") String error,
+                   @Param("at") LocalDateTime at);
+
+    /** Gives up on a job; its upload is kept so it can be looked at and queued again. */
+    @Transactional
+    @Modifying
+    @Query("update ClaimJob j set j.status = org.aniket.fnolclaimsagent.model.JobStatus.FAILED, j.error = :error, "
+            + "j.finishedAt = :now, j.leaseOwner = null, j.leaseUntil = null "
+            + "where j.id = :id and j.leaseOwner = :owner and j.status = org.aniket.fnolclaimsagent.model.JobStatus.RUNNING")
+    int deadLetter(@Param("id") Long id, @Param("owner") String owner, @Param("error") String error,
+                   @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update ClaimJob j set j.status = org.aniket.fnolclaimsagent.model.JobStatus.QUEUED, j.attempts = 0, "
+            + "j.error = null, j.nextAttemptAt = null, j.finishedAt = null "
+            + "where j.id = :id and j.status = org.aniket.fnolclaimsagent.model.JobStatus.FAILED")
+    int requeueFailed(@Param("id") Long id);
+}
@@ -1,9 +1,54 @@
 package org.aniket.fnolclaimsagent.repository;
 
+import org.aniket.fnolclaimsagent.dto.ClaimSummaryDTO;
 import org.aniket.fnolclaimsagent.model.Claim;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ClaimRepository extends JpaRepository<Claim, Long> {
+
+    /**
+     * Highest id first, seeking past {@code afterId} on the primary key instead of using an
+     * offset, so page N costs the same as page 1. This is only roughly newest first: every
+     * node takes ids from {@code claim_seq} in blocks, and a journaled claim has its id from
+     * the save, not from when its row is written. Null filters are ignored.
+     */
+    @Query("""
+            select new org.aniket.fnolclaimsagent.dto.ClaimSummaryDTO(
+                c.id, c.policyNumber, c.policyHolderName, c.incidentDate, c.claimType,
+                c.estimatedDamage, c.recommendedRoute, c.createdAt)
+            from Claim c
+            where (:afterId is null or c.id < :afterId)
+              and (:policyNumber is null or c.policyNumber = :policyNumber)
+              and (:route is null or c.recommendedRoute = :route)
+              and (:claimType is null or c.claimType = :claimType)
+              and (:incidentFrom is null or c.incidentDate >= :incidentFrom)
+              and (:incidentTo is null or c.incidentDate <= :incidentTo)
+            order by c.id desc
+            """)
+    List<ClaimSummaryDTO> findSummaries(@Param("afterId") Long afterId,
+                                        @Param("policyNumber") String policyNumber,
+                                        @Param("route") String route,
+                                        @Param("claimType") String claimType,
+                                        @Param("incidentFrom") LocalDate incidentFrom,
+                                        @Param("incidentTo") LocalDate incidentTo,
+                                        Limit limit);
+
+    /** Listing rows of the given claims, in no particular order; ids that no longer exist are left out. */
+    @Query("""
+            select new org.aniket.fnolclaimsagent.dto.ClaimSummaryDTO(
+                c.id, c.policyNumber, c.policyHolderName, c.incidentDate, c.claimType,
+                c.estimatedDamage, c.recommendedRoute, c.createdAt)
+            from Claim c
+            where c.id in :ids
+            """)
+    List<ClaimSummaryDTO> findSummariesByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,31 @@
+package org.aniket.fnolclaimsagent.repository;
+
+import org.aniket.fnolclaimsagent.dto.ClaimStatsRowDTO;
+import org.aniket.fnolclaimsagent.model.ClaimStatsBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ClaimStatsRepository extends JpaRepository<ClaimStatsBucket, ClaimStatsBucket.Key> {
+
+    /**
+     * Every bucket with its stripes added up; the day buckets only between {@code fromDay} and
+     * {@code toDay} (yyyy-MM-dd, inclusive). Reads the rollup only, never the claim table.
+     */
+    @Query("""
+            select new org.aniket.fnolclaimsagent.dto.ClaimStatsRowDTO(
+                s.dimension, s.bucket, sum(s.claims), sum(s.estimatedDamage))
+            from ClaimStatsBucket s
+            where s.dimension not in (org.aniket.fnolclaimsagent.model.StatsDimension.INCIDENT_DATE,
+                                      org.aniket.fnolclaimsagent.model.StatsDimension.CREATED_DATE)
+               or (s.bucket >= :fromDay and s.bucket <= :toDay)
+            group by s.dimension, s.bucket
+            having sum(s.claims) <> 0
+            order by s.dimension, s.bucket
+            """)
+    List<ClaimStatsRowDTO> findTotals(@Param("fromDay") String fromDay, @Param("toDay") String toDay);
+}
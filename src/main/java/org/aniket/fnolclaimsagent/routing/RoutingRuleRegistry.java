@@ -0,0 +1,64 @@
+package org.aniket.fnolclaimsagent.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.cache.ExtractionResultCache;
+import org.aniket.fnolclaimsagent.config.RoutingProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Holds the routing rule table loaded from {@code fnol.routing.rules-location} and swaps in
+ * a new one when the file changes. A table that fails to parse is logged and ignored, so
+ * a bad edit never takes routing down. Cached analyses are dropped on every swap because
+ * their routes came from the old rules.
+ */
+@Component
+@Slf4j
+public class RoutingRuleRegistry implements RoutingRulesProvider {
+
+    private final Resource resource;
+    private final ExtractionResultCache resultCache;
+    private volatile RoutingRuleSet current;
+    private volatile long lastModified;
+
+    public RoutingRuleRegistry(RoutingProperties properties, ResourceLoader resourceLoader,
+                               ExtractionResultCache resultCache) throws IOException {
+        this.resource = resourceLoader.getResource(properties.getRulesLocation());
+        this.resultCache = resultCache;
+        this.lastModified = lastModified();
+        this.current = RoutingRuleSet.load(resource);
+        log.info("Loaded {} routing rules from {}", current.size(), properties.getRulesLocation());
+    }
+
+    @Override
+    public RoutingRuleSet current() {
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${fnol.routing.reload-interval:10s}")
+    public void reloadIfChanged() {
+        long modified = lastModified();
+        if (modified <= 0 || modified == lastModified) return;
+        lastModified = modified;
+        try {
+            current = RoutingRuleSet.load(resource);
+            resultCache.invalidateAnalyses();
+            log.info("Reloaded {} routing rules from {}", current.size(), resource);
+        } catch (Exception ex) {
+            log.error("Routing rules in {} are invalid, keeping the previous rules: {}", resource, ex.getMessage());
+        }
+    }
+
+    // 0 when the resource cannot report it (e.g. inside a jar): such rules never reload
+    private long lastModified() {
+        try {
+            return resource.isFile() ? resource.lastModified() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
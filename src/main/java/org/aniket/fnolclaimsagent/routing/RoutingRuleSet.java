@@ -0,0 +1,192 @@
+package org.aniket.fnolclaimsagent.routing;
+
+import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.aniket.fnolclaimsagent.model.ClaimRoute;
+import org.aniket.fnolclaimsagent.util.KeywordAutomaton;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiled, immutable routing rule table. The {@code text-contains-any} keywords of all
+ * rules go into one {@link KeywordAutomaton}, so the raw text is scanned once per claim no
+ * matter how many keyword rules there are; rules are then checked in priority order and
+ * the first one that matches decides the route.
+ */
+public final class RoutingRuleSet {
+
+    private final List<Rule> rules;
+    private final KeywordAutomaton keywords;
+
+    private RoutingRuleSet(List<Rule> rules, KeywordAutomaton keywords) {
+        this.rules = rules;
+        this.keywords = keywords;
+    }
+
+    /** Read the {@code routing.rules} list from a YAML resource. */
+    public static RoutingRuleSet load(Resource resource) throws IOException {
+        Binder binder = new Binder(ConfigurationPropertySources.from(
+                new YamlPropertySourceLoader().load(String.valueOf(resource.getFilename()), resource)));
+        List<RuleDefinition> definitions = binder.bind("routing.rules", Bindable.listOf(RuleDefinition.class))
+                .orElse(List.of());
+        return compile(definitions);
+    }
+
+    public static RoutingRuleSet compile(List<RuleDefinition> definitions) {
+        if (definitions.isEmpty()) {
+            throw new IllegalArgumentException("Routing rule table is empty");
+        }
+        Map<String, Integer> keywordIndex = new LinkedHashMap<>();
+        List<Rule> rules = new ArrayList<>(definitions.size());
+        Set<String> ids = new HashSet<>();
+        for (RuleDefinition d : definitions) {
+            if (d.getId() == null || d.getId().isBlank() || !ids.add(d.getId())) {
+                throw new IllegalArgumentException("Routing rule id missing or duplicated: " + d.getId());
+            }
+            ClaimRoute route;
+            try {
+                route = ClaimRoute.valueOf(d.getRoute());
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Routing rule " + d.getId() + " has unknown route " + d.getRoute());
+            }
+            RuleDefinition.Conditions when = d.getWhen() != null ? d.getWhen() : new RuleDefinition.Conditions();
+            BitSet ruleKeywords = new BitSet();
+            for (String k : when.getTextContainsAny()) {
+                ruleKeywords.set(keywordIndex.computeIfAbsent(k.toLowerCase(Locale.ROOT), key -> keywordIndex.size()));
+            }
+            rules.add(new Rule(d.getId(), d.getPriority(), route, d.getReasoning(), ruleKeywords,
+                    lowerCase(when.getClaimTypeContainsAny()), lowerCase(when.getClaimTypes()),
+                    when.getMissingFields(), when.getAmountBelow(), when.getAmountAtLeast()));
+        }
+        // stable sort: equal priorities keep file order
+        rules.sort(Comparator.comparingInt(Rule::priority));
+        return new RoutingRuleSet(List.copyOf(rules),
+                keywordIndex.isEmpty() ? null : KeywordAutomaton.of(keywordIndex.keySet()));
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    /** First matching rule, or null when none matches (tables normally end with a catch-all). */
+    public Decision evaluate(ExtractedFieldsDTO fields, List<String> missingFields, String rawText) {
+        BitSet found = scanKeywords(rawText);
+        String claimType = fields != null && fields.getClaimType() != null
+                ? fields.getClaimType().trim().toLowerCase(Locale.ROOT) : null;
+        boolean anyMissing = missingFields != null && !missingFields.isEmpty();
+        BigDecimal amount = null;
+        boolean amountParsed = false;
+
+        for (Rule rule : rules) {
+            if (!rule.keywords.isEmpty() && !rule.keywords.intersects(found)) continue;
+            if (!rule.claimTypeContainsAny.isEmpty() && !containsAny(claimType, rule.claimTypeContainsAny)) continue;
+            if (!rule.claimTypes.isEmpty() && (claimType == null || !rule.claimTypes.contains(claimType))) continue;
+            if (rule.missingFields != null && rule.missingFields != anyMissing) continue;
+            if (rule.amountBelow != null || rule.amountAtLeast != null) {
+                if (!amountParsed) {
+                    amount = fields != null ? fields.getEstimatedDamageAmount() : null;
+                    amountParsed = true;
+                }
+                if (amount == null) continue;
+                if (rule.amountBelow != null && amount.compareTo(rule.amountBelow) >= 0) continue;
+                if (rule.amountAtLeast != null && amount.compareTo(rule.amountAtLeast) < 0) continue;
+            }
+            return new Decision(rule.id, rule.route, reasoning(rule, missingFields, found, amount));
+        }
+        return null;
+    }
+
+    /**
+     * Route by the keyword and claim-type rules alone, from the start of the text before any
+     * field is extracted. Claim-type words are looked for in the text itself, and rules on
+     * other conditions are skipped. Null when none of these rules matches. An estimate for
+     * ordering work, never a routing decision.
+     */
+    public ClaimRoute preRoute(String sample) {
+        if (sample == null || sample.isEmpty()) return null;
+        BitSet found = scanKeywords(sample);
+        String lower = null;
+        for (Rule rule : rules) {
+            if (!rule.decidableFromText()) continue;
+            if (!rule.keywords.isEmpty() && !rule.keywords.intersects(found)) continue;
+            if (!rule.claimTypeContainsAny.isEmpty()) {
+                if (lower == null) lower = sample.toLowerCase(Locale.ROOT);
+                if (!containsAny(lower, rule.claimTypeContainsAny)) continue;
+            }
+            return rule.route;
+        }
+        return null;
+    }
+
+    private BitSet scanKeywords(String rawText) {
+        BitSet found = new BitSet();
+        if (keywords == null || rawText == null) return found;
+        int[] distinct = {0};
+        keywords.scan(rawText, (k, start) -> {
+            if (!found.get(k)) {
+                found.set(k);
+                distinct[0]++;
+            }
+            // nothing left to learn once every keyword was seen
+            return distinct[0] < keywords.size();
+        });
+        return found;
+    }
+
+    private String reasoning(Rule rule, List<String> missingFields, BitSet found, BigDecimal amount) {
+        String text = rule.reasoning != null ? rule.reasoning : "Rule " + rule.id + " -> " + rule.route;
+        if (text.contains("{missingFields}")) {
+            text = text.replace("{missingFields}", missingFields != null ? String.join(", ", missingFields) : "");
+        }
+        if (text.contains("{keywords}")) {
+            List<String> matched = new ArrayList<>();
+            BitSet own = (BitSet) rule.keywords.clone();
+            own.and(found);
+            own.stream().forEach(k -> matched.add(keywords.keyword(k)));
+            text = text.replace("{keywords}", String.join(", ", matched));
+        }
+        if (text.contains("{amount}")) {
+            text = text.replace("{amount}", amount != null ? amount.toPlainString() : "");
+        }
+        return text + " [rule: " + rule.id + "]";
+    }
+
+    private static boolean containsAny(String value, List<String> needles) {
+        if (value == null) return false;
+        for (String n : needles) {
+            if (value.contains(n)) return true;
+        }
+        return false;
+    }
+
+    private static List<String> lowerCase(List<String> values) {
+        return values == null ? List.of() : values.stream().map(v -> v.trim().toLowerCase(Locale.ROOT)).toList();
+    }
+
+    public record Decision(String ruleId, ClaimRoute route, String reasoning) {
+    }
+
+    private record Rule(String id, int priority, ClaimRoute route, String reasoning, BitSet keywords,
+                        List<String> claimTypeContainsAny, List<String> claimTypes, Boolean missingFields,
+                        BigDecimal amountBelow, BigDecimal amountAtLeast) {
+
+        boolean decidableFromText() {
+            return (!keywords.isEmpty() || !claimTypeContainsAny.isEmpty()) && claimTypes.isEmpty()
+                    && missingFields == null && amountBelow == null && amountAtLeast == null;
+        }
+    }
+}
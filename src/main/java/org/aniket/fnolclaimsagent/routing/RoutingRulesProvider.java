@@ -0,0 +1,9 @@
+package org.aniket.fnolclaimsagent.routing;
+
+/**
+ * Source of the rule table currently in force.
+ */
+@FunctionalInterface
+public interface RoutingRulesProvider {
+    RoutingRuleSet current();
+}
@@ -0,0 +1,50 @@
+package org.aniket.fnolclaimsagent.routing;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One entry of the routing rule table as written in YAML. All conditions under
+ * {@code when} must hold; a rule without conditions always matches.
+ */
+@Data
+public class RuleDefinition {
+
+    private String id;
+
+    /** Lower runs first; equal priorities keep file order. */
+    private int priority = 100;
+
+    /** A {@link org.aniket.fnolclaimsagent.model.ClaimRoute} name. */
+    private String route;
+
+    /** Placeholders: {missingFields}, {keywords}, {amount}. */
+    private String reasoning;
+
+    private Conditions when = new Conditions();
+
+    @Data
+    public static class Conditions {
+
+        /** Raw text contains at least one of these (ASCII, case-insensitive, substring). */
+        private List<String> textContainsAny = new ArrayList<>();
+
+        /** Claim type contains at least one of these (case-insensitive). */
+        private List<String> claimTypeContainsAny = new ArrayList<>();
+
+        /** Claim type equals one of these (case-insensitive); use for per-line-of-business thresholds. */
+        private List<String> claimTypes = new ArrayList<>();
+
+        /** true: some mandatory field is missing; false: none is. */
+        private Boolean missingFields;
+
+        /** Parsed estimate is present and below this. */
+        private BigDecimal amountBelow;
+
+        /** Parsed estimate is present and at least this. */
+        private BigDecimal amountAtLeast;
+    }
+}
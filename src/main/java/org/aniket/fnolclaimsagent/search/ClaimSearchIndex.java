@@ -0,0 +1,277 @@
+package org.aniket.fnolclaimsagent.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.config.SearchProperties;
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inverted index of saved claims on local disk. Holder name, location, description and raw
+ * text are tokenized for word search; policy number, route and incident date are indexed as
+ * exact terms / points for filtering. Only claim ids come back, the rows are read from the
+ * database by primary key.
+ * <p>
+ * Claims are added as they are saved and become searchable with the next reader refresh,
+ * every {@code fnol.search.refresh-interval} (near real-time reader). A search uses the
+ * current reader and never reopens it itself; a caller that must see its own writes calls
+ * {@link #refreshBlocking()} first. The index is committed every {@code fnol.search.commit-interval}.
+ * Each commit records the highest claim id it contains and the {@code written_at} up to which
+ * the claim table has been read into it, so {@link #committedCaughtUpTo()} tells a restarted
+ * node where to catch up from. Re-indexing a claim replaces it.
+ */
+@Component
+@Slf4j
+public class ClaimSearchIndex implements AutoCloseable {
+
+    private static final String ID = "id";
+    private static final String KEY = "key";
+    private static final String POLICY = "policy";
+    private static final String ROUTE = "route";
+    private static final String INCIDENT = "incident";
+    private static final String NAME = "name";
+    private static final String LOCATION = "location";
+    private static final String DESCRIPTION = "description";
+    private static final String TEXT = "text";
+    private static final String MAX_CLAIM_ID = "maxClaimId";
+    private static final String CAUGHT_UP_TO = "caughtUpTo";
+
+    // text search: a word in the name or location says more than one somewhere in the document
+    private static final Map<String, Float> TEXT_FIELDS = Map.of(NAME, 2f, LOCATION, 2f, DESCRIPTION, 1.5f, TEXT, 1f);
+    private static final Sort HIGHEST_ID_FIRST = new Sort(new SortField(ID, SortField.Type.LONG, true));
+
+    private final Directory directory;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searchers;
+    private final AtomicLong maxClaimId = new AtomicLong();
+    private final long committedClaimId;
+    private final LocalDateTime committedCaughtUpTo;
+    private volatile LocalDateTime caughtUpTo;
+    private LocalDateTime lastCommittedCaughtUpTo;
+
+    public ClaimSearchIndex(SearchProperties properties) throws IOException {
+        Path dir = Path.of(properties.getIndexDir());
+        this.directory = FSDirectory.open(dir);
+        Map<String, String> commitData = DirectoryReader.indexExists(directory)
+                ? SegmentInfos.readLatestCommit(directory).getUserData() : Map.of();
+        this.committedClaimId = Long.parseLong(commitData.getOrDefault(MAX_CLAIM_ID, "0"));
+        this.committedCaughtUpTo = commitData.containsKey(CAUGHT_UP_TO)
+                ? LocalDateTime.parse(commitData.get(CAUGHT_UP_TO)) : null;
+        this.maxClaimId.set(committedClaimId);
+        this.caughtUpTo = committedCaughtUpTo;
+        this.lastCommittedCaughtUpTo = committedCaughtUpTo;
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searchers = new SearcherManager(writer, null);
+        log.info("Claim search index at {}: {} claims, committed up to claim id {}, claims written until {}",
+                dir.toAbsolutePath(), writer.getDocStats().numDocs, committedClaimId, committedCaughtUpTo);
+    }
+
+    /** Highest claim id in the last commit when the index was opened; 0 for a new index. */
+    public long committedClaimId() {
+        return committedClaimId;
+    }
+
+    /** {@code written_at} up to which the last commit held every claim when the index was opened; null for a new index. */
+    public LocalDateTime committedCaughtUpTo() {
+        return committedCaughtUpTo;
+    }
+
+    /** Every claim written up to {@code writtenAt} has been indexed; recorded with the next commit. Never moves back. */
+    public void caughtUpTo(LocalDateTime writtenAt) {
+        LocalDateTime current = caughtUpTo;
+        if (current == null || writtenAt.isAfter(current)) caughtUpTo = writtenAt;
+    }
+
+    public void index(Claim claim) throws IOException {
+        writer.updateDocument(new Term(KEY, Long.toString(claim.getId())), toDocument(claim));
+        maxClaimId.accumulateAndGet(claim.getId(), Math::max);
+    }
+
+    public void indexAll(List<Claim> claims) throws IOException {
+        for (Claim claim : claims) {
+            index(claim);
+        }
+    }
+
+    /**
+     * Ids of matching claims, best match first for text searches and highest id first for
+     * filter-only searches.
+     */
+    public Hits search(ClaimSearchQuery query, int limit) throws IOException {
+        BooleanQuery.Builder q = new BooleanQuery.Builder();
+        boolean scored = addWords(q, query.text(), TEXT_FIELDS.keySet());
+        scored |= addWords(q, query.holderName(), Set.of(NAME));
+        scored |= addWords(q, query.location(), Set.of(LOCATION));
+        if (scored && q.build().clauses().isEmpty()) {
+            // only punctuation / nothing searchable in the words given
+            return new Hits(List.of(), 0, true);
+        }
+        if (!isBlank(query.policyNumber())) {
+            q.add(new TermQuery(new Term(POLICY, normalizePolicy(query.policyNumber()))), Occur.FILTER);
+        }
+        if (!isBlank(query.route())) {
+            q.add(new TermQuery(new Term(ROUTE, query.route().trim())), Occur.FILTER);
+        }
+        if (query.incidentFrom() != null || query.incidentTo() != null) {
+            long from = query.incidentFrom() != null ? query.incidentFrom().toEpochDay() : Long.MIN_VALUE;
+            long to = query.incidentTo() != null ? query.incidentTo().toEpochDay() : Long.MAX_VALUE;
+            q.add(LongPoint.newRangeQuery(INCIDENT, from, to), Occur.FILTER);
+        }
+        BooleanQuery built = q.build();
+        Query lucene = built.clauses().isEmpty() ? new MatchAllDocsQuery() : built;
+
+        IndexSearcher searcher = searchers.acquire();
+        try {
+            TopDocs top = scored ? searcher.search(lucene, limit) : searcher.search(lucene, limit, HIGHEST_ID_FIRST);
+            StoredFields stored = searcher.storedFields();
+            List<Long> ids = new ArrayList<>(top.scoreDocs.length);
+            for (ScoreDoc hit : top.scoreDocs) {
+                ids.add(Long.parseLong(stored.document(hit.doc, Set.of(KEY)).get(KEY)));
+            }
+            return new Hits(ids, top.totalHits.value(), top.totalHits.relation() == TotalHits.Relation.EQUAL_TO);
+        } finally {
+            searchers.release(searcher);
+        }
+    }
+
+    /** Reopens the reader on what was indexed since the last refresh; skipped while another refresh runs. */
+    @Scheduled(fixedDelayString = "${fnol.search.refresh-interval:500ms}")
+    public void refresh() throws IOException {
+        if (writer.isOpen()) searchers.maybeRefresh();
+    }
+
+    /** Makes everything indexed so far searchable before returning, waiting for a refresh that is running. */
+    public void refreshBlocking() throws IOException {
+        searchers.maybeRefreshBlocking();
+    }
+
+    @Scheduled(fixedDelayString = "${fnol.search.commit-interval:5s}")
+    public synchronized void commit() throws IOException {
+        // read before the commit so the recorded id and time are never ahead of what the commit holds
+        LocalDateTime caughtUp = caughtUpTo;
+        if (!writer.isOpen() || !writer.hasUncommittedChanges() && Objects.equals(caughtUp, lastCommittedCaughtUpTo)) return;
+        Map<String, String> commitData = new HashMap<>();
+        commitData.put(MAX_CLAIM_ID, Long.toString(maxClaimId.get()));
+        if (caughtUp != null) commitData.put(CAUGHT_UP_TO, caughtUp.toString());
+        writer.setLiveCommitData(commitData.entrySet());
+        writer.commit();
+        lastCommittedCaughtUpTo = caughtUp;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            commit();
+        } finally {
+            searchers.close();
+            writer.close();
+            directory.close();
+        }
+    }
+
+    private Document toDocument(Claim claim) {
+        Document doc = new Document();
+        doc.add(new StringField(KEY, Long.toString(claim.getId()), Field.Store.YES));
+        doc.add(new NumericDocValuesField(ID, claim.getId()));
+        if (!isBlank(claim.getPolicyNumber())) {
+            doc.add(new StringField(POLICY, normalizePolicy(claim.getPolicyNumber()), Field.Store.NO));
+        }
+        if (claim.getRecommendedRoute() != null) {
+            doc.add(new StringField(ROUTE, claim.getRecommendedRoute(), Field.Store.NO));
+        }
+        if (claim.getIncidentDate() != null) {
+            doc.add(new LongPoint(INCIDENT, claim.getIncidentDate().toEpochDay()));
+        }
+        addText(doc, NAME, claim.getPolicyHolderName());
+        addText(doc, LOCATION, claim.getLocation());
+        addText(doc, DESCRIPTION, claim.getDescription());
+        addText(doc, TEXT, claim.getRawText());
+        return doc;
+    }
+
+    private static void addText(Document doc, String field, String value) {
+        if (value != null) {
+            doc.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    /** One required clause per word, each satisfied by any of the fields; false when there are no words. */
+    private boolean addWords(BooleanQuery.Builder q, String words, Set<String> fields) throws IOException {
+        if (isBlank(words)) return false;
+        try (TokenStream tokens = analyzer.tokenStream(TEXT, words)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                String word = term.toString();
+                if (fields.size() == 1) {
+                    q.add(new TermQuery(new Term(fields.iterator().next(), word)), Occur.MUST);
+                    continue;
+                }
+                BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+                for (String field : fields) {
+                    anyField.add(new BoostQuery(new TermQuery(new Term(field, word)), TEXT_FIELDS.get(field)), Occur.SHOULD);
+                }
+                q.add(anyField.build(), Occur.MUST);
+            }
+            tokens.end();
+        }
+        return true;
+    }
+
+    private static String normalizePolicy(String policyNumber) {
+        return policyNumber.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    /** {@code total} is a lower bound when {@code totalExact} is false (large result sets are not fully counted). */
+    public record Hits(List<Long> ids, long total, boolean totalExact) {
+    }
+}
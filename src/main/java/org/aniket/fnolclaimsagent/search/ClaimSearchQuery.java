@@ -0,0 +1,17 @@
+package org.aniket.fnolclaimsagent.search;
+
+import java.time.LocalDate;
+
+/**
+ * What to look for; null or blank parts are ignored. {@code text} is matched word by word
+ * against the holder name, location, description and raw text, and every word has to occur
+ * in at least one of them. {@code holderName} and {@code location} only look in their own
+ * field, {@code policyNumber} and {@code route} match exactly (policy number ignoring case).
+ */
+public record ClaimSearchQuery(String text, String policyNumber, String holderName, String location,
+                               String route, LocalDate incidentFrom, LocalDate incidentTo) {
+
+    public static ClaimSearchQuery text(String text) {
+        return new ClaimSearchQuery(text, null, null, null, null, null, null);
+    }
+}
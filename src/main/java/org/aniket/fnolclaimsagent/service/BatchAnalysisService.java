@@ -0,0 +1,17 @@
+package org.aniket.fnolclaimsagent.service;
+
+import org.aniket.fnolclaimsagent.dto.BatchItemResultDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+public interface BatchAnalysisService {
+
+    /**
+     * Run every document through extract -> fields/validate -> route and hand each result to
+     * {@code onResult} on the calling thread as soon as it is ready, in completion order.
+     * Returns once every document has been reported.
+     */
+    void analyzeAll(Iterator<MultipartFile> documents, boolean includeRawText, Consumer<BatchItemResultDTO> onResult);
+}
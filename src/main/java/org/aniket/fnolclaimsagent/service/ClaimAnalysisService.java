@@ -0,0 +1,10 @@
+package org.aniket.fnolclaimsagent.service;
+
+import org.aniket.fnolclaimsagent.dto.ClaimAnalysisResultDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface ClaimAnalysisService {
+
+    /** extract text -> fields -> missing fields -> routing decision, with the raw text attached */
+    ClaimAnalysisResultDTO analyze(MultipartFile file);
+}
@@ -0,0 +1,23 @@
+package org.aniket.fnolclaimsagent.service;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
+public interface ClaimDocumentService {
+
+    /** Store the text (once per distinct content) and return its hash; null for null text. */
+    String store(String text);
+
+    /** Bulk {@link #store}: one lookup for all hashes and batched inserts; hashes in input order. */
+    List<String> storeAll(List<String> texts);
+
+    Optional<String> load(String contentHash);
+
+    /** The stored text without building a {@code String} of it, for streaming it to a client. */
+    Optional<StoredText> open(String contentHash);
+
+    /** {@code length} UTF-8 bytes, decompressed while {@code utf8} is read; the reader closes it. */
+    record StoredText(int length, InputStream utf8) {
+    }
+}
@@ -0,0 +1,21 @@
+package org.aniket.fnolclaimsagent.service;
+
+import org.aniket.fnolclaimsagent.model.ClaimJob;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Optional;
+
+public interface ClaimJobService {
+
+    /** Persist the upload as a QUEUED job and return at once; analysis and save happen in the background. */
+    ClaimJob submit(MultipartFile file, String callbackUrl);
+
+    Optional<ClaimJob> findById(Long id);
+
+    /**
+     * Queue a FAILED job again with a fresh set of attempts; empty when there is no such job.
+     *
+     * @throws IllegalStateException when the job is not FAILED
+     */
+    Optional<ClaimJob> requeue(Long id);
+}
@@ -1,13 +1,36 @@
 package org.aniket.fnolclaimsagent.service;
 
 import org.aniket.fnolclaimsagent.dto.ClaimAnalysisResultDTO;
+import org.aniket.fnolclaimsagent.dto.ClaimPageDTO;
+import org.aniket.fnolclaimsagent.dto.ClaimSearchResultDTO;
+import org.aniket.fnolclaimsagent.dto.ClaimStatsDTO;
 import org.aniket.fnolclaimsagent.model.Claim;
+import org.aniket.fnolclaimsagent.search.ClaimSearchQuery;
+import org.aniket.fnolclaimsagent.service.ClaimDocumentService.StoredText;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 public interface ClaimService {
+    /**
+     * Saves the analysis; its raw text may be given inline or as the {@code documentHash} returned by analyze.
+     * Called in a transaction, the claim is written and indexed with it and never goes through the journal.
+     */
     Claim saveFromAnalysis(ClaimAnalysisResultDTO analysis);
-    List<Claim> findAll();
+
+    /** Save all claims in one transaction using JDBC batch inserts; returns them in input order. */
+    List<Claim> saveAllFromAnalyses(List<ClaimAnalysisResultDTO> analyses);
+    ClaimPageDTO findPage(Long after, int limit, String policyNumber, String route, String claimType,
+                          LocalDate incidentFrom, LocalDate incidentTo);
+
+    /** Word and attribute search over saved claims through the search index. */
+    ClaimSearchResultDTO search(ClaimSearchQuery query, int limit);
+    /** The claim row only; its raw text is read with {@link #openRawText}. */
     Optional<Claim> findById(Long id);
+
+    Optional<StoredText> openRawText(Claim claim);
+
+    /** Counts and damage totals from the statistics rollup; empty when it is disabled. */
+    Optional<ClaimStatsDTO> statistics(LocalDate from, LocalDate to);
 }
@@ -1,8 +1,19 @@
 package org.aniket.fnolclaimsagent.service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.function.Predicate;
+
 
 public interface DocumentExtractionService {
 
     String extractText(MultipartFile file);
+
+    /** Same as {@link #extractText(MultipartFile)} for a caller that already computed the upload's cache key. */
+    String extractText(MultipartFile file, String contentKey);
+
+    /**
+     * Hands the upload's text to {@code pages} one PDF page (or plain-text line) at a time and
+     * stops reading as soon as it returns false. Nothing is cached, the text may be partial.
+     */
+    void streamText(MultipartFile file, Predicate<String> pages);
 }
@@ -6,5 +6,5 @@ public interface FieldExtractionService {
 
     ExtractedFieldsDTO extractFields(String rawText);
 
-
+    FieldExtractionSession openSession();
 }
@@ -0,0 +1,25 @@
+package org.aniket.fnolclaimsagent.service;
+
+import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+
+/**
+ * Field extraction over text that arrives in pieces, e.g. page by page from the PDF stripper.
+ * Feeding a document in any number of pieces gives the same fields as
+ * {@link FieldExtractionService#extractFields(String)} on the whole text.
+ */
+public interface FieldExtractionSession {
+
+    void accept(String text);
+
+    /**
+     * True once every label or "key: value" line the fields are read from has been seen.
+     * Cheap; check it before asking for {@link #fields()} to decide whether to stop reading.
+     */
+    boolean allFieldsLocated();
+
+    /** Fields for the text accepted so far. */
+    ExtractedFieldsDTO fields();
+
+    /** The text accepted so far. */
+    String text();
+}
@@ -0,0 +1,212 @@
+package org.aniket.fnolclaimsagent.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.cache.ExtractionResultCache;
+import org.aniket.fnolclaimsagent.config.BatchProperties;
+import org.aniket.fnolclaimsagent.dto.BatchItemResultDTO;
+import org.aniket.fnolclaimsagent.dto.ClaimAnalysisResultDTO;
+import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.aniket.fnolclaimsagent.duplicate.DuplicateClaimIndex;
+import org.aniket.fnolclaimsagent.metrics.ClaimMetrics;
+import org.aniket.fnolclaimsagent.metrics.ClaimMetrics.Stage;
+import org.aniket.fnolclaimsagent.service.*;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Staged batch pipeline. Every stage has its own fixed pool and bounded queue (see
+ * {@code ExecutorConfig}): when the routing stage falls behind, field extraction blocks
+ * handing work to it, which in turn blocks text extraction, which blocks the request thread
+ * reading the next document. On top of that one batch never has more than
+ * {@code fnol.batch.max-in-flight} documents read but not yet written to the client.
+ */
+@Service
+@Slf4j
+public class BatchAnalysisServiceImpl implements BatchAnalysisService {
+
+    private static final String OK = "OK";
+    private static final String FAILED = "FAILED";
+
+    private final DocumentExtractionService documentExtractionService;
+    private final FieldExtractionService fieldExtractionService;
+    private final ValidationService validationService;
+    private final RoutingService routingService;
+    private final ExtractionResultCache resultCache;
+    private final DuplicateClaimIndex duplicateIndex;
+    private final BatchProperties properties;
+    private final ClaimMetrics metrics;
+    private final ExecutorService extractStage;
+    private final ExecutorService fieldsStage;
+    private final ExecutorService routeStage;
+
+    public BatchAnalysisServiceImpl(DocumentExtractionService documentExtractionService,
+                                    FieldExtractionService fieldExtractionService,
+                                    ValidationService validationService,
+                                    RoutingService routingService,
+                                    ExtractionResultCache resultCache,
+                                    DuplicateClaimIndex duplicateIndex,
+                                    BatchProperties properties,
+                                    ClaimMetrics metrics,
+                                    @Qualifier("batchExtractStage") ExecutorService extractStage,
+                                    @Qualifier("batchFieldsStage") ExecutorService fieldsStage,
+                                    @Qualifier("batchRouteStage") ExecutorService routeStage) {
+        this.documentExtractionService = documentExtractionService;
+        this.fieldExtractionService = fieldExtractionService;
+        this.validationService = validationService;
+        this.routingService = routingService;
+        this.resultCache = resultCache;
+        this.duplicateIndex = duplicateIndex;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.extractStage = extractStage;
+        this.fieldsStage = fieldsStage;
+        this.routeStage = routeStage;
+    }
+
+    @Override
+    public void analyzeAll(Iterator<MultipartFile> documents, boolean includeRawText, Consumer<BatchItemResultDTO> onResult) {
+        BlockingQueue<BatchItemResultDTO> done = new LinkedBlockingQueue<>();
+        int submitted = 0;
+        int written = 0;
+        try {
+            while (documents.hasNext()) {
+                if (submitted >= properties.getMaxDocuments()) {
+                    throw new IllegalArgumentException("Batch exceeds " + properties.getMaxDocuments() + " documents");
+                }
+                // in-flight limit: only write results until a slot frees up
+                while (submitted - written >= properties.getMaxInFlight()) {
+                    onResult.accept(done.take());
+                    written++;
+                }
+                Item item = new Item(submitted++, documents.next(), includeRawText, done);
+                submit(extractStage, item, () -> extract(item));
+
+                BatchItemResultDTO ready;
+                while ((ready = done.poll()) != null) {
+                    onResult.accept(ready);
+                    written++;
+                }
+            }
+            while (written < submitted) {
+                onResult.accept(done.take());
+                written++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted after " + written + " of " + submitted + " documents", e);
+        }
+        log.info("Batch finished: {} documents", submitted);
+    }
+
+    // stage 1: text (or a cached analysis for an already seen upload)
+    private void extract(Item item) {
+        String key = keyOf(item.file);
+        if (key != null) {
+            ClaimAnalysisResultDTO cached = resultCache.getAnalysis(key);
+            if (cached != null) {
+                item.complete(withDuplicates(cached));
+                return;
+            }
+        }
+        item.key = key;
+        item.text = metrics.time(Stage.EXTRACT, () -> key != null
+                ? documentExtractionService.extractText(item.file, key)
+                : documentExtractionService.extractText(item.file));
+        submit(fieldsStage, item, () -> fields(item));
+    }
+
+    // stage 2: fields + missing mandatory fields
+    private void fields(Item item) {
+        item.fields = metrics.time(Stage.FIELDS, () -> fieldExtractionService.extractFields(item.text));
+        item.missing = metrics.time(Stage.VALIDATE, () -> validationService.findMissingFields(item.fields));
+        submit(routeStage, item, () -> route(item));
+    }
+
+    // stage 3: routing decision
+    private void route(Item item) {
+        ClaimAnalysisResultDTO result = metrics.time(Stage.ROUTE,
+                () -> routingService.routeClaim(item.fields, item.missing, item.text));
+        metrics.routed(result.getRecommendedRoute());
+        result.setRawText(item.text);
+        if (item.key != null) {
+            resultCache.putAnalysis(item.key, result);
+        }
+        item.complete(withDuplicates(result));
+    }
+
+    private ClaimAnalysisResultDTO withDuplicates(ClaimAnalysisResultDTO result) {
+        result.setPossibleDuplicates(metrics.time(Stage.DUPLICATES,
+                () -> duplicateIndex.findMatches(result.getExtractedFields())));
+        return result;
+    }
+
+    private void submit(ExecutorService stage, Item item, Runnable work) {
+        try {
+            stage.execute(() -> {
+                try {
+                    work.run();
+                } catch (Exception ex) {
+                    item.fail(ex);
+                }
+            });
+        } catch (Exception ex) {
+            item.fail(ex);
+        }
+    }
+
+    private String keyOf(MultipartFile file) {
+        try {
+            return resultCache.contentKey(file);
+        } catch (Exception ex) {
+            throw new RuntimeException("Failed to read upload: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static final class Item {
+        private final int index;
+        private final MultipartFile file;
+        private final boolean includeRawText;
+        private final BlockingQueue<BatchItemResultDTO> done;
+        private String key;
+        private String text;
+        private ExtractedFieldsDTO fields;
+        private List<String> missing;
+
+        private Item(int index, MultipartFile file, boolean includeRawText, BlockingQueue<BatchItemResultDTO> done) {
+            this.index = index;
+            this.file = file;
+            this.includeRawText = includeRawText;
+            this.done = done;
+        }
+
+        void complete(ClaimAnalysisResultDTO analysis) {
+            if (!includeRawText) analysis.setRawText(null);
+            BatchItemResultDTO result = result(OK);
+            result.setAnalysis(analysis);
+            done.add(result);
+        }
+
+        void fail(Exception ex) {
+            log.warn("Batch document {} ({}) failed: {}", index, file.getOriginalFilename(), ex.getMessage());
+            BatchItemResultDTO result = result(FAILED);
+            result.setError(ex.getMessage());
+            done.add(result);
+        }
+
+        private BatchItemResultDTO result(String status) {
+            BatchItemResultDTO result = new BatchItemResultDTO();
+            result.setIndex(index);
+            result.setFileName(file.getOriginalFilename());
+            result.setStatus(status);
+            return result;
+        }
+    }
+}
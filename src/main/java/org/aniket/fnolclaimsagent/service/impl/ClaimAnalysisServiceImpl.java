@@ -0,0 +1,89 @@
+package org.aniket.fnolclaimsagent.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.cache.ExtractionResultCache;
+import org.aniket.fnolclaimsagent.config.ExtractionProperties;
+import org.aniket.fnolclaimsagent.dto.ClaimAnalysisResultDTO;
+import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.aniket.fnolclaimsagent.duplicate.DuplicateClaimIndex;
+import org.aniket.fnolclaimsagent.metrics.ClaimMetrics;
+import org.aniket.fnolclaimsagent.metrics.ClaimMetrics.Stage;
+import org.aniket.fnolclaimsagent.service.*;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClaimAnalysisServiceImpl implements ClaimAnalysisService {
+
+    private final DocumentExtractionService documentExtractionService;
+    private final FieldExtractionService fieldExtractionService;
+    private final ValidationService validationService;
+    private final RoutingService routingService;
+    private final ExtractionResultCache resultCache;
+    private final ClaimMetrics metrics;
+    private final ExtractionProperties extractionProperties;
+    private final DuplicateClaimIndex duplicateIndex;
+
+    @Override
+    public ClaimAnalysisResultDTO analyze(MultipartFile file) {
+        String key = contentKey(file);
+        if (key != null) {
+            ClaimAnalysisResultDTO cached = resultCache.getAnalysis(key);
+            if (cached != null) {
+                log.info("Returning cached analysis for {}", file.getOriginalFilename());
+                return withDuplicates(cached);
+            }
+        }
+
+        String text;
+        ExtractedFieldsDTO extracted;
+        if (extractionProperties.isStopWhenComplete() && (key == null || resultCache.getText(key) == null)) {
+            // fields are read while the pages come in, so the extract timer covers both
+            FieldExtractionSession session = metrics.time(Stage.EXTRACT, () -> {
+                FieldExtractionSession fields = fieldExtractionService.openSession();
+                documentExtractionService.streamText(file, page -> {
+                    fields.accept(page);
+                    return !(fields.allFieldsLocated() && validationService.findMissingFields(fields.fields()).isEmpty());
+                });
+                return fields;
+            });
+            text = session.text();
+            extracted = session.fields();
+        } else {
+            text = metrics.time(Stage.EXTRACT, () -> key != null
+                    ? documentExtractionService.extractText(file, key)
+                    : documentExtractionService.extractText(file));
+            extracted = metrics.time(Stage.FIELDS, () -> fieldExtractionService.extractFields(text));
+        }
+        List<String> missing = metrics.time(Stage.VALIDATE, () -> validationService.findMissingFields(extracted));
+
+        ClaimAnalysisResultDTO result = metrics.time(Stage.ROUTE, () -> routingService.routeClaim(extracted, missing, text));
+        metrics.routed(result.getRecommendedRoute());
+        result.setRawText(text);
+
+        if (key != null) {
+            resultCache.putAnalysis(key, result);
+        }
+        return withDuplicates(result);
+    }
+
+    private ClaimAnalysisResultDTO withDuplicates(ClaimAnalysisResultDTO result) {
+        result.setPossibleDuplicates(metrics.time(Stage.DUPLICATES,
+                () -> duplicateIndex.findMatches(result.getExtractedFields())));
+        return result;
+    }
+
+    private String contentKey(MultipartFile file) {
+        try {
+            return resultCache.contentKey(file);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read upload: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.aniket.fnolclaimsagent.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.model.ClaimDocument;
+import org.aniket.fnolclaimsagent.repository.ClaimDocumentRepository;
+import org.aniket.fnolclaimsagent.service.ClaimDocumentService;
+import org.aniket.fnolclaimsagent.util.TextCompression;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Documents are inserted in a transaction of their own, also when the caller has one open
+ * (a job saving its claim under the lease check). The insert then fails, and a concurrent
+ * store of the same text is caught, right here instead of at the caller's commit, where it
+ * would roll back the claim with it.
+ */
+@Service
+@Slf4j
+public class ClaimDocumentServiceImpl implements ClaimDocumentService {
+
+    private final ClaimDocumentRepository documentRepository;
+    private final TransactionTemplate ownTransaction;
+
+    public ClaimDocumentServiceImpl(ClaimDocumentRepository documentRepository,
+                                    TransactionTemplate transactionTemplate) {
+        this.documentRepository = documentRepository;
+        this.ownTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public String store(String text) {
+        if (text == null) return null;
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        String hash = TextCompression.sha256Hex(utf8);
+        if (documentRepository.existsById(hash)) return hash;
+
+        try {
+            ownTransaction.executeWithoutResult(status -> documentRepository.save(toDocument(hash, utf8)));
+        } catch (DataIntegrityViolationException duplicate) {
+            // another request stored the same text between the exists check and the insert
+            log.debug("Document {} already stored", hash);
+        }
+        return hash;
+    }
+
+    @Override
+    public List<String> storeAll(List<String> texts) {
+        List<String> hashes = new ArrayList<>(texts.size());
+        Map<String, byte[]> distinct = new LinkedHashMap<>();
+        for (String text : texts) {
+            if (text == null) {
+                hashes.add(null);
+                continue;
+            }
+            byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+            String hash = TextCompression.sha256Hex(utf8);
+            hashes.add(hash);
+            distinct.putIfAbsent(hash, utf8);
+        }
+        if (distinct.isEmpty()) return hashes;
+
+        for (ClaimDocument existing : documentRepository.findAllById(distinct.keySet())) {
+            distinct.remove(existing.getContentHash());
+        }
+        List<ClaimDocument> missing = new ArrayList<>(distinct.size());
+        distinct.forEach((hash, utf8) -> missing.add(toDocument(hash, utf8)));
+        try {
+            ownTransaction.executeWithoutResult(status -> documentRepository.saveAll(missing));
+        } catch (DataIntegrityViolationException duplicate) {
+            // a concurrent request stored some of them; fall back to one at a time
+            for (Map.Entry<String, byte[]> e : distinct.entrySet()) {
+                store(new String(e.getValue(), StandardCharsets.UTF_8));
+            }
+        }
+        return hashes;
+    }
+
+    @Override
+    public Optional<String> load(String contentHash) {
+        if (contentHash == null) return Optional.empty();
+        return documentRepository.findById(contentHash)
+                .map(d -> TextCompression.inflate(d.getCompressed(), d.getOriginalBytes()));
+    }
+
+    @Override
+    public Optional<StoredText> open(String contentHash) {
+        if (contentHash == null) return Optional.empty();
+        return documentRepository.findById(contentHash)
+                .map(d -> new StoredText(d.getOriginalBytes(), TextCompression.inflating(d.getCompressed())));
+    }
+
+    private static ClaimDocument toDocument(String hash, byte[] utf8) {
+        return ClaimDocument.builder()
+                .contentHash(hash)
+                .compressed(TextCompression.deflate(utf8))
+                .originalBytes(utf8.length)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
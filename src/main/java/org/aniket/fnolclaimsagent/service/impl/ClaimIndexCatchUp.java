@@ -0,0 +1,219 @@
+package org.aniket.fnolclaimsagent.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.config.SearchProperties;
+import org.aniket.fnolclaimsagent.duplicate.DuplicateClaimIndex;
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.aniket.fnolclaimsagent.search.ClaimSearchIndex;
+import org.aniket.fnolclaimsagent.service.ClaimDocumentService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Adds claims written by other nodes, by a journal flush or before a crash to this node's
+ * search and duplicate indexes, and builds both on the first start against an existing
+ * database. Polls the claim table every {@code fnol.search.catch-up-interval} on a thread of
+ * its own, in batches, so the application serves (and searches what is indexed so far)
+ * while it works through a large table.
+ * <p>
+ * Claims are read in {@code written_at} order, not id order: journaled claims get their ids
+ * when they are saved but their rows only when the journal is flushed, well below the highest
+ * id by then. A row inserted by a transaction that has not committed yet is not visible, so
+ * the indexes only record progress up to {@code fnol.search.catch-up-lookback} before the
+ * database clock. The rows past that are read again by the next poll, which skips the ids
+ * it has already indexed, as well as those this node indexed itself on save.
+ */
+@Component
+@Slf4j
+public class ClaimIndexCatchUp implements ApplicationRunner {
+
+    private static final int BATCH = 500;
+    // ids indexed on save that no poll has come across, e.g. because their row is older than the lookback
+    private static final int MAX_INDEXED_HERE = 100_000;
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1000, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClaimDocumentService claimDocumentService;
+    private final ClaimSearchIndex searchIndex;
+    private final DuplicateClaimIndex duplicateIndex;
+    private final SearchProperties properties;
+
+    private final Set<Long> indexedHere = ConcurrentHashMap.newKeySet();
+    // read past the recorded progress, with their written_at; only touched by the polling thread
+    private final Map<Long, LocalDateTime> seen = new HashMap<>();
+    private LocalDateTime searchFrom;
+    private LocalDateTime duplicatesFrom;
+    private boolean failing;
+    private volatile boolean running;
+    private Thread poller;
+
+    public ClaimIndexCatchUp(JdbcTemplate jdbcTemplate, ClaimDocumentService claimDocumentService,
+                             ClaimSearchIndex searchIndex, DuplicateClaimIndex duplicateIndex,
+                             SearchProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.claimDocumentService = claimDocumentService;
+        this.searchIndex = searchIndex;
+        this.duplicateIndex = duplicateIndex;
+        this.properties = properties;
+        this.searchFrom = orBeginning(searchIndex.committedCaughtUpTo());
+        this.duplicatesFrom = duplicateIndex.isEnabled() ? orBeginning(duplicateIndex.snapshotCaughtUpTo()) : searchFrom;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        running = true;
+        poller = Thread.ofVirtual().name("claim-index-catch-up").start(this::poll);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (poller != null) {
+            poller.interrupt();
+            poller.join(properties.getCatchUpInterval().toMillis() + 5_000);
+        }
+    }
+
+    /** Claims this node has just indexed itself; the next poll does not read them again. */
+    public void indexed(List<Claim> claims) {
+        if (indexedHere.size() > MAX_INDEXED_HERE) indexedHere.clear();
+        for (Claim claim : claims) {
+            indexedHere.add(claim.getId());
+        }
+    }
+
+    private void poll() {
+        boolean first = true;
+        while (running) {
+            try {
+                long indexed = catchUp();
+                if (first) {
+                    log.info("Index catch-up done: {} claims read", indexed);
+                } else if (indexed > 0) {
+                    log.debug("Index catch-up: {} claims written elsewhere added", indexed);
+                }
+                first = false;
+                failing = false;
+            } catch (Exception ex) {
+                // indexed so far stays recorded; the next poll carries on from there
+                if (!failing) log.warn("Index catch-up failed, retrying: {}", ex.toString());
+                failing = true;
+            }
+            try {
+                Thread.sleep(properties.getCatchUpInterval());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /** One pass over the claims written since the last; returns how many were added. */
+    long catchUp() throws Exception {
+        LocalDateTime until = jdbcTemplate.queryForObject("select now(6)", LocalDateTime.class)
+                .minus(properties.getCatchUpLookback());
+        LocalDateTime lastWritten = earliest(searchFrom, duplicatesFrom);
+        long lastId = Long.MAX_VALUE;
+        long read = 0;
+        long indexed = 0;
+        while (running) {
+            List<Written> rows = jdbcTemplate.query("""
+                            select id, written_at from claim where written_at > ? or (written_at = ? and id > ?)
+                            order by written_at, id limit ?""",
+                    (rs, i) -> new Written(rs.getLong("id"), rs.getObject("written_at", LocalDateTime.class)),
+                    lastWritten, lastWritten, lastId, BATCH);
+            if (rows.isEmpty()) break;
+
+            Map<Long, LocalDateTime> unseen = new HashMap<>();
+            for (Written row : rows) {
+                boolean known = indexedHere.remove(row.id()) || seen.containsKey(row.id());
+                if (!known) unseen.put(row.id(), row.writtenAt());
+            }
+            List<Claim> claims = load(unseen.keySet());
+            duplicateIndex.addAll(claims.stream().filter(c -> unseen.get(c.getId()).isAfter(duplicatesFrom)).toList());
+            List<Claim> forSearch = claims.stream().filter(c -> unseen.get(c.getId()).isAfter(searchFrom)).toList();
+            for (Claim claim : forSearch) {
+                if (claim.getDocumentHash() != null) {
+                    claimDocumentService.load(claim.getDocumentHash()).ifPresent(claim::setRawText);
+                }
+            }
+            searchIndex.indexAll(forSearch);
+            // only once indexed, so a poll that fails half way reads them again
+            for (Written row : rows) {
+                if (row.writtenAt().isAfter(until)) seen.put(row.id(), row.writtenAt());
+            }
+            Written last = rows.get(rows.size() - 1);
+            lastWritten = last.writtenAt();
+            lastId = last.id();
+            // more rows may share the last one's written_at
+            caughtUpTo(earliest(lastWritten.minus(1, ChronoUnit.MICROS), until));
+            searchIndex.commit();
+            indexed += claims.size();
+            read += rows.size();
+            if (read % (BATCH * 20) == 0) {
+                log.info("Index catch-up: {} claims read (written until {})", read, lastWritten);
+            }
+        }
+        if (!running) return indexed;
+        caughtUpTo(until);
+        searchIndex.commit();
+        searchFrom = latest(searchFrom, until);
+        duplicatesFrom = latest(duplicatesFrom, until);
+        seen.values().removeIf(writtenAt -> !writtenAt.isAfter(until));
+        return indexed;
+    }
+
+    private List<Claim> load(Set<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.query("""
+                        select id, policy_number, policy_holder_name, incident_date, location, description,
+                               recommended_route, document_hash
+                        from claim where id in (%s) order by id""".formatted(placeholders),
+                (rs, i) -> {
+                    Date incident = rs.getDate("incident_date");
+                    return Claim.builder()
+                            .id(rs.getLong("id"))
+                            .policyNumber(rs.getString("policy_number"))
+                            .policyHolderName(rs.getString("policy_holder_name"))
+                            .incidentDate(incident != null ? incident.toLocalDate() : null)
+                            .location(rs.getString("location"))
+                            .description(rs.getString("description"))
+                            .recommendedRoute(rs.getString("recommended_route"))
+                            .documentHash(rs.getString("document_hash"))
+                            .build();
+                }, ids.toArray());
+    }
+
+    private void caughtUpTo(LocalDateTime writtenAt) {
+        searchIndex.caughtUpTo(writtenAt);
+        duplicateIndex.caughtUpTo(writtenAt);
+    }
+
+    private static LocalDateTime orBeginning(LocalDateTime writtenAt) {
+        return writtenAt != null ? writtenAt : BEGINNING;
+    }
+
+    private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private record Written(long id, LocalDateTime writtenAt) {
+    }
+}
@@ -0,0 +1,369 @@
+package org.aniket.fnolclaimsagent.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.config.JobProperties;
+import org.aniket.fnolclaimsagent.dto.ClaimAnalysisResultDTO;
+import org.aniket.fnolclaimsagent.dto.JobCallbackDTO;
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.aniket.fnolclaimsagent.model.ClaimJob;
+import org.aniket.fnolclaimsagent.model.ClaimJobPayload;
+import org.aniket.fnolclaimsagent.model.JobStatus;
+import org.aniket.fnolclaimsagent.repository.ClaimJobPayloadRepository;
+import org.aniket.fnolclaimsagent.repository.ClaimJobRepository;
+import org.aniket.fnolclaimsagent.service.ClaimAnalysisService;
+import org.aniket.fnolclaimsagent.service.ClaimJobService;
+import org.aniket.fnolclaimsagent.service.ClaimService;
+import org.aniket.fnolclaimsagent.util.InMemoryMultipartFile;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jobs are rows in {@code claim_job}, shared by every node, so queued work survives a
+ * restart and any number of worker nodes can drain the same queue. A worker takes the next
+ * due job with {@code SELECT ... FOR UPDATE SKIP LOCKED} and leases it: the job is RUNNING
+ * under the worker's id until {@code leaseUntil}, which the node renews while it runs. A
+ * job whose worker died is taken over once the lease has run out.
+ * <p>
+ * The claim is saved in the same transaction that checks the lease is still held and marks
+ * the job COMPLETED, so a worker that lost its lease (a long GC pause, a network split) does
+ * not save the claim a second time. Job claims bypass the write-behind journal for that reason,
+ * and are indexed only once the transaction has committed. A failed run goes back to the queue after
+ * {@code retry-backoff}, doubled per attempt; after {@code max-attempts} runs the job stays
+ * FAILED with its upload, the dead-letter queue, until it is queued again with {@link #requeue}.
+ */
+@Service
+@Slf4j
+public class ClaimJobServiceImpl implements ClaimJobService {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final ClaimJobRepository jobRepository;
+    private final ClaimJobPayloadRepository payloadRepository;
+    private final ClaimAnalysisService claimAnalysisService;
+    private final ClaimService claimService;
+    private final ExecutorService executor;
+    private final TransactionTemplate transactionTemplate;
+    private final JobProperties properties;
+    private final RestClient callbackClient;
+    private final String workerId;
+    // a job submitted here wakes an idle worker instead of waiting for its next poll
+    private final Semaphore submitted = new Semaphore(0);
+    private volatile boolean running;
+
+    public ClaimJobServiceImpl(ClaimJobRepository jobRepository,
+                               ClaimJobPayloadRepository payloadRepository,
+                               ClaimAnalysisService claimAnalysisService,
+                               ClaimService claimService,
+                               @Qualifier("claimJobExecutor") ExecutorService executor,
+                               TransactionTemplate transactionTemplate,
+                               JobProperties properties) {
+        this.jobRepository = jobRepository;
+        this.payloadRepository = payloadRepository;
+        this.claimAnalysisService = claimAnalysisService;
+        this.claimService = claimService;
+        this.executor = executor;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.workerId = properties.getWorkerId().isBlank()
+                // a restarted process must not renew the leases of the one before it
+                ? ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8)
+                : properties.getWorkerId();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(properties.getCallbackTimeout()).build());
+        requestFactory.setReadTimeout(properties.getCallbackTimeout());
+        this.callbackClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    @Override
+    @Transactional
+    public ClaimJob submit(MultipartFile file, String callbackUrl) {
+        if (callbackUrl != null && !callbackUrl.isBlank() && !callbackAllowed(callbackUrl)) {
+            throw new IllegalArgumentException(
+                    "callbackUrl must be an http(s) URL under one of fnol.jobs.callback-allowed-urls");
+        }
+        byte[] content;
+        try {
+            content = file != null ? file.getBytes() : new byte[0];
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read upload: " + e.getMessage(), e);
+        }
+
+        ClaimJob job = jobRepository.save(ClaimJob.builder()
+                .status(JobStatus.QUEUED)
+                .fileName(file != null ? file.getOriginalFilename() : null)
+                .contentType(file != null ? file.getContentType() : null)
+                .sizeBytes((long) content.length)
+                .callbackUrl(callbackUrl != null && !callbackUrl.isBlank() ? callbackUrl : null)
+                .createdAt(LocalDateTime.now())
+                .build());
+        payloadRepository.save(new ClaimJobPayload(job.getId(), content));
+
+        if (running) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submitted.release();
+                }
+            });
+        }
+        return job;
+    }
+
+    @Override
+    public Optional<ClaimJob> findById(Long id) {
+        return jobRepository.findById(id);
+    }
+
+    @Override
+    public Optional<ClaimJob> requeue(Long id) {
+        if (jobRepository.requeueFailed(id) == 0) {
+            Optional<ClaimJob> job = jobRepository.findById(id);
+            if (job.isPresent()) {
+                throw new IllegalStateException("Job " + id + " is " + job.get().getStatus() + ", not FAILED");
+            }
+            return job;
+        }
+        if (running) submitted.release();
+        return jobRepository.findById(id);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWorkers() {
+        if (!properties.runsWorkers()) {
+            log.info("Job role {}: queued jobs are left to worker nodes", properties.getRole());
+            return;
+        }
+        running = true;
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            executor.execute(this::work);
+        }
+        log.info("Started {} claim job worker(s) as {}", properties.getWorkers(), workerId);
+    }
+
+    @PreDestroy
+    public void stopWorkers() {
+        running = false;
+        // the executor is shut down after this; leases of interrupted jobs run out and another node takes over
+        submitted.release(properties.getWorkers());
+    }
+
+    @Scheduled(fixedDelayString = "${fnol.jobs.lease-renew-interval:20s}")
+    public void renewLeases() {
+        if (!running) return;
+        try {
+            jobRepository.renewLeases(workerId, LocalDateTime.now().plus(properties.getLeaseDuration()));
+        } catch (Exception ex) {
+            log.warn("Could not renew claim job leases: {}", ex.getMessage());
+        }
+    }
+
+    private void work() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                if (!runNext() && submitted.tryAcquire(properties.getPollInterval().toMillis(), TimeUnit.MILLISECONDS)) {
+                    // someone else may have taken that job; either way look again right away
+                    submitted.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception ex) {
+                log.warn("Claim job worker could not reach the job table: {}", ex.getMessage());
+                sleep(properties.getPollInterval());
+            }
+        }
+    }
+
+    /** Leases the next due job and runs it; false when there was none. */
+    boolean runNext() {
+        ClaimJob job = leaseNext();
+        if (job == null) return false;
+        run(job);
+        return true;
+    }
+
+    /** The next due job, now RUNNING under this worker's lease; null when there is none. */
+    private ClaimJob leaseNext() {
+        List<ClaimJob> failed = new ArrayList<>(1);
+        ClaimJob leased = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (Long id : jobRepository.lockDue(now, 1)) {
+                ClaimJob job = jobRepository.findById(id).orElseThrow();
+                if (job.getStatus() == JobStatus.RUNNING && job.getAttempts() >= properties.getMaxAttempts()) {
+                    // every worker that took it died or stalled: do not let it take down another one
+                    job.setStatus(JobStatus.FAILED);
+                    job.setError("Worker lease expired on all " + job.getAttempts() + " attempts");
+                    job.setFinishedAt(now);
+                    job.setLeaseOwner(null);
+                    job.setLeaseUntil(null);
+                    failed.add(job);
+                    continue;
+                }
+                job.setStatus(JobStatus.RUNNING);
+                job.setAttempts(job.getAttempts() + 1);
+                job.setLeaseOwner(workerId);
+                job.setLeaseUntil(now.plus(properties.getLeaseDuration()));
+                job.setStartedAt(now);
+                job.setNextAttemptAt(null);
+                return job;
+            }
+            return null;
+        });
+        for (ClaimJob job : failed) {
+            log.error("Claim job {} failed: {}", job.getId(), job.getError());
+            notifyCallback(job);
+        }
+        return leased;
+    }
+
+    private void run(ClaimJob job) {
+        Long id = job.getId();
+        try {
+            byte[] content = payloadRepository.findById(id)
+                    .map(ClaimJobPayload::getContent)
+                    .orElseThrow(() -> new IllegalStateException("Payload of job " + id + " is missing"));
+            MultipartFile file = new InMemoryMultipartFile("file", job.getFileName(), job.getContentType(), content);
+
+            ClaimAnalysisResultDTO analysis = claimAnalysisService.analyze(file);
+            LocalDateTime finished = LocalDateTime.now();
+            Claim claim = transactionTemplate.execute(status -> {
+                if (jobRepository.lockLeased(id, workerId).isEmpty()) return null;
+                Claim saved = claimService.saveFromAnalysis(analysis);
+                ClaimJob done = jobRepository.findById(id).orElseThrow();
+                done.setStatus(JobStatus.COMPLETED);
+                done.setClaimId(saved.getId());
+                done.setRecommendedRoute(analysis.getRecommendedRoute());
+                done.setError(null);
+                done.setFinishedAt(finished);
+                done.setLeaseOwner(null);
+                done.setLeaseUntil(null);
+                payloadRepository.deleteById(id);
+                return saved;
+            });
+            if (claim == null) {
+                log.warn("Lease on claim job {} ran out while it was analyzed; left to the worker that took it over", id);
+                return;
+            }
+            job.setStatus(JobStatus.COMPLETED);
+            job.setClaimId(claim.getId());
+            job.setRecommendedRoute(analysis.getRecommendedRoute());
+            job.setFinishedAt(finished);
+            job.setLeaseOwner(null);
+            job.setLeaseUntil(null);
+            notifyCallback(job);
+        } catch (Exception ex) {
+            failed(job, ex);
+        }
+    }
+
+    private void failed(ClaimJob job, Exception ex) {
+        String error = ex.getMessage() != null ? ex.getMessage() : ex.toString();
+        if (error.length() > MAX_ERROR_LENGTH) error = error.substring(0, MAX_ERROR_LENGTH);
+        try {
+            if (job.getAttempts() < properties.getMaxAttempts()) {
+                Duration backoff = properties.getRetryBackoff().multipliedBy(1L << Math.min(job.getAttempts() - 1, 16));
+                jobRepository.retryLater(job.getId(), workerId, error, LocalDateTime.now().plus(backoff));
+                log.warn("Claim job {} failed on attempt {}, retrying in {}s: {}", job.getId(), job.getAttempts(),
+                        backoff.toSeconds(), error);
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (jobRepository.deadLetter(job.getId(), workerId, error, now) == 0) return;
+            log.error("Claim job {} failed on its last attempt", job.getId(), ex);
+            job.setStatus(JobStatus.FAILED);
+            job.setError(error);
+            job.setFinishedAt(now);
+            job.setLeaseOwner(null);
+            job.setLeaseUntil(null);
+            notifyCallback(job);
+        } catch (Exception updateFailed) {
+            // the lease runs out and the job is retried from there
+            log.warn("Could not record the failure of claim job {}: {}", job.getId(), updateFailed.getMessage());
+        }
+    }
+
+    private void notifyCallback(ClaimJob job) {
+        if (job.getCallbackUrl() == null) return;
+        // the allow-list may have shrunk since the job was queued
+        if (!callbackAllowed(job.getCallbackUrl())) {
+            log.warn("Callback for job {} to {} skipped: URL not allowed", job.getId(), job.getCallbackUrl());
+            return;
+        }
+        JobCallbackDTO body = new JobCallbackDTO(job.getId(), job.getStatus(), job.getClaimId(),
+                job.getRecommendedRoute(), job.getError(), job.getAttempts(), job.getFinishedAt());
+        try {
+            callbackClient.post().uri(job.getCallbackUrl()).body(body).retrieve().toBodilessEntity();
+        } catch (Exception ex) {
+            log.warn("Callback for job {} to {} failed: {}", job.getId(), job.getCallbackUrl(), ex.getMessage());
+        }
+    }
+
+    // Scheme, host and port must equal those of an allowed URL and the path must lie under its path. Comparing the
+    // strings by prefix would let https://hooks.example.com.attacker.net or https://hooks.example.com@10.0.0.1 through.
+    private boolean callbackAllowed(String callbackUrl) {
+        URI target;
+        try {
+            target = new URI(callbackUrl).normalize();
+        } catch (URISyntaxException e) {
+            return false;
+        }
+        if (target.getHost() == null || target.getRawUserInfo() != null
+                || !("http".equalsIgnoreCase(target.getScheme()) || "https".equalsIgnoreCase(target.getScheme()))) {
+            return false;
+        }
+        for (String allowed : properties.getCallbackAllowedUrls()) {
+            URI base = URI.create(allowed.trim());
+            if (target.getScheme().equalsIgnoreCase(base.getScheme())
+                    && target.getHost().equalsIgnoreCase(base.getHost())
+                    && port(target) == port(base)
+                    && isUnder(target.getRawPath(), base.getRawPath())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int port(URI uri) {
+        if (uri.getPort() != -1) return uri.getPort();
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    private static boolean isUnder(String path, String basePath) {
+        String base = basePath == null ? "" : basePath.replaceAll("/+$", "");
+        if (base.isEmpty()) return true;
+        return path != null && (path.equals(base) || path.startsWith(base + "/"));
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,30 +1,179 @@
 package org.aniket.fnolclaimsagent.service.impl;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.config.SearchProperties;
+import org.aniket.fnolclaimsagent.datasource.ReadReplicas;
 import org.aniket.fnolclaimsagent.dto.ClaimAnalysisResultDTO;
+import org.aniket.fnolclaimsagent.dto.ClaimPageDTO;
+import org.aniket.fnolclaimsagent.dto.ClaimSearchResultDTO;
+import org.aniket.fnolclaimsagent.dto.ClaimStatsDTO;
+import org.aniket.fnolclaimsagent.dto.ClaimSummaryDTO;
 import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.aniket.fnolclaimsagent.duplicate.DuplicateClaimIndex;
+import org.aniket.fnolclaimsagent.journal.ClaimWriteBehind;
+import org.aniket.fnolclaimsagent.metrics.ClaimMetrics;
+import org.aniket.fnolclaimsagent.metrics.ClaimMetrics.Stage;
 import org.aniket.fnolclaimsagent.model.Claim;
 import org.aniket.fnolclaimsagent.repository.ClaimRepository;
+import org.aniket.fnolclaimsagent.search.ClaimSearchIndex;
+import org.aniket.fnolclaimsagent.search.ClaimSearchQuery;
+import org.aniket.fnolclaimsagent.service.ClaimDocumentService;
+import org.aniket.fnolclaimsagent.service.ClaimDocumentService.StoredText;
 import org.aniket.fnolclaimsagent.service.ClaimService;
+import org.aniket.fnolclaimsagent.stats.ClaimStatsRollup;
+import org.aniket.fnolclaimsagent.util.TextCompression;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ClaimServiceImpl implements ClaimService {
 
+    static final int MAX_PAGE_SIZE = 500;
+
     private final ClaimRepository claimRepository;
+    private final ClaimDocumentService claimDocumentService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ClaimMetrics metrics;
+    private final ClaimSearchIndex searchIndex;
+    private final DuplicateClaimIndex duplicateIndex;
+    private final SearchProperties searchProperties;
+    private final ClaimWriteBehind writeBehind;
+    private final ClaimStatsRollup statsRollup;
+    private final ClaimIndexCatchUp indexCatchUp;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
 
     @Override
     public Claim saveFromAnalysis(ClaimAnalysisResultDTO analysis) {
+        Claim saved = metrics.time(Stage.SAVE, () -> {
+            if (journaled()) return writeBehind.append(List.of(toJournaled(analysis))).getFirst();
+            String text = textOf(analysis);
+            String hash = analysis.getRawText() == null ? analysis.getDocumentHash() : claimDocumentService.store(text);
+            return transactionTemplate.execute(status -> {
+                Claim claim = claimRepository.save(toClaim(analysis, text, hash));
+                statsRollup.record(List.of(claim));
+                return claim;
+            });
+        });
+        index(List.of(saved));
+        return saved;
+    }
+
+    @Override
+    public List<Claim> saveAllFromAnalyses(List<ClaimAnalysisResultDTO> analyses) {
+        List<Claim> saved = metrics.time(Stage.SAVE_BATCH, () -> saveAll(analyses));
+        index(saved);
+        return saved;
+    }
+
+    // a caller's transaction (a job checking its lease) may still roll back, which an fsynced journal
+    // record cannot, so its claims are written directly as part of it
+    private boolean journaled() {
+        return writeBehind.isEnabled() && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    // after the commit: a claim that fails to index is still saved and is picked up by the catch-up
+    private void index(List<Claim> claims) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    indexNow(claims);
+                }
+            });
+        } else {
+            indexNow(claims);
+        }
+    }
+
+    private void indexNow(List<Claim> claims) {
+        metrics.time(Stage.INDEX, () -> {
+            try {
+                duplicateIndex.addAll(claims);
+                searchIndex.indexAll(claims);
+                indexCatchUp.indexed(claims);
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Could not add {} saved claim(s) to the search index: {}", claims.size(), ex.toString());
+            }
+            return null;
+        });
+    }
+
+    private List<Claim> saveAll(List<ClaimAnalysisResultDTO> analyses) {
+        if (journaled()) {
+            return writeBehind.append(analyses.stream().map(this::toJournaled).toList());
+        }
+        List<String> texts = new ArrayList<>(analyses.size());
+        for (ClaimAnalysisResultDTO analysis : analyses) {
+            texts.add(analysis.getRawText());
+        }
+        // documents commit on their own first, so a duplicate-hash race there cannot roll back the claims
+        List<String> hashes = claimDocumentService.storeAll(texts);
+        for (int i = 0; i < analyses.size(); i++) {
+            ClaimAnalysisResultDTO analysis = analyses.get(i);
+            if (analysis.getRawText() == null && analysis.getDocumentHash() != null) {
+                texts.set(i, textOf(analysis));
+                hashes.set(i, analysis.getDocumentHash());
+            }
+        }
+
+        return transactionTemplate.execute(status -> {
+            List<Claim> saved = new ArrayList<>(analyses.size());
+            for (int i = 0; i < analyses.size(); i++) {
+                saved.add(claimRepository.save(toClaim(analyses.get(i), texts.get(i), hashes.get(i))));
+                // flush one JDBC batch at a time and keep the persistence context small
+                if ((i + 1) % jdbcBatchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            statsRollup.record(saved);
+            return saved;
+        });
+    }
+
+    // a result analyzed with includeRawText=false carries the hash of the text stored on analyze;
+    // the text is still read back once here for the search index
+    private String textOf(ClaimAnalysisResultDTO analysis) {
+        String hash = analysis.getDocumentHash();
+        if (analysis.getRawText() != null || hash == null) return analysis.getRawText();
+        return claimDocumentService.load(hash)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown documentHash " + hash));
+    }
+
+    // the document is stored by the journal flush; the hash is the one it will be stored under
+    private Claim toJournaled(ClaimAnalysisResultDTO analysis) {
+        String text = textOf(analysis);
+        String hash = analysis.getRawText() == null ? analysis.getDocumentHash()
+                : TextCompression.sha256Hex(text.getBytes(StandardCharsets.UTF_8));
+        return toClaim(analysis, text, hash);
+    }
+
+    private Claim toClaim(ClaimAnalysisResultDTO analysis, String rawText, String documentHash) {
         ExtractedFieldsDTO f = analysis.getExtractedFields();
 
         Claim.ClaimBuilder b = Claim.builder()
@@ -36,53 +185,97 @@ public class ClaimServiceImpl implements ClaimService {
                 .claimType(f.getClaimType())
                 .recommendedRoute(analysis.getRecommendedRoute())
                 .reasoning(analysis.getReasoning())
-                .rawText(analysis.getRawText() != null ? analysis.getRawText() : null)
+                .documentHash(documentHash)
+                .rawText(rawText)
+                .incidentDate(f.getIncidentDateValue())
+                .estimatedDamage(f.getEstimatedDamageAmount())
                 .createdAt(LocalDateTime.now());
 
-        // parse incident date (expecting MM/dd/yyyy or dd/MM/yyyy) — try common formats
-        String d = f.getIncidentDate();
-        if (d != null && !d.isBlank()) {
-            LocalDate parsed = parseDateFlexible(d);
-            b.incidentDate(parsed);
+        String est = f.getEstimatedDamage();
+        if (f.getEstimatedDamageAmount() == null && est != null && !est.isBlank()) {
+            log.warn("Could not parse estimated damage '{}'", est);
         }
 
-        // parse estimated damage
-        String est = f.getEstimatedDamage();
-        if (est != null && !est.isBlank()) {
+        return b.build();
+    }
+
+    @Override
+    @Transactional(readOnly = true, label = ReadReplicas.LABEL)
+    public ClaimPageDTO findPage(Long after, int limit, String policyNumber, String route, String claimType,
+                                 LocalDate incidentFrom, LocalDate incidentTo) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // one extra row tells us whether there is a next page without a count query
+        List<ClaimSummaryDTO> rows = claimRepository.findSummaries(
+                after, blankToNull(policyNumber), blankToNull(route), blankToNull(claimType), incidentFrom, incidentTo, Limit.of(size + 1));
+        if (rows.size() <= size) {
+            return new ClaimPageDTO(rows, null);
+        }
+        List<ClaimSummaryDTO> page = rows.subList(0, size);
+        return new ClaimPageDTO(page, page.get(size - 1).getId());
+    }
+
+    @Override
+    @Transactional(readOnly = true, label = ReadReplicas.LABEL)
+    public ClaimSearchResultDTO search(ClaimSearchQuery query, int limit) {
+        int size = Math.max(1, Math.min(limit, searchProperties.getMaxResults()));
+        return metrics.time(Stage.SEARCH, () -> {
+            ClaimSearchIndex.Hits hits;
             try {
-                String cleaned = est.replaceAll("[^0-9.]", "");
-                b.estimatedDamage(new BigDecimal(cleaned));
-            } catch (Exception ex) {
-                log.warn("Could not parse estimated damage '{}'", est);
+                hits = searchIndex.search(query, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-        }
+            if (hits.ids().isEmpty()) {
+                return new ClaimSearchResultDTO(List.of(), hits.total(), hits.totalExact());
+            }
+            Map<Long, ClaimSummaryDTO> rows = new HashMap<>();
+            for (ClaimSummaryDTO row : claimRepository.findSummariesByIds(hits.ids())) {
+                rows.put(row.getId(), row);
+            }
+            List<ClaimSummaryDTO> items = new ArrayList<>(hits.ids().size());
+            for (Long id : hits.ids()) {
+                ClaimSummaryDTO row = rows.get(id);
+                if (row != null) items.add(row);
+            }
+            return new ClaimSearchResultDTO(items, hits.total(), hits.totalExact());
+        });
+    }
 
-        Claim claim = b.build();
-        return claimRepository.save(claim);
+    @Override
+    @Transactional(readOnly = true, label = ReadReplicas.LABEL)
+    public Optional<Claim> findById(Long id) {
+        // a journaled claim is served from memory until its row is written
+        return writeBehind.find(id).or(() -> orFromPrimary(() -> claimRepository.findById(id)));
     }
 
     @Override
-    public List<Claim> findAll() {
-        return claimRepository.findAll();
+    @Transactional(readOnly = true, label = ReadReplicas.LABEL)
+    public Optional<StoredText> openRawText(Claim claim) {
+        return writeBehind.text(claim.getId())
+                .or(() -> orFromPrimary(() -> claimDocumentService.open(claim.getDocumentHash())));
+    }
+
+    /**
+     * A replica may not have a claim saved a moment ago yet; a miss there is read again from the
+     * primary so a get right after /save finds it.
+     */
+    private <T> Optional<T> orFromPrimary(Supplier<Optional<T>> read) {
+        Optional<T> found = read.get();
+        if (found.isPresent() || !ReadReplicas.isRequested()) return found;
+        TransactionTemplate primary = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        primary.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        primary.setReadOnly(true);
+        return primary.execute(status -> read.get());
     }
 
     @Override
-    public Optional<Claim> findById(Long id) {
-        return claimRepository.findById(id);
+    @Transactional(readOnly = true, label = ReadReplicas.LABEL)
+    public Optional<ClaimStatsDTO> statistics(LocalDate from, LocalDate to) {
+        if (!statsRollup.isEnabled()) return Optional.empty();
+        return Optional.of(metrics.time(Stage.STATS, () -> statsRollup.totals(from, to)));
     }
 
-    private LocalDate parseDateFlexible(String d) {
-        for (DateTimeFormatter fmt : new DateTimeFormatter[]{
-                DateTimeFormatter.ofPattern("M/d/yyyy"),
-                DateTimeFormatter.ofPattern("MM/dd/yyyy"),
-                DateTimeFormatter.ofPattern("d/M/yyyy"),
-                DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd")
-        }) {
-            try {
-                return LocalDate.parse(d, fmt);
-            } catch (Exception ignored) {}
-        }
-        return null;
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s.trim();
     }
 }
@@ -1,18 +1,43 @@
 package org.aniket.fnolclaimsagent.service.impl;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.cache.ExtractionResultCache;
+import org.aniket.fnolclaimsagent.config.ExtractionProperties;
 import org.aniket.fnolclaimsagent.service.DocumentExtractionService;
+import org.aniket.fnolclaimsagent.util.TextStripperPool;
+import org.aniket.fnolclaimsagent.util.ThreadAllocation;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 @Service
 @Slf4j
@@ -20,36 +45,131 @@ public class DocumentExtractionServiceImpl implements DocumentExtractionService
 
     private static final String DEFAULT_SAMPLE_PATH = "fnols/sample.pdf";
 
+    // declared content types are client input, so only these get their own tag value
+    private static final List<String> KNOWN_CONTENT_TYPES = List.of(
+            "application/pdf", "application/octet-stream", "text/plain", "text/csv");
+
+    // rough chars of text per page, used to presize the text buffer
+    private static final int CHARS_PER_PAGE_HINT = 3_000;
+
+    private final ExtractionProperties properties;
+    private final ExecutorService pageExtractionExecutor;
+    private final ExtractionResultCache resultCache;
+    private final DistributionSummary streamingAllocations;
+    private final DistributionSummary inMemoryAllocations;
+    private final DistributionSummary documentSizes;
+    private final MeterRegistry meterRegistry;
+    private final Counter pdfToTextFallbacks;
+    private final Counter sampleFallbacks;
+    private final TextStripperPool strippers;
+    private final MemoryUsageSetting memoryUsage;
+    // text of the bundled sample, served for every empty upload
+    private volatile String sampleText;
+
+    public DocumentExtractionServiceImpl(ExtractionProperties properties,
+                                         @Qualifier("pageExtractionExecutor") ExecutorService pageExtractionExecutor,
+                                         ExtractionResultCache resultCache,
+                                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.pageExtractionExecutor = pageExtractionExecutor;
+        this.resultCache = resultCache;
+        this.streamingAllocations = allocationSummary(meterRegistry, "streaming");
+        this.inMemoryAllocations = allocationSummary(meterRegistry, "in-memory");
+        this.documentSizes = DistributionSummary.builder("fnol.extraction.document.size")
+                .description("Size of uploaded PDFs")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.meterRegistry = meterRegistry;
+        this.pdfToTextFallbacks = fallbackCounter(meterRegistry, "pdf_to_text");
+        this.sampleFallbacks = fallbackCounter(meterRegistry, "classpath_sample");
+        this.strippers = new TextStripperPool(properties.getStripperPoolSize(),
+                properties.isSuppressDuplicateOverlappingText(), meterRegistry);
+        // only configuration; every document still gets its own scratch file from streamCache
+        this.memoryUsage = MemoryUsageSetting.setupMixed(properties.getMaxMainMemory().toBytes());
+        if (properties.getTempDir() != null) {
+            memoryUsage.setTempDir(new File(properties.getTempDir()));
+        }
+    }
+
     @Override
     public String extractText(MultipartFile file) {
+        String key;
+        try {
+            key = resultCache.contentKey(file);
+        } catch (IOException e) {
+            log.error("Error while hashing uploaded file", e);
+            throw new RuntimeException("Failed to extract text: " + e.getMessage(), e);
+        }
+        return extractText(file, key);
+    }
+
+    @Override
+    public String extractText(MultipartFile file, String contentKey) {
+        if (contentKey == null) {
+            return extractUncached(file);
+        }
+        String cached = resultCache.getText(contentKey);
+        if (cached != null) {
+            log.info("Returning cached text for uploaded file: {}", file.getOriginalFilename());
+            return cached;
+        }
+        String text = extractUncached(file);
+        resultCache.putText(contentKey, text);
+        return text;
+    }
+
+    @Override
+    public void streamText(MultipartFile file, Predicate<String> pages) {
+        extractUncached(file, pages);
+    }
+
+    private String extractUncached(MultipartFile file) {
+        return extractUncached(file, null);
+    }
+
+    /** Whole text when {@code pages} is null; otherwise the text goes to {@code pages} and null is returned. */
+    private String extractUncached(MultipartFile file, Predicate<String> pages) {
         try {
             // If no file provided or empty -> fallback to classpath sample
             if (file == null || file.isEmpty()) {
                 log.info("No uploaded file provided or file is empty. Falling back to classpath resource: {}", DEFAULT_SAMPLE_PATH);
-                return extractTextFromClasspath(DEFAULT_SAMPLE_PATH);
+                sampleFallbacks.increment();
+                String sample = sampleText();
+                if (pages == null) return sample;
+                pages.test(sample);
+                return null;
             }
 
             String contentType = file.getContentType();
             log.info("Extracting text from uploaded file: {}, contentType={}", file.getOriginalFilename(), contentType);
+            countContentType(contentType);
 
             // If content type indicates PDF -> use PDFBox
             if (contentType != null && contentType.equalsIgnoreCase("application/pdf")) {
-                return extractTextFromPdf(file);
+                return extractTextFromPdf(file, pages);
             }
 
             // For text-like or unknown types, attempt to read as plain text first.
             // If plain-text reading fails or is empty, try PDF as a fallback (some PDFs may be sent with different content-type).
             if (contentType != null && contentType.startsWith("text/")) {
-                return extractTextFromPlainText(file);
+                return extractTextFromPlainText(file, pages);
             }
 
             // Unknown content-type: try PDF first (many clients send application/octet-stream for PDFs)
+            boolean[] fed = {false};
+            Predicate<String> tracked = pages == null ? null : page -> {
+                fed[0] = true;
+                return pages.test(page);
+            };
             try {
-                return extractTextFromPdf(file);
+                return extractTextFromPdf(file, tracked);
             } catch (IOException pdfEx) {
+                // pages already handed out cannot be taken back
+                if (fed[0]) throw pdfEx;
                 log.warn("Failed to parse uploaded file as PDF (trying plain text): {}", pdfEx.getMessage());
+                pdfToTextFallbacks.increment();
                 // fallback to plain text read
-                return extractTextFromPlainText(file);
+                return extractTextFromPlainText(file, pages);
             }
 
         } catch (IOException e) {
@@ -58,25 +178,172 @@ public class DocumentExtractionServiceImpl implements DocumentExtractionService
         }
     }
 
-    private String extractTextFromPdf(MultipartFile file) throws IOException {
-        byte[] pdfBytes = file.getBytes();
-        try (PDDocument document = Loader.loadPDF(pdfBytes)) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            return stripper.getText(document);
+    private String extractTextFromPdf(MultipartFile file, Predicate<String> pages) throws IOException {
+        documentSizes.record(file.getSize());
+        AtomicLong allocated = new AtomicLong();
+        long allocatedBefore = ThreadAllocation.currentThreadAllocatedBytes();
+        boolean streaming = properties.isStreaming();
+        try {
+            return streaming ? extractTextFromSpooledPdf(file, allocated, pages) : extractTextFromPdfBytes(file.getBytes(), allocated, pages);
+        } finally {
+            long allocatedAfter = ThreadAllocation.currentThreadAllocatedBytes();
+            if (allocatedBefore >= 0) {
+                (streaming ? streamingAllocations : inMemoryAllocations)
+                        .record(allocatedAfter - allocatedBefore + allocated.get());
+            }
+        }
+    }
+
+    /**
+     * Spool the upload to disk and let PDFBox read it from there, keeping at most
+     * {@code fnol.extraction.max-main-memory} of decoded streams on the heap per document.
+     */
+    private String extractTextFromSpooledPdf(MultipartFile file, AtomicLong workerAllocations,
+                                             Predicate<String> pages) throws IOException {
+        File tempDir = properties.getTempDir() != null ? new File(properties.getTempDir()) : null;
+        Path spooled = tempDir != null
+                ? Files.createTempFile(tempDir.toPath(), "fnol-", ".pdf")
+                : Files.createTempFile("fnol-", ".pdf");
+        try {
+            // copy rather than transferTo: the upload must stay readable for the plain-text fallback
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+            }
+            // the document owns the source and closes it
+            PdfOpener opener = () -> Loader.loadPDF(properties.isMemoryMapped()
+                    ? new RandomAccessReadMemoryMappedFile(spooled)
+                    : new RandomAccessReadBufferedFile(spooled), memoryUsage.streamCache);
+            try (PDDocument document = opener.open()) {
+                return pages == null ? stripText(document, opener, workerAllocations) : streamPages(document, pages);
+            }
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    private String extractTextFromPdfBytes(byte[] pdfBytes, AtomicLong workerAllocations,
+                                           Predicate<String> pages) throws IOException {
+        PdfOpener opener = () -> Loader.loadPDF(pdfBytes);
+        try (PDDocument document = opener.open()) {
+            return pages == null ? stripText(document, opener, workerAllocations) : streamPages(document, pages);
+        }
+    }
+
+    /**
+     * Small documents are stripped on the calling thread. From
+     * {@code fnol.extraction.parallel-page-threshold} pages on, the document is cut into page
+     * ranges: the caller strips the first range from the document it already has open and
+     * every other range is stripped on the page extraction pool from its own copy of the
+     * document, since a PDDocument must not be shared between threads.
+     */
+    private String stripText(PDDocument document, PdfOpener opener, AtomicLong workerAllocations) throws IOException {
+        int pages = document.getNumberOfPages();
+        int ranges = Math.min(properties.effectiveParallelism(), pages / Math.max(properties.getMinPagesPerRange(), 1));
+        if (pages < properties.getParallelPageThreshold() || ranges < 2) {
+            return stripPages(document, 1, pages);
+        }
+
+        int perRange = (pages + ranges - 1) / ranges;
+        List<Future<String>> rest = new ArrayList<>(ranges - 1);
+        try {
+            for (int start = 1 + perRange; start <= pages; start += perRange) {
+                int first = start;
+                int last = Math.min(start + perRange - 1, pages);
+                rest.add(pageExtractionExecutor.submit(() -> stripRange(opener, first, last, workerAllocations)));
+            }
+            StringBuilder text = new StringBuilder(pages * CHARS_PER_PAGE_HINT);
+            text.append(stripPages(document, 1, perRange));
+            for (Future<String> range : rest) {
+                text.append(range.get());
+            }
+            return text.toString();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting page ranges", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } finally {
+            rest.forEach(range -> range.cancel(true));
+        }
+    }
+
+    private String stripRange(PdfOpener opener, int first, int last, AtomicLong allocations) throws IOException {
+        long before = ThreadAllocation.currentThreadAllocatedBytes();
+        try (PDDocument document = opener.open()) {
+            return stripPages(document, first, last);
+        } finally {
+            if (before >= 0) {
+                allocations.addAndGet(ThreadAllocation.currentThreadAllocatedBytes() - before);
+            }
+        }
+    }
+
+    // one page at a time into a single buffer, so no per-page Strings are created
+    private String stripPages(PDDocument document, int first, int last) throws IOException {
+        StringWriter text = new StringWriter(Math.max(last - first + 1, 1) * CHARS_PER_PAGE_HINT);
+        PDFTextStripper stripper = strippers.borrow();
+        try {
+            for (int page = first; page <= last; page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                stripper.writeText(document, text);
+            }
+        } finally {
+            strippers.release(stripper);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Pages in order on the calling thread, each handed over as soon as it is stripped. No
+     * parallel ranges here: the point is to not strip the pages after the one that was enough.
+     */
+    private String streamPages(PDDocument document, Predicate<String> pages) throws IOException {
+        int count = document.getNumberOfPages();
+        StringWriter page = new StringWriter(CHARS_PER_PAGE_HINT);
+        PDFTextStripper stripper = strippers.borrow();
+        try {
+            for (int p = 1; p <= count; p++) {
+                stripper.setStartPage(p);
+                stripper.setEndPage(p);
+                page.getBuffer().setLength(0);
+                stripper.writeText(document, page);
+                if (!pages.test(page.toString())) {
+                    log.debug("Stopped reading after page {} of {}", p, count);
+                    break;
+                }
+            }
+        } finally {
+            strippers.release(stripper);
         }
+        return null;
     }
 
-    private String extractTextFromPlainText(MultipartFile file) throws IOException {
+    private String extractTextFromPlainText(MultipartFile file, Predicate<String> pages) throws IOException {
         StringBuilder sb = new StringBuilder();
         try (BufferedReader reader = new BufferedReader(
                 new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
 
             String line;
             while ((line = reader.readLine()) != null) {
+                if (pages != null) {
+                    if (!pages.test(line + System.lineSeparator())) break;
+                    continue;
+                }
                 sb.append(line).append(System.lineSeparator());
             }
         }
-        return sb.toString();
+        return pages == null ? sb.toString() : null;
+    }
+
+    private String sampleText() throws IOException {
+        String text = sampleText;
+        if (text == null) {
+            // racing threads may both parse it once; the result is the same
+            text = extractTextFromClasspath(DEFAULT_SAMPLE_PATH);
+            sampleText = text;
+        }
+        return text;
     }
 
     /**
@@ -93,11 +360,7 @@ public class DocumentExtractionServiceImpl implements DocumentExtractionService
         String lower = resourcePath.toLowerCase();
         if (lower.endsWith(".pdf")) {
             // PDFBox 3.x requires byte[]
-            byte[] pdfBytes = resource.getContentAsByteArray();
-            try (PDDocument document = Loader.loadPDF(pdfBytes)) {
-                PDFTextStripper stripper = new PDFTextStripper();
-                return stripper.getText(document);
-            }
+            return extractTextFromPdfBytes(resource.getContentAsByteArray(), new AtomicLong(), null);
         } else {
             // treat as plain text resource
             StringBuilder sb = new StringBuilder();
@@ -111,4 +374,34 @@ public class DocumentExtractionServiceImpl implements DocumentExtractionService
             return sb.toString();
         }
     }
+
+    private void countContentType(String contentType) {
+        String type = contentType == null ? "none" : contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        if (!KNOWN_CONTENT_TYPES.contains(type)) {
+            type = type.startsWith("text/") ? "text/other" : type.equals("none") ? type : "other";
+        }
+        meterRegistry.counter("fnol.extraction.content.type", "type", type).increment();
+    }
+
+    private static Counter fallbackCounter(MeterRegistry meterRegistry, String path) {
+        return Counter.builder("fnol.extraction.fallback")
+                .description("Extractions that took a fallback path")
+                .tag("path", path)
+                .register(meterRegistry);
+    }
+
+    private static DistributionSummary allocationSummary(MeterRegistry meterRegistry, String mode) {
+        // total bytes allocated, garbage included: a measure of GC pressure, not of the peak heap in use
+        return DistributionSummary.builder("fnol.extraction.allocated")
+                .description("Bytes allocated while extracting one PDF, page-range workers included")
+                .baseUnit("bytes")
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    private interface PdfOpener {
+        PDDocument open() throws IOException;
+    }
 }
@@ -3,178 +3,351 @@ package org.aniket.fnolclaimsagent.service.impl;
 import lombok.extern.slf4j.Slf4j;
 import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
 import org.aniket.fnolclaimsagent.service.FieldExtractionService;
+import org.aniket.fnolclaimsagent.service.FieldExtractionSession;
+import org.aniket.fnolclaimsagent.util.KeywordAutomaton;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Field extraction over the raw document text.
+ * <p>
+ * Every rule is compiled once when the class loads. A single pass over the text feeds the
+ * label automaton (ACORD anchors such as "POLICY NUMBER" plus the injury keywords) and
+ * collects "key: value" lines whose key is a known alias; the value regexes only run
+ * afterwards, anchored at the label they belong to, and only for fields the key/value
+ * lines did not already provide.
+ * <p>
+ * The pass keeps its state between calls, so a {@link FieldExtractionSession} can be fed
+ * page by page and report once every field has been located.
+ */
 @Service
 @Slf4j
 public class FieldExtractionServiceImpl implements FieldExtractionService {
+
+    // key:value aliases per field, in priority order (first present alias wins)
+    private static final String[] POLICY_NUMBER_KEYS = {
+            "policy number", "policy_number", "policynumber", "policy", "policy no", "policy#", "policynum"};
+    private static final String[] POLICY_HOLDER_KEYS = {
+            "name of insured", "insured", "insured name", "policyholder", "policy holder",
+            "insured name (first, middle, last)"};
+    private static final String[] LOCATION_KEYS = {"location of loss", "location", "address"};
+    private static final String[] DESCRIPTION_KEYS = {"description of accident", "description", "remarks"};
+    private static final String[] INCIDENT_DATE_KEYS = {"date of loss", "loss date"};
+    private static final String[] ESTIMATE_KEYS = {"estimate amount", "estimate", "estimated damage"};
+    private static final String[] INCIDENT_TIME_KEYS = {"time of loss", "time"};
+    private static final String[] CLAIM_TYPE_KEYS = {"claim type", "claimtype", "type"};
+
+    // labels located by the single scan; value patterns below start with the matching label
+    private static final String[] LABELS = {
+            "policy number", "name of insured", "location of loss", "description of accident",
+            "date of loss", "estimate amount", "injury", "injured"};
+    private static final int POLICY_NUMBER_LABEL = 0;
+    private static final int NAME_OF_INSURED_LABEL = 1;
+    private static final int LOCATION_OF_LOSS_LABEL = 2;
+    private static final int DESCRIPTION_LABEL = 3;
+    private static final int DATE_OF_LOSS_LABEL = 4;
+    private static final int ESTIMATE_AMOUNT_LABEL = 5;
+    private static final int INJURY_LABEL = 6;
+    private static final int INJURED_LABEL = 7;
+
+    private static final Pattern POLICY_NUMBER_PATTERN =
+            Pattern.compile("POLICY NUMBER[:\\s]*([A-Za-z0-9\\-]+)", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final Pattern NAME_OF_INSURED_PATTERN =
+            Pattern.compile("NAME OF INSURED\\s*[:\\-]*\\s*(.+)", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final Pattern LOCATION_OF_LOSS_PATTERN =
+            Pattern.compile("LOCATION OF LOSS[:\\s]*(.+)", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    // description runs from its label up to the first of these section markers
+    private static final Pattern DESCRIPTION_END_PATTERN =
+            Pattern.compile("LOSS|INSURED VEHICLE|Page \\d+ of", Pattern.CASE_INSENSITIVE);
+
     private static final Pattern DATE_OF_LOSS_PATTERN =
             Pattern.compile("DATE OF LOSS[^0-9]*([0-9]{1,2}/[0-9]{1,2}/[0-9]{2,4})", Pattern.CASE_INSENSITIVE);
 
     private static final Pattern ESTIMATE_AMOUNT_PATTERN =
             Pattern.compile("ESTIMATE AMOUNT[:\\s\\$]*([0-9,\\.]+)", Pattern.CASE_INSENSITIVE);
 
-    private static final Pattern VIN_PATTERN =
-            Pattern.compile("V\\.I\\.N\\.?[:\\s]*([A-Za-z0-9-]+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern POLICY_NUMBER_CLEANUP = Pattern.compile("[^A-Za-z0-9\\-]");
+    private static final Pattern AMOUNT_CLEANUP = Pattern.compile("[^0-9.,]");
+    private static final Pattern LINE_BREAKS = Pattern.compile("[\\r\\n]+");
+
+    private static final KeywordAutomaton LABEL_AUTOMATON = KeywordAutomaton.of(LABELS);
+
+    private static final Map<String, Integer> KEY_SLOTS = new HashMap<>();
+    private static final int MAX_KEY_LENGTH;
+
+    private static final int[] POLICY_NUMBER_SLOTS = slots(POLICY_NUMBER_KEYS);
+    private static final int[] POLICY_HOLDER_SLOTS = slots(POLICY_HOLDER_KEYS);
+    private static final int[] LOCATION_SLOTS = slots(LOCATION_KEYS);
+    private static final int[] DESCRIPTION_SLOTS = slots(DESCRIPTION_KEYS);
+    private static final int[] INCIDENT_DATE_SLOTS = slots(INCIDENT_DATE_KEYS);
+    private static final int[] ESTIMATE_SLOTS = slots(ESTIMATE_KEYS);
+    private static final int[] INCIDENT_TIME_SLOTS = slots(INCIDENT_TIME_KEYS);
+    private static final int[] CLAIM_TYPE_SLOTS = slots(CLAIM_TYPE_KEYS);
+
+    static {
+        int max = 0;
+        for (String key : KEY_SLOTS.keySet()) max = Math.max(max, key.length());
+        MAX_KEY_LENGTH = max;
+    }
 
     @Override
     public ExtractedFieldsDTO extractFields(String rawText) {
-        ExtractedFieldsDTO dto = new ExtractedFieldsDTO();
-
         if (rawText == null || rawText.isBlank()) {
             log.warn("Raw text empty for extraction");
-            return dto;
-        }
-
-        // 1) Try parse key:value pairs from text (AcroForm output or synthesized lines)
-        Map<String, String> kv = parseKeyValueLines(rawText);
-
-        // Map common keys/aliases to DTO fields
-        dto.setPolicyNumber(firstNonNull(
-                kv.get("policy number"),
-                kv.get("policy_number"),
-                kv.get("policynumber"),
-                kv.get("policy"),
-                kv.get("policy no"),
-                kv.get("policy#"),
-                kv.get("policynum"),
-                findInText(rawText, "POLICY NUMBER[:\\s]*([A-Za-z0-9\\-]+)")
-        ));
-
-        dto.setPolicyHolderName(firstNonNull(
-                kv.get("name of insured"),
-                kv.get("insured"),
-                kv.get("insured name"),
-                kv.get("policyholder"),
-                kv.get("policy holder"),
-                kv.get("insured name (first, middle, last)"),
-                findInText(rawText, "NAME OF INSURED\\s*[:\\-]*\\s*(.+)")
-        ));
-
-        dto.setLocation(firstNonNull(
-                kv.get("location of loss"),
-                kv.get("location"),
-                kv.get("address"),
-                findInText(rawText, "LOCATION OF LOSS[:\\s]*(.+)")
-        ));
-
-        dto.setDescription(firstNonNull(
-                kv.get("description of accident"),
-                kv.get("description"),
-                kv.get("remarks"),
-                findInText(rawText, "DESCRIPTION OF ACCIDENT(?:.*?)([\\s\\S]*?)(?:LOSS|INSURED VEHICLE|Page \\d+ of)")
-        ));
-
-        dto.setIncidentDate(firstNonNull(
-                kv.get("date of loss"),
-                kv.get("loss date"),
-                findInText(rawText, DATE_OF_LOSS_PATTERN)
-        ));
-
-        dto.setEstimatedDamage(firstNonNull(
-                kv.get("estimated damage amount"),
-                kv.get("estimate amount"),
-                kv.get("estimated amount"),
-                kv.get("estimateddamage"),
-                kv.get("estimate"),
-                findInText(rawText, "(?i)ESTIMATE AMOUNT[:\\s\\$]*([0-9,\\.]+)"),
-                findInText(rawText, "(?i)Estimated Damage Amount[:\\s\\$]*([0-9,\\.]+)")
-        ));
-
-
-
-        dto.setIncidentTime(firstNonNull(
-                kv.get("time of loss"),
-                kv.get("time"),
-                null
-        ));
+            return new ExtractedFieldsDTO();
+        }
+
+        // 1) One pass: known key:value lines (AcroForm output or synthesized lines) + label positions
+        Scan scan = new Scan();
+        scan.advance(rawText);
+        scan.finish(rawText);
+
+        // 2) Map aliases to DTO fields, falling back to the label patterns
+        return toFields(rawText, scan.kv, scan.labelAt);
+    }
+
+    @Override
+    public FieldExtractionSession openSession() {
+        return new Session();
+    }
+
+    private ExtractedFieldsDTO toFields(CharSequence rawText, String[] kv, int[] labelAt) {
+        ExtractedFieldsDTO dto = new ExtractedFieldsDTO();
+
+        String policyNumber = firstValue(kv, POLICY_NUMBER_SLOTS);
+        if (policyNumber == null) {
+            policyNumber = matchAtLabel(rawText, labelAt[POLICY_NUMBER_LABEL], POLICY_NUMBER_PATTERN);
+        }
+        dto.setPolicyNumber(policyNumber);
+
+        String holder = firstValue(kv, POLICY_HOLDER_SLOTS);
+        if (holder == null) {
+            holder = matchAtLabel(rawText, labelAt[NAME_OF_INSURED_LABEL], NAME_OF_INSURED_PATTERN);
+        }
+        dto.setPolicyHolderName(holder);
+
+        String location = firstValue(kv, LOCATION_SLOTS);
+        if (location == null) {
+            location = matchAtLabel(rawText, labelAt[LOCATION_OF_LOSS_LABEL], LOCATION_OF_LOSS_PATTERN);
+        }
+        dto.setLocation(location);
+
+        String description = firstValue(kv, DESCRIPTION_SLOTS);
+        if (description == null) {
+            description = descriptionAtLabel(rawText, labelAt[DESCRIPTION_LABEL]);
+        }
+        dto.setDescription(description);
+
+        String incidentDate = firstValue(kv, INCIDENT_DATE_SLOTS);
+        if (incidentDate == null) {
+            incidentDate = matchAtLabel(rawText, labelAt[DATE_OF_LOSS_LABEL], DATE_OF_LOSS_PATTERN);
+        }
+        dto.setIncidentDate(incidentDate);
+
+        String estimate = firstValue(kv, ESTIMATE_SLOTS);
+        if (estimate == null) {
+            estimate = matchAtLabel(rawText, labelAt[ESTIMATE_AMOUNT_LABEL], ESTIMATE_AMOUNT_PATTERN);
+        }
+        dto.setEstimatedDamage(estimate);
+
+        dto.setIncidentTime(firstValue(kv, INCIDENT_TIME_SLOTS));
 
         // claim type: use direct key or simple keyword detection
-        String ct = firstNonNull(kv.get("claim type"), kv.get("claimtype"), kv.get("type"));
+        String ct = firstValue(kv, CLAIM_TYPE_SLOTS);
         if (ct != null) {
             dto.setClaimType(ct);
+        } else if (labelAt[INJURY_LABEL] >= 0 || labelAt[INJURED_LABEL] >= 0) {
+            dto.setClaimType("INJURY");
         } else {
-            String lower = rawText.toLowerCase();
-            if (lower.contains("injury") || lower.contains("injured")) dto.setClaimType("INJURY");
-            else dto.setClaimType("PROPERTY");
+            dto.setClaimType("PROPERTY");
         }
 
-        // estimated damage: try kv, then pattern
-        String est = firstNonNull(kv.get("estimate amount"), kv.get("estimate"), kv.get("estimated damage"), findInText(rawText, ESTIMATE_AMOUNT_PATTERN));
-        dto.setEstimatedDamage(est);
+        // trim and cleanup
+        cleanDto(dto);
+
+        return dto;
+    }
 
-        // VIN fallback
-        dto.setPolicyHolderName(nullIfEmpty(dto.getPolicyHolderName())); // normalize
+    /**
+     * Scan state that survives between pieces of text: the automaton state, where the
+     * current line started and what has been found so far. Offsets are into the whole text.
+     */
+    private static final class Scan {
+        final String[] kv = new String[KEY_SLOTS.size()];
+        final int[] labelAt = new int[LABELS.length];
+        int state = KeywordAutomaton.ROOT;
+        int lineStart;
+        int scanned;
 
-        // If any values still null, attempt additional regex fallbacks
-        if (dto.getPolicyNumber() == null) {
-            dto.setPolicyNumber(findInText(rawText, "POLICY NUMBER[:\\s]*([A-Za-z0-9\\-]+)"));
+        Scan() {
+            Arrays.fill(labelAt, -1);
         }
 
-        // trim and cleanup
-        cleanDto(dto);
+        // feeds every new char to the label automaton and hands each completed line to readKeyValue
+        void advance(CharSequence text) {
+            int len = text.length();
+            for (int i = scanned; i < len; i++) {
+                char c = text.charAt(i);
+                state = LABEL_AUTOMATON.step(state, c);
+                for (int label : LABEL_AUTOMATON.matches(state)) {
+                    if (labelAt[label] < 0) {
+                        labelAt[label] = i - LABELS[label].length() + 1;
+                    }
+                }
+                if (c == '\n') {
+                    readKeyValue(text, lineStart, i, kv);
+                    lineStart = i + 1;
+                }
+            }
+            scanned = len;
+        }
 
-        return dto;
+        // the last line has no newline after it
+        void finish(CharSequence text) {
+            readKeyValue(text, lineStart, text.length(), kv);
+        }
+
+        boolean located(int[] slots, int label) {
+            return labelAt[label] >= 0 || firstValue(kv, slots) != null;
+        }
     }
 
-    // parse lines like "Field Name: value" from raw text into case-insensitive map
-    private Map<String, String> parseKeyValueLines(String text) {
-        Map<String, String> map = new HashMap<>();
-        String[] lines = text.split("\\r?\\n");
-        for (String line : lines) {
-            if (line == null) continue;
-            String l = line.trim();
-            if (l.length() < 3) continue;
-            int colon = l.indexOf(':');
-            if (colon > 1 && colon < 60) {
-                String key = l.substring(0, colon).trim().toLowerCase();
-                String value = l.substring(colon + 1).trim();
-                if (!value.isEmpty()) {
-                    map.put(key, value);
+    private final class Session implements FieldExtractionSession {
+
+        private final StringBuilder text = new StringBuilder();
+        private final Scan scan = new Scan();
+        private ExtractedFieldsDTO fields;
+
+        @Override
+        public void accept(String piece) {
+            text.append(piece);
+            scan.advance(text);
+            fields = null;
+        }
+
+        @Override
+        public boolean allFieldsLocated() {
+            return scan.located(POLICY_NUMBER_SLOTS, POLICY_NUMBER_LABEL)
+                    && scan.located(POLICY_HOLDER_SLOTS, NAME_OF_INSURED_LABEL)
+                    && scan.located(LOCATION_SLOTS, LOCATION_OF_LOSS_LABEL)
+                    && scan.located(DESCRIPTION_SLOTS, DESCRIPTION_LABEL)
+                    && scan.located(INCIDENT_DATE_SLOTS, DATE_OF_LOSS_LABEL)
+                    && scan.located(ESTIMATE_SLOTS, ESTIMATE_AMOUNT_LABEL);
+        }
+
+        @Override
+        public ExtractedFieldsDTO fields() {
+            if (fields == null) {
+                if (isBlank(text)) {
+                    return fields = new ExtractedFieldsDTO();
                 }
+                // a trailing line without newline may still grow, so read it into a copy
+                String[] kv = scan.kv.clone();
+                readKeyValue(text, scan.lineStart, text.length(), kv);
+                fields = toFields(text, kv, scan.labelAt);
             }
+            return fields;
+        }
+
+        @Override
+        public String text() {
+            return text.toString();
+        }
+    }
+
+    // "Field Name: value" on text[from, to); keeps the value only when the key is a known alias
+    private static void readKeyValue(CharSequence text, int from, int to, String[] kv) {
+        int s = from;
+        int e = to;
+        while (s < e && text.charAt(s) <= ' ') s++;
+        while (e > s && text.charAt(e - 1) <= ' ') e--;
+        if (e - s < 3) return;
+
+        int colon = -1;
+        for (int i = s + 2, limit = Math.min(e, s + 60); i < limit; i++) {
+            if (text.charAt(i) == ':') {
+                colon = i;
+                break;
+            }
+        }
+        // the first colon on the line decides, so bail out if there is an earlier one
+        if (colon < 0 || text.charAt(s + 1) == ':' || text.charAt(s) == ':') return;
+
+        int keyEnd = colon;
+        while (keyEnd > s && text.charAt(keyEnd - 1) <= ' ') keyEnd--;
+        if (keyEnd - s > MAX_KEY_LENGTH) return;
+        Integer slot = KEY_SLOTS.get(text.subSequence(s, keyEnd).toString().toLowerCase(Locale.ROOT));
+        if (slot == null) return;
+
+        int valueStart = colon + 1;
+        while (valueStart < e && text.charAt(valueStart) <= ' ') valueStart++;
+        if (valueStart < e) {
+            kv[slot] = text.subSequence(valueStart, e).toString();
         }
-        return map;
     }
 
-    private String findInText(String text, Pattern p) {
+    // first match of the pattern at or after the label's first occurrence
+    private String matchAtLabel(CharSequence text, int labelStart, Pattern p) {
+        if (labelStart < 0) return null;
         Matcher m = p.matcher(text);
-        if (m.find()) {
-            return m.group(1).trim();
+        m.region(labelStart, text.length());
+        if (!m.lookingAt()) {
+            m.region(labelStart + 1, text.length());
+            if (!m.find()) return null;
         }
-        return null;
+        return nullIfBlank(m.group(1));
     }
 
-    private String findInText(String text, String regex) {
-        Pattern p = Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-        return findInText(text, p);
+    private String descriptionAtLabel(CharSequence text, int labelStart) {
+        if (labelStart < 0) return null;
+        int from = labelStart + LABELS[DESCRIPTION_LABEL].length();
+        Matcher end = DESCRIPTION_END_PATTERN.matcher(text);
+        end.region(from, text.length());
+        if (!end.find()) return null;
+        return nullIfBlank(text.subSequence(from, end.start()).toString());
     }
 
-    private String firstNonNull(String... vals) {
-        if (vals == null) return null;
-        for (String v : vals) {
-            if (v != null && !v.isBlank()) return v.trim();
+    private static String firstValue(String[] kv, int[] slots) {
+        for (int slot : slots) {
+            if (kv[slot] != null) return kv[slot];
         }
         return null;
     }
 
+    private static int[] slots(String[] keys) {
+        int[] slots = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            slots[i] = KEY_SLOTS.computeIfAbsent(keys[i], k -> KEY_SLOTS.size());
+        }
+        return slots;
+    }
+
     private void cleanDto(ExtractedFieldsDTO dto) {
-        if (dto.getPolicyNumber() != null) dto.setPolicyNumber(dto.getPolicyNumber().replaceAll("[^A-Za-z0-9\\-]", "").trim());
-        if (dto.getEstimatedDamage() != null) dto.setEstimatedDamage(dto.getEstimatedDamage().replaceAll("[^0-9.,]", "").trim());
-        if (dto.getLocation() != null) dto.setLocation(dto.getLocation().replaceAll("[\\r\\n]+"," ").trim());
-        if (dto.getDescription() != null) dto.setDescription(dto.getDescription().replaceAll("[\\r\\n]+"," ").trim());
+        if (dto.getPolicyNumber() != null) dto.setPolicyNumber(POLICY_NUMBER_CLEANUP.matcher(dto.getPolicyNumber()).replaceAll("").trim());
+        if (dto.getEstimatedDamage() != null) dto.setEstimatedDamage(AMOUNT_CLEANUP.matcher(dto.getEstimatedDamage()).replaceAll("").trim());
+        if (dto.getLocation() != null) dto.setLocation(LINE_BREAKS.matcher(dto.getLocation()).replaceAll(" ").trim());
+        if (dto.getDescription() != null) dto.setDescription(LINE_BREAKS.matcher(dto.getDescription()).replaceAll(" ").trim());
     }
 
-    private String nullIfEmpty(String s) {
+    private static boolean isBlank(CharSequence s) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            if (!Character.isWhitespace(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private String nullIfBlank(String s) {
         if (s == null) return null;
         String t = s.trim();
         return t.isEmpty() ? null : t;
     }
-
-
 }
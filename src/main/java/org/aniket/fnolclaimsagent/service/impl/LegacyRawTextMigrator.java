@@ -0,0 +1,60 @@
+package org.aniket.fnolclaimsagent.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.service.ClaimDocumentService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-off move of the old {@code claim.raw_text} column into {@code claim_document}. Runs at
+ * startup with {@code fnol.documents.migrate-legacy=true}, in id order and in batches, and
+ * clears {@code raw_text} as it goes, so it can be stopped and restarted. Once it logs that
+ * nothing is left the column can be dropped.
+ */
+@Component
+@ConditionalOnProperty(name = "fnol.documents.migrate-legacy", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class LegacyRawTextMigrator implements ApplicationRunner {
+
+    private static final int BATCH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClaimDocumentService claimDocumentService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long lastId = 0;
+        long moved = 0;
+        try {
+            while (true) {
+                List<Object[]> rows = jdbcTemplate.query(
+                        "select id, raw_text from claim where raw_text is not null and id > ? order by id limit ?",
+                        (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2)}, lastId, BATCH);
+                if (rows.isEmpty()) break;
+
+                List<Object[]> updates = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    updates.add(new Object[]{claimDocumentService.store((String) row[1]), row[0]});
+                }
+                jdbcTemplate.batchUpdate("update claim set document_hash = ?, raw_text = null where id = ?", updates);
+                moved += rows.size();
+                lastId = (Long) rows.get(rows.size() - 1)[0];
+                log.info("Moved raw text of {} claims to claim_document (up to id {})", moved, lastId);
+            }
+        } catch (DataAccessException ex) {
+            // fresh schemas never had the column
+            log.warn("Legacy raw_text migration stopped: {}", ex.getMessage());
+            return;
+        }
+        log.info("Legacy raw_text migration done: {} claims moved, claim.raw_text can be dropped", moved);
+    }
+}
@@ -0,0 +1,102 @@
+package org.aniket.fnolclaimsagent.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.config.WarmupProperties;
+import org.aniket.fnolclaimsagent.dto.ClaimAnalysisResultDTO;
+import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.aniket.fnolclaimsagent.service.DocumentExtractionService;
+import org.aniket.fnolclaimsagent.service.FieldExtractionService;
+import org.aniket.fnolclaimsagent.service.FieldExtractionSession;
+import org.aniket.fnolclaimsagent.service.RoutingService;
+import org.aniket.fnolclaimsagent.service.ValidationService;
+import org.aniket.fnolclaimsagent.util.InMemoryMultipartFile;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the analysis pipeline over the bundled sample documents before the application takes
+ * traffic: runners finish before readiness switches to ACCEPTING_TRAFFIC, so a rolling deploy
+ * only routes requests here once PDFBox fonts, the regex and automaton classes and the JIT
+ * hot paths are loaded. Goes around the result cache and the stage timers; the extraction
+ * counters (content type, bytes allocated per PDF) do include the warmup documents.
+ */
+@Component
+@ConditionalOnProperty(name = "fnol.warmup.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class PipelineWarmup implements ApplicationRunner {
+
+    private final WarmupProperties properties;
+    private final DocumentExtractionService documentExtractionService;
+    private final FieldExtractionService fieldExtractionService;
+    private final ValidationService validationService;
+    private final RoutingService routingService;
+    private final ObjectProvider<JsonMapper> jsonMapper;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<InMemoryMultipartFile> uploads = new ArrayList<>();
+        for (String path : properties.getDocuments()) {
+            try {
+                byte[] pdf = new ClassPathResource(path).getContentAsByteArray();
+                uploads.add(new InMemoryMultipartFile("file", path, "application/pdf", pdf));
+            } catch (IOException e) {
+                log.warn("Warmup document {} not readable: {}", path, e.getMessage());
+            }
+        }
+        long start = System.nanoTime();
+        long deadline = start + properties.getTimeout().toNanos();
+        int passes = 0;
+        try {
+            // an empty upload takes the classpath sample fallback, which caches the sample's text
+            documentExtractionService.extractText(new InMemoryMultipartFile("file", "", "application/pdf", new byte[0]), null);
+            while (passes < properties.getIterations() && System.nanoTime() < deadline) {
+                for (InMemoryMultipartFile upload : uploads) {
+                    analyze(upload);
+                }
+                passes++;
+            }
+        } catch (RuntimeException e) {
+            // a broken sample must not keep the instance from starting
+            log.warn("Warmup stopped after {} passes: {}", passes, e.getMessage());
+            return;
+        }
+        log.info("Warmup done: {} passes over {} documents in {} ms",
+                passes, uploads.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void analyze(InMemoryMultipartFile upload) {
+        String text = documentExtractionService.extractText(upload, null);
+        ExtractedFieldsDTO fields = fieldExtractionService.extractFields(text);
+        List<String> missing = validationService.findMissingFields(fields);
+        ClaimAnalysisResultDTO result = routingService.routeClaim(fields, missing, text);
+
+        // the plain-text upload path and the page-by-page session
+        InMemoryMultipartFile textUpload = new InMemoryMultipartFile("file", "warmup.txt", "text/plain",
+                text.getBytes(StandardCharsets.UTF_8));
+        FieldExtractionSession session = fieldExtractionService.openSession();
+        documentExtractionService.streamText(textUpload, line -> {
+            session.accept(line);
+            return true;
+        });
+        session.fields();
+
+        fields.getEstimatedDamageAmount();
+        fields.getIncidentDateValue();
+        JsonMapper mapper = jsonMapper.getIfAvailable();
+        if (mapper != null) {
+            mapper.writeValueAsString(result);
+        }
+    }
+}
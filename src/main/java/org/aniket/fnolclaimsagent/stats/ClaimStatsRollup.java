@@ -0,0 +1,262 @@
+package org.aniket.fnolclaimsagent.stats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aniket.fnolclaimsagent.config.StatsProperties;
+import org.aniket.fnolclaimsagent.dto.ClaimStatsDTO;
+import org.aniket.fnolclaimsagent.dto.ClaimStatsRowDTO;
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.aniket.fnolclaimsagent.model.StatsDimension;
+import org.aniket.fnolclaimsagent.repository.ClaimStatsRepository;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Claim counts and estimated-damage sums per route, claim type, incident day and created day,
+ * kept in {@code claim_stats} so the dashboard reads a few hundred rollup rows instead of
+ * aggregating the claim table.
+ * <p>
+ * {@link #record} adds saved claims to their buckets in the transaction that inserts them, so
+ * the rollup commits or rolls back with the claims on every node. The rows a save updates are
+ * on one randomly picked stripe and taken in sorted order, so concurrent saves spread over
+ * the stripes and do not deadlock each other. {@link #reconcile} compares the rollup with the
+ * claim table from one consistent snapshot and adds the difference, which covers claims saved
+ * before the rollup existed and anything written to the table past it.
+ */
+@Component
+@Slf4j
+public class ClaimStatsRollup {
+
+    private static final String UPSERT = """
+            insert into claim_stats (dimension, bucket, stripe, claims, estimated_damage) values (?, ?, ?, ?, ?) as new
+            on duplicate key update claims = claim_stats.claims + new.claims,
+                                    estimated_damage = claim_stats.estimated_damage + new.estimated_damage""";
+
+    private static final String CLAIM_TOTALS = """
+            select 'ROUTE' dimension, coalesce(recommended_route, '') bucket,
+                   count(*) claims, coalesce(sum(estimated_damage), 0) damage
+            from claim group by bucket
+            union all
+            select 'CLAIM_TYPE', coalesce(claim_type, '') bucket, count(*), coalesce(sum(estimated_damage), 0)
+            from claim group by bucket
+            union all
+            select 'INCIDENT_DATE', coalesce(date_format(incident_date, '%Y-%m-%d'), '') bucket,
+                   count(*), coalesce(sum(estimated_damage), 0)
+            from claim group by bucket
+            union all
+            select 'CREATED_DATE', coalesce(date_format(created_at, '%Y-%m-%d'), '') bucket,
+                   count(*), coalesce(sum(estimated_damage), 0)
+            from claim group by bucket
+            union all
+            select 'TOTAL', '', count(*), coalesce(sum(estimated_damage), 0) from claim""";
+
+    private static final String ROLLUP_TOTALS = """
+            select dimension, bucket, sum(claims), sum(estimated_damage)
+            from claim_stats group by dimension, bucket""";
+
+    private static final String RECONCILE_LOCK = "fnol_claim_stats_reconcile";
+
+    private final StatsProperties properties;
+    private final ClaimStatsRepository statsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshot;
+    private final Timer reconcileTimer;
+    private final Counter drift;
+
+    public ClaimStatsRollup(StatsProperties properties,
+                            ClaimStatsRepository statsRepository,
+                            JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.statsRepository = statsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // both totals must come from the same snapshot
+        this.snapshot = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.reconcileTimer = Timer.builder("fnol.stats.reconcile")
+                .description("Time to check the claim statistics rollup against the claim table")
+                .register(meterRegistry);
+        this.drift = Counter.builder("fnol.stats.drift")
+                .description("Claims the reconciliation found counted wrongly in the rollup, per bucket")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /** Adds the claims to their buckets. Call it in the transaction that inserts them. */
+    public void record(Collection<Claim> claims) {
+        if (!properties.isEnabled() || claims.isEmpty()) return;
+        int stripe = ThreadLocalRandom.current().nextInt(Math.max(1, properties.getStripes()));
+        jdbcTemplate.batchUpdate(UPSERT, rows(buckets(claims), stripe));
+    }
+
+    /** Totals from the rollup alone; the day series only between {@code from} and {@code to} when given. */
+    public ClaimStatsDTO totals(LocalDate from, LocalDate to) {
+        List<ClaimStatsRowDTO> rows = statsRepository.findTotals(
+                from == null ? "" : from.toString(), to == null ? "9999-12-31" : to.toString());
+        Map<StatsDimension, List<ClaimStatsDTO.Bucket>> series = new EnumMap<>(StatsDimension.class);
+        long claims = 0;
+        BigDecimal damage = BigDecimal.ZERO;
+        for (ClaimStatsRowDTO row : rows) {
+            if (row.getDimension() == StatsDimension.TOTAL) {
+                claims = row.getClaims();
+                damage = row.getEstimatedDamage();
+                continue;
+            }
+            series.computeIfAbsent(row.getDimension(), d -> new ArrayList<>()).add(new ClaimStatsDTO.Bucket(
+                    row.getBucket().isEmpty() ? null : row.getBucket(), row.getClaims(), row.getEstimatedDamage()));
+        }
+        return new ClaimStatsDTO(claims, damage,
+                series.getOrDefault(StatsDimension.ROUTE, List.of()),
+                series.getOrDefault(StatsDimension.CLAIM_TYPE, List.of()),
+                series.getOrDefault(StatsDimension.INCIDENT_DATE, List.of()),
+                series.getOrDefault(StatsDimension.CREATED_DATE, List.of()));
+    }
+
+    @Scheduled(initialDelayString = "${fnol.stats.reconcile-initial-delay:1m}",
+            fixedDelayString = "${fnol.stats.reconcile-interval:1h}")
+    public void reconcile() {
+        if (!properties.isEnabled()) return;
+        try {
+            // a named lock on a connection of its own, held until the correction has committed,
+            // so a second node never corrects from a snapshot that misses the first one's
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                if (!namedLock(connection, "select get_lock(?, 0)")) {
+                    log.debug("Claim statistics are being reconciled by another node");
+                    return null;
+                }
+                try {
+                    reconcileTimer.record(this::correct);
+                } finally {
+                    namedLock(connection, "select release_lock(?)");
+                }
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Could not reconcile the claim statistics: {}", ex.toString());
+        }
+    }
+
+    private void correct() {
+        List<Object[]> corrections = snapshot.execute(status -> {
+            SortedMap<Bucket, Sum> actual = sums(CLAIM_TOTALS);
+            SortedMap<Bucket, Sum> rolledUp = sums(ROLLUP_TOTALS);
+            List<Object[]> rows = corrections(actual, rolledUp);
+            jdbcTemplate.batchUpdate(UPSERT, rows);
+            return rows;
+        });
+        long claims = 0;
+        for (Object[] row : corrections) {
+            claims += Math.abs((long) row[3]);
+        }
+        drift.increment(claims);
+        if (!corrections.isEmpty()) {
+            log.info("Claim statistics: corrected {} bucket(s), {} claim(s) off", corrections.size(), claims);
+        }
+    }
+
+    private SortedMap<Bucket, Sum> sums(String sql) {
+        SortedMap<Bucket, Sum> sums = new TreeMap<>();
+        jdbcTemplate.query(sql, (ResultSet rs) -> {
+            sums.merge(new Bucket(StatsDimension.valueOf(rs.getString(1)), rs.getString(2)),
+                    new Sum(rs.getLong(3), rs.getBigDecimal(4)), Sum::plus);
+        });
+        return sums;
+    }
+
+    // the difference, as rows to add to stripe 0
+    static List<Object[]> corrections(SortedMap<Bucket, Sum> actual, SortedMap<Bucket, Sum> rolledUp) {
+        SortedMap<Bucket, Sum> diff = new TreeMap<>();
+        actual.forEach((bucket, sum) -> diff.merge(bucket, sum, Sum::plus));
+        rolledUp.forEach((bucket, sum) -> diff.merge(bucket, sum.negate(), Sum::plus));
+        diff.values().removeIf(Sum::isZero);
+        return rows(diff, 0);
+    }
+
+    // sorted, so every transaction takes the row locks in the same order
+    static SortedMap<Bucket, Sum> buckets(Collection<Claim> claims) {
+        SortedMap<Bucket, Sum> buckets = new TreeMap<>();
+        for (Claim claim : claims) {
+            Sum one = new Sum(1, claim.getEstimatedDamage() == null ? BigDecimal.ZERO : claim.getEstimatedDamage());
+            buckets.merge(new Bucket(StatsDimension.ROUTE, claim.getRecommendedRoute()), one, Sum::plus);
+            buckets.merge(new Bucket(StatsDimension.CLAIM_TYPE, claim.getClaimType()), one, Sum::plus);
+            buckets.merge(new Bucket(StatsDimension.INCIDENT_DATE, claim.getIncidentDate()), one, Sum::plus);
+            buckets.merge(new Bucket(StatsDimension.CREATED_DATE,
+                    claim.getCreatedAt() == null ? null : claim.getCreatedAt().toLocalDate()), one, Sum::plus);
+            buckets.merge(new Bucket(StatsDimension.TOTAL, ""), one, Sum::plus);
+        }
+        return buckets;
+    }
+
+    private static List<Object[]> rows(SortedMap<Bucket, Sum> sums, int stripe) {
+        List<Object[]> rows = new ArrayList<>(sums.size());
+        sums.forEach((bucket, sum) -> rows.add(
+                new Object[]{bucket.dimension().name(), bucket.key(), stripe, sum.claims(), sum.damage()}));
+        return rows;
+    }
+
+    private static boolean namedLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, RECONCILE_LOCK);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    record Bucket(StatsDimension dimension, String key) implements Comparable<Bucket> {
+
+        Bucket {
+            if (key == null) key = "";
+        }
+
+        Bucket(StatsDimension dimension, LocalDate value) {
+            this(dimension, value == null ? "" : value.toString());
+        }
+
+        @Override
+        public int compareTo(Bucket other) {
+            int c = dimension.compareTo(other.dimension);
+            return c != 0 ? c : key.compareTo(other.key);
+        }
+    }
+
+    record Sum(long claims, BigDecimal damage) {
+
+        Sum plus(Sum other) {
+            return new Sum(claims + other.claims, damage.add(other.damage));
+        }
+
+        Sum negate() {
+            return new Sum(-claims, damage.negate());
+        }
+
+        boolean isZero() {
+            return claims == 0 && damage.signum() == 0;
+        }
+    }
+}
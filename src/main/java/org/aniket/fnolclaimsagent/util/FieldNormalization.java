@@ -0,0 +1,110 @@
+package org.aniket.fnolclaimsagent.util;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Parses the free-text estimate and incident date pulled out of a claim document. Both are
+ * single-pass scanners that allocate nothing but the result and never throw, so a document
+ * full of junk values costs no more than a clean one.
+ */
+public final class FieldNormalization {
+
+    /** Digits that still fit a long unscaled value; longer amounts take the slow path. */
+    private static final int MAX_FAST_DIGITS = 18;
+
+    private FieldNormalization() {
+    }
+
+    /**
+     * Amount with every character other than digits and '.' ignored, e.g. {@code "$ 12,400.50"}
+     * is 12400.50. Null when there are no digits or more than one decimal point.
+     */
+    public static BigDecimal parseAmount(String s) {
+        if (s == null) return null;
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean point = false;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits == 0 && c == '0' && !point) continue; // leading zeros change nothing
+                if (++digits > MAX_FAST_DIGITS) return parseLongAmount(s);
+                unscaled = unscaled * 10 + (c - '0');
+                if (point) scale++;
+            } else if (c == '.') {
+                if (point) return null;
+                point = true;
+            }
+        }
+        if (digits == 0 && !hasDigit(s)) return null;
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    /**
+     * Incident date in one of the formats claims arrive with: {@code M/d/yyyy}, falling back to
+     * {@code d/M/yyyy} when the first number cannot be a month, or {@code yyyy-MM-dd}. A day past
+     * the end of the month is clamped to its last day. Null when nothing matches.
+     */
+    public static LocalDate parseIncidentDate(String s) {
+        if (s == null) return null;
+        int n = s.length();
+        if (n == 10 && s.charAt(4) == '-' && s.charAt(7) == '-') {
+            int year = digits(s, 0, 4);
+            int month = digits(s, 5, 7);
+            int day = digits(s, 8, 10);
+            return date(year, month, day);
+        }
+        int slash1 = s.indexOf('/');
+        int slash2 = slash1 < 0 ? -1 : s.indexOf('/', slash1 + 1);
+        if (slash2 < 0 || n - slash2 - 1 != 4) return null;
+        int first = digits(s, 0, slash1);
+        int second = digits(s, slash1 + 1, slash2);
+        int year = digits(s, slash2 + 1, n);
+        LocalDate monthFirst = date(year, first, second);
+        return monthFirst != null ? monthFirst : date(year, second, first);
+    }
+
+    private static LocalDate date(int year, int month, int day) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) return null;
+        return LocalDate.of(year, month, Math.min(day, YearMonth.of(year, month).lengthOfMonth()));
+    }
+
+    /** Value of an all-digit range, capped at 100000 so long runs of digits cannot overflow; -1 otherwise. */
+    private static int digits(String s, int from, int to) {
+        if (from >= to) return -1;
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = Math.min(value * 10 + (c - '0'), 100_000);
+        }
+        return value;
+    }
+
+    private static boolean hasDigit(String s) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') return true;
+        }
+        return false;
+    }
+
+    private static BigDecimal parseLongAmount(String s) {
+        StringBuilder cleaned = new StringBuilder(s.length());
+        boolean point = false;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                if (point) return null;
+                point = true;
+                cleaned.append(c);
+            } else if (c >= '0' && c <= '9') {
+                cleaned.append(c);
+            }
+        }
+        return new BigDecimal(cleaned.toString());
+    }
+}
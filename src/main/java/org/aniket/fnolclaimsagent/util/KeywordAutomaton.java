@@ -0,0 +1,171 @@
+package org.aniket.fnolclaimsagent.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Aho-Corasick automaton over a fixed set of ASCII keywords, matched case-insensitively
+ * (ASCII folding only, the same as {@link java.util.regex.Pattern#CASE_INSENSITIVE}).
+ * <p>
+ * The automaton is built once and is immutable, so one instance can be shared by all
+ * request threads. Callers either use {@link #scan} or drive it one char at a time with
+ * {@link #step} when they need to interleave other work in the same pass over the text.
+ */
+public final class KeywordAutomaton {
+
+    /** State every scan starts from. */
+    public static final int ROOT = 0;
+
+    private static final int ALPHABET = 128;
+    private static final int[] NO_MATCHES = new int[0];
+
+    private final String[] keywords;
+    private final int[] transitions;
+    private final int[][] outputs;
+
+    private KeywordAutomaton(String[] keywords, int[] transitions, int[][] outputs) {
+        this.keywords = keywords;
+        this.transitions = transitions;
+        this.outputs = outputs;
+    }
+
+    public static KeywordAutomaton of(String... keywords) {
+        return of(Arrays.asList(keywords));
+    }
+
+    public static KeywordAutomaton of(Collection<String> keywords) {
+        String[] words = new String[keywords.size()];
+        int i = 0;
+        for (String k : keywords) {
+            if (k == null || k.isEmpty()) {
+                throw new IllegalArgumentException("Keywords must not be empty");
+            }
+            for (int c = 0; c < k.length(); c++) {
+                if (k.charAt(c) >= ALPHABET) {
+                    throw new IllegalArgumentException("Keyword is not ASCII: " + k);
+                }
+            }
+            words[i++] = k.toLowerCase(Locale.ROOT);
+        }
+        return build(words);
+    }
+
+    private static KeywordAutomaton build(String[] words) {
+        // 1) trie
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> out = new ArrayList<>();
+        trie.add(newRow());
+        out.add(new ArrayList<>());
+        for (int w = 0; w < words.length; w++) {
+            int state = ROOT;
+            for (int c = 0; c < words[w].length(); c++) {
+                int ch = words[w].charAt(c);
+                if (trie.get(state)[ch] < 0) {
+                    trie.get(state)[ch] = trie.size();
+                    trie.add(newRow());
+                    out.add(new ArrayList<>());
+                }
+                state = trie.get(state)[ch];
+            }
+            out.get(state).add(w);
+        }
+
+        // 2) failure links, BFS; turns the trie into a complete DFA
+        int n = trie.size();
+        int[] fail = new int[n];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int[] root = trie.get(ROOT);
+        for (int ch = 0; ch < ALPHABET; ch++) {
+            if (root[ch] < 0) {
+                root[ch] = ROOT;
+            } else {
+                fail[root[ch]] = ROOT;
+                queue.add(root[ch]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            out.get(s).addAll(out.get(fail[s]));
+            int[] row = trie.get(s);
+            for (int ch = 0; ch < ALPHABET; ch++) {
+                int next = row[ch];
+                if (next < 0) {
+                    row[ch] = trie.get(fail[s])[ch];
+                } else {
+                    fail[next] = trie.get(fail[s])[ch];
+                    queue.add(next);
+                }
+            }
+        }
+
+        int[] transitions = new int[n * ALPHABET];
+        int[][] outputs = new int[n][];
+        for (int s = 0; s < n; s++) {
+            System.arraycopy(trie.get(s), 0, transitions, s * ALPHABET, ALPHABET);
+            List<Integer> o = out.get(s);
+            outputs[s] = o.isEmpty() ? NO_MATCHES : o.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return new KeywordAutomaton(words, transitions, outputs);
+    }
+
+    private static int[] newRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    public int size() {
+        return keywords.length;
+    }
+
+    /** Lower-cased keyword for the given index. */
+    public String keyword(int index) {
+        return keywords[index];
+    }
+
+    /** Advance from {@code state} by one char. Non-ASCII chars never take part in a match. */
+    public int step(int state, char c) {
+        if (c >= ALPHABET) return ROOT;
+        if (c >= 'A' && c <= 'Z') c = (char) (c + ('a' - 'A'));
+        return transitions[state * ALPHABET + c];
+    }
+
+    /** Indexes of the keywords that end at {@code state}; never null, must not be modified. */
+    public int[] matches(int state) {
+        return outputs[state];
+    }
+
+    /**
+     * Scan the whole text once. The listener gets the keyword index and the start offset of
+     * every occurrence, in order of end offset; returning {@code false} stops the scan.
+     */
+    public void scan(CharSequence text, MatchListener listener) {
+        int state = ROOT;
+        for (int i = 0, len = text.length(); i < len; i++) {
+            state = step(state, text.charAt(i));
+            int[] m = outputs[state];
+            for (int k : m) {
+                if (!listener.onMatch(k, i - keywords[k].length() + 1)) return;
+            }
+        }
+    }
+
+    /** True when at least one keyword occurs in the text. */
+    public boolean containsAny(CharSequence text) {
+        int state = ROOT;
+        for (int i = 0, len = text.length(); i < len; i++) {
+            state = step(state, text.charAt(i));
+            if (outputs[state].length > 0) return true;
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    public interface MatchListener {
+        boolean onMatch(int keywordIndex, int start);
+    }
+}
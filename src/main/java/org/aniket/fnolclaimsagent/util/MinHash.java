@@ -0,0 +1,133 @@
+package org.aniket.fnolclaimsagent.util;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signature of a claim, for estimating how similar two claims are without
+ * comparing their text. The feature set is the description's word pairs, the location's
+ * words, the policy number and the incident date. Policy number and date count
+ * {@link #ATTRIBUTE_WEIGHT} times each, so two reports of the same loss still come out
+ * close when they describe it in different words.
+ * <p>
+ * Each of the {@link #SIZE} positions keeps the minimum of a multiply-shift hash over all
+ * features; the fraction of equal positions estimates the Jaccard similarity of the two
+ * feature sets. Hash parameters come from a fixed seed, so signatures stay comparable
+ * across restarts and snapshots.
+ */
+public final class MinHash {
+
+    public static final int SIZE = 64;
+    static final int ATTRIBUTE_WEIGHT = 4;
+
+    private static final long[] MULTIPLIERS = new long[SIZE];
+    private static final long[] ADDENDS = new long[SIZE];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5eed_c1a1_3L);
+        for (int i = 0; i < SIZE; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1;
+            ADDENDS[i] = random.nextLong();
+        }
+    }
+
+    private MinHash() {
+    }
+
+    /** Signature of the claim's features; null when it has none at all. */
+    public static int[] signature(String description, String location, String policyNumber, LocalDate incidentDate) {
+        int[] signature = new int[SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        boolean any = wordPairs(signature, description, 0x0d);
+        any |= words(signature, location, 0x10);
+        long policy = policyHash(policyNumber);
+        if (policy != 0) {
+            for (int w = 0; w < ATTRIBUTE_WEIGHT; w++) add(signature, mix(policy + w));
+            any = true;
+        }
+        if (incidentDate != null) {
+            long h = mix(incidentDate.toEpochDay() ^ 0xda7e_0000_0000L);
+            for (int w = 0; w < ATTRIBUTE_WEIGHT; w++) add(signature, mix(h + w));
+            any = true;
+        }
+        return any ? signature : null;
+    }
+
+    /** Estimated Jaccard similarity, 0..1. */
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (a[i] == b[i]) equal++;
+        }
+        return (double) equal / SIZE;
+    }
+
+    /** Hash of a policy number as the signature sees it (trimmed, case-insensitive); 0 for none. */
+    public static long policyHash(String policyNumber) {
+        if (policyNumber == null || policyNumber.isBlank()) return 0;
+        String p = policyNumber.trim();
+        return hash(p, 0, p.length(), 0x50);
+    }
+
+    private static boolean wordPairs(int[] signature, String text, long salt) {
+        if (text == null) return false;
+        long previous = 0;
+        int count = 0;
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(text.charAt(i))) i++;
+            int start = i;
+            while (i < n && Character.isLetterOrDigit(text.charAt(i))) i++;
+            if (start == i) break;
+            long word = hash(text, start, i, salt);
+            if (count > 0) add(signature, mix(previous * 31 + word));
+            previous = word;
+            count++;
+        }
+        // a one-word description still says something
+        if (count == 1) add(signature, mix(previous));
+        return count > 0;
+    }
+
+    private static boolean words(int[] signature, String text, long salt) {
+        if (text == null) return false;
+        boolean any = false;
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(text.charAt(i))) i++;
+            int start = i;
+            while (i < n && Character.isLetterOrDigit(text.charAt(i))) i++;
+            if (start == i) break;
+            add(signature, mix(hash(text, start, i, salt)));
+            any = true;
+        }
+        return any;
+    }
+
+    private static void add(int[] signature, long feature) {
+        for (int i = 0; i < SIZE; i++) {
+            int h = (int) ((MULTIPLIERS[i] * feature + ADDENDS[i]) >>> 32);
+            if (h < signature[i]) signature[i] = h;
+        }
+    }
+
+    // FNV-1a over the chars, case-folded; no substring or lower-case copy
+    private static long hash(String s, int from, int to, long salt) {
+        long h = 0xcbf29ce484222325L ^ salt;
+        for (int i = from; i < to; i++) {
+            char c = Character.toLowerCase(s.charAt(i));
+            h = (h ^ c) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
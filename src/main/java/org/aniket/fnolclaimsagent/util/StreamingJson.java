@@ -0,0 +1,44 @@
+package org.aniket.fnolclaimsagent.util;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes an object as JSON with one large text property streamed in from UTF-8 bytes, so
+ * the text never exists as a {@code String} or in a serialization buffer. Meant for the
+ * raw text of a claim, which can run to megabytes while the other fields are small.
+ */
+public final class StreamingJson {
+
+    private StreamingJson() {
+    }
+
+    /**
+     * Same properties as {@code mapper} writes for {@code value}, except that {@code name}
+     * comes last and holds the text read from {@code utf8}. Neither stream is closed.
+     */
+    public static void writeWithText(JsonMapper mapper, Object value, String name, InputStream utf8, OutputStream out) {
+        ObjectNode fields = mapper.valueToTree(value);
+        fields.remove(name);
+        try (JsonGenerator gen = mapper.writer().without(StreamWriteFeature.AUTO_CLOSE_TARGET).createGenerator(out)) {
+            gen.writeStartObject();
+            for (Map.Entry<String, JsonNode> field : fields.properties()) {
+                gen.writeName(field.getKey());
+                gen.writeTree(field.getValue());
+            }
+            gen.writeName(name);
+            // -1: read to the end; characters are escaped and written as they are decoded
+            gen.writeString(new InputStreamReader(utf8, StandardCharsets.UTF_8), -1);
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.aniket.fnolclaimsagent.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reuses {@link PDFTextStripper} instances across documents. A stripper is only used by one
+ * thread at a time and is reset on release, so it does not keep the last document, its
+ * writer, its text positions or its font dictionaries reachable while it sits in the pool.
+ * <p>
+ * PDFBox has no public reset for the per-font height map a stripper fills, so it is cleared
+ * reflectively; if a PDFBox upgrade removes the field, released strippers are simply dropped
+ * and every borrow creates a new one.
+ */
+@Slf4j
+public final class TextStripperPool {
+
+    private static final Field FONT_HEIGHTS = fontHeightField();
+
+    private final ConcurrentLinkedQueue<PooledStripper> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final int maxIdle;
+    private final boolean suppressDuplicateOverlappingText;
+    private final Counter created;
+    private final Counter reused;
+
+    /** {@code maxIdle} of 0 disables pooling. */
+    public TextStripperPool(int maxIdle, boolean suppressDuplicateOverlappingText, MeterRegistry meterRegistry) {
+        this.maxIdle = FONT_HEIGHTS != null ? maxIdle : 0;
+        this.suppressDuplicateOverlappingText = suppressDuplicateOverlappingText;
+        this.created = stripperCounter(meterRegistry, "created");
+        this.reused = stripperCounter(meterRegistry, "reused");
+        meterRegistry.gauge("fnol.extraction.stripper.idle", idleCount);
+    }
+
+    public PDFTextStripper borrow() throws IOException {
+        PooledStripper stripper = idle.poll();
+        if (stripper != null) {
+            idleCount.decrementAndGet();
+            reused.increment();
+            return stripper;
+        }
+        created.increment();
+        stripper = new PooledStripper();
+        stripper.setSuppressDuplicateOverlappingText(suppressDuplicateOverlappingText);
+        return stripper;
+    }
+
+    public void release(PDFTextStripper stripper) {
+        if (!(stripper instanceof PooledStripper pooled) || !pooled.reset()) return;
+        if (idleCount.incrementAndGet() > maxIdle) {
+            idleCount.decrementAndGet();
+            return;
+        }
+        idle.offer(pooled);
+    }
+
+    public static boolean canReset() {
+        return FONT_HEIGHTS != null;
+    }
+
+    private static Counter stripperCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("fnol.extraction.stripper")
+                .description("Text strippers handed out, by whether they came from the pool")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Field fontHeightField() {
+        try {
+            Field field = PDFTextStripper.class.getSuperclass().getDeclaredField("fontHeightMap");
+            field.setAccessible(true);
+            return Map.class.isAssignableFrom(field.getType()) ? field : null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("PDFTextStripper cannot be reset between documents, pooling disabled: {}", e.toString());
+            return null;
+        }
+    }
+
+    private static final class PooledStripper extends PDFTextStripper {
+
+        boolean reset() {
+            document = null;
+            output = null;
+            if (charactersByArticle != null) {
+                charactersByArticle.clear();
+            }
+            try {
+                ((Map<?, ?>) FONT_HEIGHTS.get(this)).clear();
+                return true;
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return false;
+            }
+        }
+    }
+}
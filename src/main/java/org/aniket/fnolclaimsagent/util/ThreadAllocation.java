@@ -0,0 +1,30 @@
+package org.aniket.fnolclaimsagent.util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Per-thread allocation counter from the HotSpot {@code ThreadMXBean}. Returns -1 on JVMs
+ * that do not support it and on virtual threads, so callers can skip recording.
+ */
+public final class ThreadAllocation {
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private ThreadAllocation() {
+    }
+
+    public static long currentThreadAllocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            if (!bean.isThreadAllocatedMemoryEnabled()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return bean;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,82 @@
+package org.aniket.fnolclaimsagent.util;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads the file entries of a ZIP stream one at a time, only when the caller asks for the
+ * next one, so a batch archive is never unpacked as a whole. Directories and macOS
+ * resource forks are skipped.
+ */
+public class ZipEntryIterator implements Iterator<MultipartFile>, AutoCloseable {
+
+    private final ZipInputStream zip;
+    private final long maxEntryBytes;
+    private MultipartFile next;
+
+    public ZipEntryIterator(InputStream archive, long maxEntryBytes) {
+        this.zip = new ZipInputStream(archive);
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public MultipartFile next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        MultipartFile current = next;
+        next = null;
+        return current;
+    }
+
+    @Override
+    public void close() throws IOException {
+        zip.close();
+    }
+
+    private MultipartFile readNext() {
+        try {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (entry.isDirectory() || name.startsWith("__MACOSX/")) continue;
+                byte[] content = readEntry(name);
+                String fileName = name.substring(name.lastIndexOf('/') + 1);
+                return new InMemoryMultipartFile("file", fileName, InMemoryMultipartFile.contentTypeFor(fileName), content);
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // copies at most maxEntryBytes; declared sizes in the archive are not trusted
+    private byte[] readEntry(String name) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int n;
+        while ((n = zip.read(buffer)) > 0) {
+            total += n;
+            if (total > maxEntryBytes) {
+                throw new IOException("Archive entry " + name + " exceeds " + maxEntryBytes + " bytes");
+            }
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,192 @@
+package org.aniket.fnolclaimsagent.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aniket.fnolclaimsagent.config.AdmissionProperties;
+import org.aniket.fnolclaimsagent.model.ClaimRoute;
+import org.aniket.fnolclaimsagent.routing.RoutingRuleSet;
+import org.aniket.fnolclaimsagent.service.DocumentExtractionService;
+import org.aniket.fnolclaimsagent.util.InMemoryMultipartFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class AnalysisAdmissionTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService waiters = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        waiters.shutdownNow();
+    }
+
+    @Test
+    void waitingPriorityClaimsGoFirst() throws Exception {
+        AnalysisAdmission admission = admission(properties(1, 100));
+        AnalysisAdmission.Permit running = admission.tryAdmit(10);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        Future<?> bulk = waitFor(admission, admission.priorityOf(ClaimRoute.FAST_TRACK), "bulk", order);
+        awaitQueued(1);
+        Future<?> investigation = waitFor(admission, admission.priorityOf(ClaimRoute.INVESTIGATION), "investigation", order);
+        awaitQueued(2);
+        Future<?> injury = waitFor(admission, admission.priorityOf(ClaimRoute.SPECIALIST_QUEUE), "injury", order);
+        awaitQueued(3);
+        running.close();
+        bulk.get();
+        investigation.get();
+        injury.get();
+
+        assertThat(order).containsExactly("injury", "investigation", "bulk");
+        assertThat(registry.get("fnol.admission.wait").tag("priority", "specialist_queue").timer().count()).isEqualTo(1);
+        assertThat(registry.get("fnol.admission.active").gauge().value()).isZero();
+    }
+
+    @Test
+    void inFlightBytesAreBoundedButLargeUploadsStillRunAlone() {
+        AnalysisAdmission admission = admission(properties(4, 100));
+
+        AnalysisAdmission.Permit first = admission.tryAdmit(80);
+        assertThat(admission.tryAdmit(30)).isNull();
+        AnalysisAdmission.Permit small = admission.tryAdmit(20);
+        assertThat(small).isNotNull();
+        first.close();
+        small.close();
+        small.close();
+
+        AnalysisAdmission.Permit alone = admission.tryAdmit(100);
+        assertThat(alone).isNotNull();
+        assertThat(admission.tryAdmit(1)).isNull();
+        alone.close();
+        assertThat(registry.get("fnol.admission.active.bytes").gauge().value()).isZero();
+    }
+
+    @Test
+    void turnsAwayWhenTheQueueIsFullOrTheWaitRunsOut() {
+        AdmissionProperties properties = properties(1, 100);
+        properties.setMaxQueued(0);
+        AnalysisAdmission admission = admission(properties);
+        admission.tryAdmit(10);
+
+        assertThatThrownBy(() -> admission.acquire(0, 10))
+                .isInstanceOfSatisfying(AdmissionRejectedException.class,
+                        ex -> assertThat(ex.getRetryAfterSeconds()).isEqualTo(5));
+
+        properties.setMaxQueued(10);
+        properties.setMaxWait(Duration.ofMillis(50));
+        assertThatThrownBy(() -> admission.acquire(0, 10)).isInstanceOf(AdmissionRejectedException.class);
+        assertThat(registry.get("fnol.admission.rejected").tag("reason", "timeout").counter().count()).isEqualTo(1);
+        assertThat(registry.get("fnol.admission.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    void preRouteUsesTheKeywordAndClaimTypeRules() throws Exception {
+        RoutingRuleSet rules = RoutingRuleSet.load(new ClassPathResource("routing-rules.yml"));
+
+        assertThat(rules.preRoute("Claim Type: BODILY INJURY\nDescription: rear-ended")).isEqualTo(ClaimRoute.SPECIALIST_QUEUE);
+        assertThat(rules.preRoute("Remarks: damage looks staged, injury claimed")).isEqualTo(ClaimRoute.INVESTIGATION);
+        // amount and missing-field rules need extracted fields, so they cannot decide here
+        assertThat(rules.preRoute("Estimate Amount: 1200\nDescription: hail on the roof")).isNull();
+    }
+
+    @Test
+    void preRouteReadsOnlyTheFirstPagesOfAScannedPdf() throws Exception {
+        DocumentExtractionService extraction = mock(DocumentExtractionService.class);
+        AtomicInteger pagesRead = new AtomicInteger();
+        // a scanned PDF: many pages, no text on any of them
+        doAnswer(call -> {
+            Predicate<String> pages = call.getArgument(1);
+            while (pagesRead.get() < 500) {
+                pagesRead.incrementAndGet();
+                if (!pages.test("")) break;
+            }
+            return null;
+        }).when(extraction).streamText(any(), any());
+        AnalysisAdmission admission = admission(properties(1, 100), extraction);
+
+        assertThat(admission.preRoute(upload("%PDF-1.7 scanned"))).isNull();
+        assertThat(pagesRead).hasValue(3);
+
+        // plain text is handed over a line at a time, so the page cap does not apply
+        pagesRead.set(0);
+        admission.preRoute(upload("Claim Type: AUTO"));
+        assertThat(pagesRead).hasValue(500);
+    }
+
+    @Test
+    void preRouteStreamsTheTextUntilARuleCanDecide() throws Exception {
+        DocumentExtractionService extraction = mock(DocumentExtractionService.class);
+        doAnswer(call -> {
+            Predicate<String> pages = call.getArgument(1);
+            if (pages.test("Claim Type: BODILY INJURY")) pages.test("Description: rear-ended");
+            return null;
+        }).when(extraction).streamText(any(), any());
+
+        assertThat(admission(properties(1, 100), extraction).preRoute(upload("%PDF-1.7")))
+                .isEqualTo(ClaimRoute.SPECIALIST_QUEUE);
+    }
+
+    @Test
+    void waitingRequestsAreNotReadWhileThePreRouteSlotsAreBusy() throws Exception {
+        DocumentExtractionService extraction = mock(DocumentExtractionService.class);
+        AdmissionProperties properties = properties(1, 100);
+        properties.setPreClassifyConcurrent(0);
+
+        assertThat(admission(properties, extraction).preRoute(upload("%PDF-1.7"))).isNull();
+        verifyNoInteractions(extraction);
+    }
+
+    private Future<?> waitFor(AnalysisAdmission admission, int priority, String name, List<String> order) {
+        return waiters.submit(() -> {
+            try (AnalysisAdmission.Permit permit = admission.acquire(priority, 10)) {
+                order.add(name);
+            }
+        });
+    }
+
+    private void awaitQueued(int depth) throws InterruptedException {
+        while (registry.get("fnol.admission.queue.depth").gauge().value() < depth) {
+            Thread.sleep(5);
+        }
+    }
+
+    private AnalysisAdmission admission(AdmissionProperties properties) {
+        return new AnalysisAdmission(properties, null, null, registry);
+    }
+
+    private AnalysisAdmission admission(AdmissionProperties properties, DocumentExtractionService extraction)
+            throws Exception {
+        RoutingRuleSet rules = RoutingRuleSet.load(new ClassPathResource("routing-rules.yml"));
+        return new AnalysisAdmission(properties, extraction, () -> rules, registry);
+    }
+
+    private static InMemoryMultipartFile upload(String content) {
+        return new InMemoryMultipartFile("file", "fnol", "application/octet-stream",
+                content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static AdmissionProperties properties(int maxConcurrent, long maxBytes) {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setMaxConcurrent(maxConcurrent);
+        properties.setMaxInFlightSize(DataSize.ofBytes(maxBytes));
+        return properties;
+    }
+}
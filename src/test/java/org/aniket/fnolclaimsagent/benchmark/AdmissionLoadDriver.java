@@ -0,0 +1,163 @@
+package org.aniket.fnolclaimsagent.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aniket.fnolclaimsagent.admission.AdmissionRejectedException;
+import org.aniket.fnolclaimsagent.admission.AnalysisAdmission;
+import org.aniket.fnolclaimsagent.cache.ExtractionResultCache;
+import org.aniket.fnolclaimsagent.config.AdmissionProperties;
+import org.aniket.fnolclaimsagent.config.ExtractionProperties;
+import org.aniket.fnolclaimsagent.config.ResultCacheProperties;
+import org.aniket.fnolclaimsagent.model.ClaimRoute;
+import org.aniket.fnolclaimsagent.routing.RoutingRuleSet;
+import org.aniket.fnolclaimsagent.service.impl.DocumentExtractionServiceImpl;
+import org.aniket.fnolclaimsagent.util.InMemoryMultipartFile;
+import org.springframework.core.io.ClassPathResource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Overload test of the analyze admission in-process: {@code --bulk} clients keep submitting a
+ * large routine claim packet while one client sends a short injury claim every
+ * {@code --interval-ms}. Each request goes through {@link AnalysisAdmission#admit} (with the
+ * real pre-classification) and then a full text extraction. Runs three modes: no admission
+ * (every request competes for the CPU), admission in arrival order, and admission with
+ * priority routes. Prints the injury claims' latency and the bulk throughput of each.
+ * <pre>
+ * mvn -Pload-test verify -Dload.main=org.aniket.fnolclaimsagent.benchmark.AdmissionLoadDriver \
+ *     -Dload.args="--bulk=16 --seconds=30"
+ * </pre>
+ */
+public final class AdmissionLoadDriver {
+
+    public static void main(String[] args) throws Exception {
+        FnolFixtures.quietLogging();
+        int bulkClients = 16;
+        int seconds = 30;
+        int intervalMs = 250;
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            switch (kv[0]) {
+                case "bulk" -> bulkClients = Integer.parseInt(kv[1]);
+                case "seconds" -> seconds = Integer.parseInt(kv[1]);
+                case "interval-ms" -> intervalMs = Integer.parseInt(kv[1]);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        RoutingRuleSet rules = RoutingRuleSet.load(new ClassPathResource("routing-rules.yml"));
+        byte[] bulk = pdf(rules, 30, 60, null);
+        byte[] injury = pdf(rules, 1, 10, ClaimRoute.SPECIALIST_QUEUE);
+        System.out.printf("bulk packet %,d bytes, injury claim %,d bytes, %d bulk clients, %d CPU%n",
+                bulk.length, injury.length, bulkClients, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-22s %12s %12s %12s %14s %10s%n",
+                "mode", "injury p50", "injury p99", "injury max", "bulk docs/s", "429s");
+
+        run("no admission", null, rules, bulk, injury, bulkClients, seconds, intervalMs);
+        run("arrival order", List.of(), rules, bulk, injury, bulkClients, seconds, intervalMs);
+        run("priority routes", List.of(ClaimRoute.SPECIALIST_QUEUE, ClaimRoute.INVESTIGATION),
+                rules, bulk, injury, bulkClients, seconds, intervalMs);
+    }
+
+    private static void run(String mode, List<ClaimRoute> priorityRoutes, RoutingRuleSet rules, byte[] bulk,
+                            byte[] injury, int bulkClients, int seconds, int intervalMs) throws Exception {
+        ExtractionProperties extraction = new ExtractionProperties();
+        ExecutorService pages = Executors.newFixedThreadPool(extraction.effectiveParallelism());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ResultCacheProperties noCache = new ResultCacheProperties();
+        noCache.setEnabled(false);
+        DocumentExtractionServiceImpl extractor = new DocumentExtractionServiceImpl(
+                extraction, pages, new ExtractionResultCache(noCache, registry), registry);
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setEnabled(priorityRoutes != null);
+        properties.setPriorityRoutes(priorityRoutes != null ? priorityRoutes : List.of());
+        properties.setMaxWait(Duration.ofSeconds(20));
+        AnalysisAdmission admission = new AnalysisAdmission(properties, extractor, () -> rules, registry);
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger bulkDone = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Long> injuryNanos = new ArrayList<>();
+        // platform threads: CPU-bound virtual threads would never yield the one carrier of a 1-CPU host
+        try (ExecutorService clients = Executors.newCachedThreadPool()) {
+            for (int c = 0; c < bulkClients; c++) {
+                clients.submit(() -> {
+                    while (!stop.get()) {
+                        if (analyze(admission, extractor, bulk, rejected)) bulkDone.incrementAndGet();
+                    }
+                });
+            }
+            // let the bulk clients fill the queue first
+            Thread.sleep(2_000);
+            int bulkBefore = bulkDone.get();
+            long t0 = System.nanoTime();
+            clients.submit(() -> {
+                List<Thread> inFlight = new ArrayList<>();
+                while (System.nanoTime() - t0 < seconds * 1_000_000_000L) {
+                    inFlight.add(Thread.ofPlatform().start(() -> {
+                        long start = System.nanoTime();
+                        if (analyze(admission, extractor, injury, rejected)) {
+                            synchronized (injuryNanos) {
+                                injuryNanos.add(System.nanoTime() - start);
+                            }
+                        }
+                    }));
+                    try {
+                        Thread.sleep(intervalMs);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                for (Thread t : inFlight) {
+                    try {
+                        t.join();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                stop.set(true);
+            });
+            while (!stop.get()) {
+                Thread.sleep(100);
+            }
+            double elapsed = (System.nanoTime() - t0) / 1e9;
+            long[] sorted = injuryNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%-22s %10.0f ms %10.0f ms %10.0f ms %14.1f %10d%n", mode,
+                    percentile(sorted, 0.5), percentile(sorted, 0.99), percentile(sorted, 1.0),
+                    (bulkDone.get() - bulkBefore) / elapsed, rejected.get());
+        } finally {
+            pages.shutdownNow();
+        }
+    }
+
+    private static boolean analyze(AnalysisAdmission admission, DocumentExtractionServiceImpl extractor,
+                                   byte[] pdf, AtomicInteger rejected) {
+        InMemoryMultipartFile file = new InMemoryMultipartFile("file", "claim.pdf", "application/pdf", pdf);
+        try (AnalysisAdmission.Permit permit = admission.admit(file)) {
+            extractor.extractText(file);
+            return true;
+        } catch (AdmissionRejectedException ex) {
+            rejected.incrementAndGet();
+            return false;
+        }
+    }
+
+    // first fixture packet in [from, to] pages whose first page pre-routes to the given route (null: to none)
+    private static byte[] pdf(RoutingRuleSet rules, int from, int to, ClaimRoute route) {
+        for (int pages = from; pages <= to; pages++) {
+            if (rules.preRoute(FnolFixtures.claimText(pages)) == route) {
+                return FnolFixtures.claimPdf(pages);
+            }
+        }
+        throw new IllegalStateException("No fixture between " + from + " and " + to + " pages pre-routes to " + route);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return Double.NaN;
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1e6;
+    }
+}
@@ -0,0 +1,83 @@
+package org.aniket.fnolclaimsagent.benchmark;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result against the committed baseline and exits non-zero when a
+ * score or the allocation per operation got worse by more than the threshold (default 10%).
+ * <pre>
+ * mvn -Pbenchmark verify -Dbenchmark="DocumentExtractionBenchmark|ClaimPipelineBenchmark"
+ * mvn -Pload-test verify -Dload.main=org.aniket.fnolclaimsagent.benchmark.BenchmarkComparison \
+ *     -Dload.args="benchmarks/baseline.json target/jmh-result.json 10"
+ * </pre>
+ * Scores are only comparable between runs on the same machine and JDK; refresh the baseline
+ * when either changes.
+ */
+public final class BenchmarkComparison {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: BenchmarkComparison <baseline.json> <result.json> [threshold %]");
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> current = load(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %8s %12s %12s %8s%n",
+                "benchmark", "baseline", "current", "score", "B/op base", "B/op now", "alloc");
+        for (Map.Entry<String, JsonNode> e : current.entrySet()) {
+            JsonNode base = baseline.get(e.getKey());
+            if (base == null) {
+                System.out.printf("%-70s %14s%n", e.getKey(), "(new)");
+                continue;
+            }
+            JsonNode now = e.getValue();
+            double baseScore = base.path("primaryMetric").path("score").asDouble();
+            double nowScore = now.path("primaryMetric").path("score").asDouble();
+            // throughput: higher is better; every other mode reports time, lower is better
+            boolean higherIsBetter = "thrpt".equals(now.path("mode").asString());
+            double scoreChange = percent(baseScore, nowScore) * (higherIsBetter ? -1 : 1);
+
+            double baseAlloc = allocation(base);
+            double nowAlloc = allocation(now);
+            double allocChange = baseAlloc > 0 && nowAlloc >= 0 ? percent(baseAlloc, nowAlloc) : 0;
+
+            boolean regressed = scoreChange > threshold || allocChange > threshold;
+            if (regressed) regressions++;
+            System.out.printf("%-70s %14.3f %14.3f %+7.1f%% %12.0f %12.0f %+7.1f%%%s%n",
+                    e.getKey(), baseScore, nowScore, percent(baseScore, nowScore), baseAlloc, nowAlloc, allocChange,
+                    regressed ? "  << REGRESSION" : "");
+        }
+        System.out.printf("%d regression(s) beyond %.0f%%%n", regressions, threshold);
+        if (regressions > 0) System.exit(1);
+    }
+
+    private static Map<String, JsonNode> load(File file) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode run : JsonMapper.builder().build().readTree(file)) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asString()
+                    .replace("org.aniket.fnolclaimsagent.benchmark.", ""));
+            run.path("params").properties().forEach(p -> key.append(' ').append(p.getKey()).append('=').append(p.getValue().asString()));
+            byKey.put(key.toString(), run);
+        }
+        return byKey;
+    }
+
+    /** Bytes allocated per operation from the GC profiler, -1 when the run had no profiler. */
+    private static double allocation(JsonNode run) {
+        JsonNode metric = run.path("secondaryMetrics").path(ALLOC_NORM);
+        return metric.isMissingNode() ? -1 : metric.path("score").asDouble();
+    }
+
+    private static double percent(double base, double now) {
+        return base == 0 ? 0 : (now - base) / base * 100;
+    }
+}
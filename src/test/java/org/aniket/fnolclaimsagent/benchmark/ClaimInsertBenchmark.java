@@ -0,0 +1,84 @@
+package org.aniket.fnolclaimsagent.benchmark;
+
+import org.aniket.fnolclaimsagent.FnolClaimsAgentApplication;
+import org.aniket.fnolclaimsagent.dto.ClaimAnalysisResultDTO;
+import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.aniket.fnolclaimsagent.service.ClaimService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Claim inserts per second through {@link ClaimService} against a real MySQL: batch size 1
+ * goes through {@code saveFromAnalysis} (one transaction per claim), larger sizes through
+ * {@code saveAllFromAnalyses}. Options other than {@code --claims} / {@code --sizes} are
+ * passed to Spring, so point it at a scratch database:
+ * <pre>
+ * mvn -Pload-test verify -Dload.main=org.aniket.fnolclaimsagent.benchmark.ClaimInsertBenchmark \
+ *     -Dload.args="--claims=20000 --sizes=1,50,500 --spring.datasource.url=jdbc:mysql://localhost:3306/fnol_bench?rewriteBatchedStatements=true"
+ * </pre>
+ */
+public final class ClaimInsertBenchmark {
+
+    public static void main(String[] args) {
+        int claims = 20_000;
+        String sizes = "1,50,500";
+        List<String> springArgs = new ArrayList<>(List.of("--spring.jpa.show-sql=false", "--logging.level.root=WARN"));
+        for (String arg : args) {
+            if (arg.startsWith("--claims=")) claims = Integer.parseInt(arg.substring("--claims=".length()));
+            else if (arg.startsWith("--sizes=")) sizes = arg.substring("--sizes=".length());
+            else springArgs.add(arg);
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FnolClaimsAgentApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(springArgs.toArray(String[]::new))) {
+            ClaimService claimService = context.getBean(ClaimService.class);
+
+            // warm up JIT, connection pool and the id sequence
+            claimService.saveAllFromAnalyses(analyses(0, 1000));
+
+            System.out.printf("%-12s %12s %14s%n", "batch size", "claims", "inserts/s");
+            for (String s : sizes.split(",")) {
+                int batch = Integer.parseInt(s.trim());
+                int total = claims - claims % batch;
+                long t0 = System.nanoTime();
+                for (int offset = 0; offset < total; offset += batch) {
+                    if (batch == 1) {
+                        claimService.saveFromAnalysis(analyses(offset, 1).get(0));
+                    } else {
+                        claimService.saveAllFromAnalyses(analyses(offset, batch));
+                    }
+                }
+                double seconds = (System.nanoTime() - t0) / 1e9;
+                System.out.printf("%-12d %12d %14.0f%n", batch, total, total / seconds);
+            }
+        }
+    }
+
+    private static List<ClaimAnalysisResultDTO> analyses(int offset, int count) {
+        List<ClaimAnalysisResultDTO> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int n = offset + i;
+            ExtractedFieldsDTO fields = new ExtractedFieldsDTO();
+            fields.setPolicyNumber("AXA-" + (100000 + n));
+            fields.setPolicyHolderName("Insured " + n);
+            fields.setIncidentDate("02/09/2025");
+            fields.setLocation(n + " Lakeview Road, Springfield");
+            fields.setDescription("Vehicle " + n + " was struck while stopped at a signal.");
+            fields.setClaimType(n % 3 == 0 ? "PROPERTY" : "AUTO");
+            fields.setEstimatedDamage(String.valueOf(500 + n % 40000));
+
+            ClaimAnalysisResultDTO analysis = new ClaimAnalysisResultDTO();
+            analysis.setExtractedFields(fields);
+            analysis.setRecommendedRoute(n % 5 == 0 ? "MANUAL_REVIEW" : "FAST_TRACK");
+            analysis.setReasoning("All mandatory fields present");
+            analysis.setRawText(FnolFixtures.acordText(n % 64) + "Claim reference: " + n + "\n");
+            list.add(analysis);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,99 @@
+package org.aniket.fnolclaimsagent.benchmark;
+
+import org.aniket.fnolclaimsagent.journal.ClaimJournal;
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A journaled save: one claim with 4 KB of text appended to {@link ClaimJournal} and forced
+ * to disk before the call returns, from 1 and from 8 saving threads. Time per save under 8
+ * threads well below 8 times the single-thread time is the group commit at work: saves
+ * that arrive during an fsync share the next one.
+ * <pre>mvn -Pbenchmark verify -Dbenchmark=ClaimJournalBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClaimJournalBenchmark {
+
+    private Path dir;
+    private ClaimJournal journal;
+    private List<byte[]> payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("claim-journal-bench");
+        journal = new ClaimJournal(dir, 64L << 20);
+        Claim claim = Claim.builder()
+                .id(1_000_001L)
+                .policyNumber("POL-123456")
+                .policyHolderName("Jane Miller")
+                .incidentDate(LocalDate.of(2025, 3, 14))
+                .location("12 Lakeview Road, Springfield")
+                .description("Insured vehicle was rear-ended at a signal, rear bumper and trunk lid damaged")
+                .claimType("auto")
+                .estimatedDamage(new BigDecimal("4250.00"))
+                .recommendedRoute("FAST_TRACK")
+                .reasoning("Estimated damage below the fast-track limit")
+                .documentHash("0".repeat(64))
+                .rawText(FnolFixtures.claimText(2).repeat(4).substring(0, 4096))
+                .createdAt(LocalDateTime.of(2025, 3, 15, 9, 30))
+                .build();
+        payload = List.of(JsonMapper.builder().build().writeValueAsBytes(claim));
+    }
+
+    // stands in for the flusher so the journal does not grow without bound
+    @TearDown(Level.Iteration)
+    public void drain() throws IOException {
+        List<ClaimJournal.Record> records;
+        while (!(records = journal.read(10_000)).isEmpty()) {
+            journal.commit(records.getLast().next());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long[] append1Thread() throws IOException {
+        return journal.append(payload);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long[] append8Threads() throws IOException {
+        return journal.append(payload);
+    }
+}
@@ -0,0 +1,94 @@
+package org.aniket.fnolclaimsagent.benchmark;
+
+import org.aniket.fnolclaimsagent.dto.ClaimAnalysisResultDTO;
+import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.aniket.fnolclaimsagent.routing.RoutingRuleSet;
+import org.aniket.fnolclaimsagent.service.impl.FieldExtractionServiceImpl;
+import org.aniket.fnolclaimsagent.service.impl.RoutingServiceImpl;
+import org.aniket.fnolclaimsagent.service.impl.ValidationServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The text-only steps after extraction, each over a corpus of generated ACORD first pages
+ * so no single document's branch pattern gets learned: field extraction (also on a full
+ * 20-page packet), validation and routing.
+ * <pre>mvn -Pbenchmark verify -Dbenchmark=ClaimPipelineBenchmark</pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClaimPipelineBenchmark {
+
+    private static final int CORPUS = 256;
+
+    private final FieldExtractionServiceImpl fieldExtraction = new FieldExtractionServiceImpl();
+    private final ValidationServiceImpl validation = new ValidationServiceImpl();
+    private RoutingServiceImpl routing;
+
+    private String[] texts;
+    private ExtractedFieldsDTO[] fields;
+    private List<String>[] missing;
+    private String packet;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        FnolFixtures.quietLogging();
+        RoutingRuleSet rules = RoutingRuleSet.load(new ClassPathResource("routing-rules.yml"));
+        routing = new RoutingServiceImpl(() -> rules);
+        texts = new String[CORPUS];
+        fields = new ExtractedFieldsDTO[CORPUS];
+        missing = new List[CORPUS];
+        for (int i = 0; i < CORPUS; i++) {
+            texts[i] = FnolFixtures.acordText(i);
+            fields[i] = fieldExtraction.extractFields(texts[i]);
+            // the ACORD fixture has no claim type; give half of them one so routing also reaches the amount rules
+            if (i % 2 == 0) fields[i].setClaimType("AUTO");
+            missing[i] = validation.findMissingFields(fields[i]);
+        }
+        packet = FnolFixtures.claimText(20);
+    }
+
+    private int nextIndex() {
+        return next = (next + 1) & (CORPUS - 1);
+    }
+
+    @Benchmark
+    public ExtractedFieldsDTO extractFields() {
+        return fieldExtraction.extractFields(texts[nextIndex()]);
+    }
+
+    @Benchmark
+    public ExtractedFieldsDTO extractFieldsPacket() {
+        return fieldExtraction.extractFields(packet);
+    }
+
+    @Benchmark
+    public List<String> findMissingFields() {
+        return validation.findMissingFields(fields[nextIndex()]);
+    }
+
+    @Benchmark
+    public ClaimAnalysisResultDTO routeClaim() {
+        int i = nextIndex();
+        return routing.routeClaim(fields[i], missing[i], texts[i]);
+    }
+}
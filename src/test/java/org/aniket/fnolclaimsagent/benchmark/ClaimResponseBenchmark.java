@@ -0,0 +1,91 @@
+package org.aniket.fnolclaimsagent.benchmark;
+
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.aniket.fnolclaimsagent.util.StreamingJson;
+import org.aniket.fnolclaimsagent.util.TextCompression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing {@code GET /api/claims/{id}} for a claim with {@code textKb} of stored raw text:
+ * inflating it into a {@code String} and serializing the claim as before, against streaming
+ * it from the compressed bytes into the JSON. {@code gc.alloc.rate.norm} is the heap each
+ * response costs; the output goes nowhere, so this is serialization only.
+ * <pre>mvn -Pbenchmark verify -Dbenchmark=ClaimResponseBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClaimResponseBenchmark {
+
+    private static final String[] LINES = {"Policy Number: POL-%d", "Name of Insured: Jane Miller",
+            "Location of Loss: %d Lakeview Road, Springfield", "Description of Accident: rear-ended at a signal",
+            "Estimate Amount: %d.00", "Page %d of 20", "Vehicle: 2019 Honda Civic, VIN 1HGCV1F3%dKA", "Remarks: none"};
+
+    @Param({"64", "2048"})
+    int textKb;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private byte[] compressed;
+    private int originalBytes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(5);
+        StringBuilder text = new StringBuilder(textKb * 1024);
+        while (text.length() < textKb * 1024) {
+            text.append(LINES[random.nextInt(LINES.length)].formatted(random.nextInt(100_000))).append('\n');
+        }
+        byte[] utf8 = text.toString().getBytes(StandardCharsets.UTF_8);
+        compressed = TextCompression.deflate(utf8);
+        originalBytes = utf8.length;
+    }
+
+    @Benchmark
+    public Claim inlineString() {
+        Claim claim = claim();
+        claim.setRawText(TextCompression.inflate(compressed, originalBytes));
+        mapper.writeValue(OutputStream.nullOutputStream(), claim);
+        return claim;
+    }
+
+    @Benchmark
+    public Claim streamedFromStorage() throws IOException {
+        Claim claim = claim();
+        try (InputStream utf8 = TextCompression.inflating(compressed)) {
+            StreamingJson.writeWithText(mapper, claim, "rawText", utf8, OutputStream.nullOutputStream());
+        }
+        return claim;
+    }
+
+    private static Claim claim() {
+        return Claim.builder().id(812L).policyNumber("POL-812").policyHolderName("Jane Miller")
+                .incidentDate(LocalDate.of(2025, 3, 14)).location("12 Lakeview Road, Springfield")
+                .description("Insured vehicle was rear-ended at a signal").claimType("AUTO")
+                .estimatedDamage(new BigDecimal("4250.00")).recommendedRoute("FAST_TRACK")
+                .reasoning("All mandatory fields present and damage below threshold").documentHash("ab".repeat(32))
+                .build();
+    }
+}
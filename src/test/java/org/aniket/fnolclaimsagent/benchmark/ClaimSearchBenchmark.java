@@ -0,0 +1,191 @@
+package org.aniket.fnolclaimsagent.benchmark;
+
+import org.aniket.fnolclaimsagent.config.SearchProperties;
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.aniket.fnolclaimsagent.search.ClaimSearchIndex;
+import org.aniket.fnolclaimsagent.search.ClaimSearchQuery;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Search latency of {@link ClaimSearchIndex} over a synthetic claim set. Indexes
+ * {@code claims} claims into a scratch directory (or reuses one from an earlier run with
+ * {@code --dir}), then times random queries of each kind and prints p50 / p99 / max. This is
+ * the index lookup only; the search endpoint adds one primary-key read of at most
+ * {@code limit} rows. The queries then run a second time while another thread indexes
+ * {@code writes-per-second} new claims and the reader is refreshed every
+ * {@code fnol.search.refresh-interval}, as under steady ingestion.
+ * <pre>
+ * mvn -Pload-test verify -Dload.main=org.aniket.fnolclaimsagent.benchmark.ClaimSearchBenchmark \
+ *     -Dload.args="1000000 2000 /tmp/claim-index 500"
+ * </pre>
+ */
+public final class ClaimSearchBenchmark {
+
+    private static final String[] FIRST = {"Jane", "Raj", "Maria", "Wei", "Ahmed", "Olivia", "Lucas", "Priya", "Tom", "Ana"};
+    private static final String[] LAST = {"Miller", "Patel", "Garcia", "Chen", "Khan", "Smith", "Okafor", "Rossi", "Novak", "Silva"};
+    private static final String[] STREETS = {"Lakeview Road", "Elm Street", "Harbor Drive", "Main Street", "Oak Avenue",
+            "Maple Lane", "Cedar Court", "Pine Street", "River Road", "Hill Crest"};
+    private static final String[] CITIES = {"Springfield", "Riverton", "Fairview", "Kingston", "Salem", "Franklin",
+            "Clinton", "Georgetown", "Madison", "Ashland", "Dayton", "Milton"};
+    private static final String[] EVENTS = {"rear-ended at a signal", "hail damaged the roof", "hit a deer on the highway",
+            "side-swiped while parked", "windshield cracked by gravel", "basement flooded after storm",
+            "kitchen fire spread to cabinets", "tree fell on the garage", "vehicle stolen from driveway",
+            "collision in parking lot"};
+    private static final String[] ROUTES = {"FAST_TRACK", "MANUAL_REVIEW", "SPECIALIST_QUEUE", "INVESTIGATION_FLAG"};
+    private static final int LIMIT = 20;
+
+    public static void main(String[] args) throws IOException {
+        FnolFixtures.quietLogging();
+        int claims = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        Path dir = args.length > 2 ? Path.of(args[2]) : Files.createTempDirectory("claim-index");
+        int writesPerSecond = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+        SearchProperties properties = new SearchProperties();
+        properties.setIndexDir(dir.toString());
+
+        try (ClaimSearchIndex index = new ClaimSearchIndex(properties)) {
+            if (index.committedClaimId() < claims) {
+                long t0 = System.nanoTime();
+                List<Claim> batch = new ArrayList<>(1000);
+                for (int id = (int) index.committedClaimId() + 1; id <= claims; id++) {
+                    batch.add(claim(id));
+                    if (batch.size() == 1000) {
+                        index.indexAll(batch);
+                        batch.clear();
+                    }
+                }
+                index.indexAll(batch);
+                index.commit();
+                System.out.printf("indexed %,d claims in %.1f s into %s%n", claims, (System.nanoTime() - t0) / 1e9, dir);
+            }
+
+            // searches do not refresh the reader themselves
+            index.refreshBlocking();
+            runAll(index, claims, queries, "read only");
+
+            // steady ingestion: new claims above the indexed ones, refreshed the way the application does
+            AtomicBoolean writing = new AtomicBoolean(true);
+            AtomicInteger written = new AtomicInteger();
+            Thread writer = Thread.ofPlatform().name("benchmark-writer").start(() -> {
+                int id = (int) Math.max(index.committedClaimId(), claims);
+                long perTick = Math.max(1, writesPerSecond / 50);
+                while (writing.get()) {
+                    try {
+                        for (int i = 0; i < perTick; i++) {
+                            index.index(claim(++id));
+                        }
+                        written.addAndGet((int) perTick);
+                        Thread.sleep(20);
+                    } catch (IOException | InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            Thread refresher = Thread.ofPlatform().name("benchmark-refresh").start(() -> {
+                while (writing.get()) {
+                    try {
+                        index.refresh();
+                        Thread.sleep(properties.getRefreshInterval());
+                    } catch (IOException | InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            long t0 = System.nanoTime();
+            try {
+                runAll(index, claims, queries, "while indexing " + writesPerSecond + " claims/s");
+            } finally {
+                writing.set(false);
+                joinQuietly(writer);
+                joinQuietly(refresher);
+            }
+            System.out.printf("indexed %,d claims meanwhile (%.0f/s)%n", written.get(),
+                    written.get() / ((System.nanoTime() - t0) / 1e9));
+        }
+    }
+
+    private static void runAll(ClaimSearchIndex index, int claims, int queries, String title) throws IOException {
+        Random random = new Random(11);
+        System.out.printf("%n%s%n%-32s %10s %10s %10s %12s%n", title, "query", "p50 ms", "p99 ms", "max ms", "avg hits");
+        run(index, "policy number", queries, i ->
+                new ClaimSearchQuery(null, "POL-" + (1 + random.nextInt(claims)), null, null, null, null, null));
+        run(index, "holder name", queries, i ->
+                new ClaimSearchQuery(null, null, pick(random, FIRST) + " " + pick(random, LAST), null, null, null, null));
+        run(index, "location", queries, i ->
+                new ClaimSearchQuery(null, null, null, pick(random, STREETS) + " " + pick(random, CITIES), null, null, null));
+        run(index, "text, 1 word", queries, i -> ClaimSearchQuery.text(pick(random, CITIES)));
+        run(index, "text, 3 words", queries, i -> ClaimSearchQuery.text(pick(random, EVENTS).split(" ", 2)[1]));
+        run(index, "text + route + date range", queries, i -> {
+            LocalDate from = LocalDate.of(2024, 1, 1).plusDays(random.nextInt(330));
+            return new ClaimSearchQuery(pick(random, EVENTS).split(" ")[0], null, null, null,
+                    pick(random, ROUTES), from, from.plusDays(30));
+        });
+        run(index, "route + date range, newest", queries, i -> {
+            LocalDate from = LocalDate.of(2024, 1, 1).plusDays(random.nextInt(330));
+            return new ClaimSearchQuery(null, null, null, null, pick(random, ROUTES), from, from.plusDays(30));
+        });
+    }
+
+    private static void joinQuietly(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void run(ClaimSearchIndex index, String name, int queries, IntFunction<ClaimSearchQuery> next)
+            throws IOException {
+        // warm the JIT and the page cache for this query shape first
+        for (int i = 0; i < queries / 4; i++) {
+            index.search(next.apply(i), LIMIT);
+        }
+        long[] nanos = new long[queries];
+        long hits = 0;
+        for (int i = 0; i < queries; i++) {
+            ClaimSearchQuery query = next.apply(i);
+            long t0 = System.nanoTime();
+            hits += index.search(query, LIMIT).total();
+            nanos[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-32s %10.2f %10.2f %10.2f %12.0f%n", name,
+                nanos[queries / 2] / 1e6, nanos[(int) (queries * 0.99)] / 1e6, nanos[queries - 1] / 1e6,
+                (double) hits / queries);
+    }
+
+    private static Claim claim(int id) {
+        Random random = new Random(id);
+        String name = pick(random, FIRST) + " " + pick(random, LAST);
+        String location = (1 + random.nextInt(999)) + " " + pick(random, STREETS) + ", " + pick(random, CITIES);
+        String description = "Insured vehicle " + pick(random, EVENTS) + " near " + pick(random, CITIES);
+        return Claim.builder()
+                .id((long) id)
+                .policyNumber("POL-" + id)
+                .policyHolderName(name)
+                .location(location)
+                .description(description)
+                .recommendedRoute(pick(random, ROUTES))
+                .incidentDate(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(366)))
+                .rawText("ACORD automobile loss notice. Policy Number: POL-" + id + ". Name of insured: " + name
+                        + ". Location of loss: " + location + ". Description of accident: " + description
+                        + ". Estimate amount: " + (500 + random.nextInt(40_000)) + ". Claimant reported "
+                        + pick(random, EVENTS) + " and " + pick(random, EVENTS) + ".")
+                .build();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
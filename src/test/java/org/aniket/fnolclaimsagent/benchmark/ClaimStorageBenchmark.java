@@ -0,0 +1,257 @@
+package org.aniket.fnolclaimsagent.benchmark;
+
+import org.aniket.fnolclaimsagent.util.TextCompression;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Before/after of moving raw text out of the claim row, against a scratch MySQL schema:
+ * <ul>
+ *     <li>legacy: {@code raw_text} LONGTEXT inline in the claim table (the old {@code Claim} mapping)</li>
+ *     <li>split: structured claim row + Deflate-compressed, hash-deduplicated {@code claim_document}</li>
+ * </ul>
+ * Both layouts get the same {@code --rows} claims. The report has table size, a filtered
+ * full scan, and {@code findById}-style lookups of random ids with the InnoDB buffer pool
+ * hit rate over each phase. Point it at a dedicated database, it drops and creates its
+ * {@code bench_*} tables.
+ * <pre>
+ * mvn -Pload-test verify -Dload.main=org.aniket.fnolclaimsagent.benchmark.ClaimStorageBenchmark \
+ *     -Dload.args="--jdbc=jdbc:mysql://localhost:3306/fnol_bench?rewriteBatchedStatements=true --user=root --password=... --rows=1000000"
+ * </pre>
+ */
+public final class ClaimStorageBenchmark {
+
+    private static final int BATCH = 1000;
+    private static final int DISTINCT_BODIES = 64;
+
+    private static final String STRUCTURED_COLUMNS = """
+            id bigint auto_increment primary key,
+            policy_number varchar(100), policy_holder_name varchar(255), incident_date date,
+            incident_time varchar(50), location text, description longtext, claim_type varchar(50),
+            estimated_damage decimal(15,2), recommended_route varchar(100), reasoning text, created_at datetime(6)""";
+
+    public static void main(String[] args) throws Exception {
+        FnolFixtures.quietLogging();
+        Map<String, String> options = parse(args);
+        int rows = Integer.parseInt(options.getOrDefault("rows", "1000000"));
+        int lookups = Integer.parseInt(options.getOrDefault("lookups", "100000"));
+        double duplicates = Double.parseDouble(options.getOrDefault("duplicate-ratio", "0.1"));
+
+        try (Connection db = DriverManager.getConnection(options.getOrDefault("jdbc", "jdbc:mysql://localhost:3306/fnol_bench?rewriteBatchedStatements=true"),
+                options.getOrDefault("user", "root"), options.getOrDefault("password", ""))) {
+            createTables(db);
+            System.out.printf("loading %,d claims per layout (%.0f%% re-submitted documents)%n", rows, duplicates * 100);
+            load(db, rows, duplicates);
+            execute(db, "analyze table bench_claim_legacy, bench_claim, bench_claim_document");
+
+            System.out.println();
+            System.out.printf("%-28s %14s %14s%n", "", "legacy", "split");
+            System.out.printf("%-28s %14s %14s%n", "claim table MB", mb(db, "bench_claim_legacy"), mb(db, "bench_claim"));
+            System.out.printf("%-28s %14s %14s%n", "claim_document MB", "-", mb(db, "bench_claim_document"));
+
+            String scan = "select count(*), sum(estimated_damage) from %s where claim_type = 'AUTO'";
+            Phase legacyScan = phase(db, () -> queryOnce(db, scan.formatted("bench_claim_legacy")));
+            Phase splitScan = phase(db, () -> queryOnce(db, scan.formatted("bench_claim")));
+            System.out.printf("%-28s %14.1f %14.1f%n", "filtered scan ms", legacyScan.millis, splitScan.millis);
+            System.out.printf("%-28s %13.2f%% %13.2f%%%n", "  buffer pool hit rate", legacyScan.hitRate, splitScan.hitRate);
+
+            long[] ids = new Random(7).longs(lookups, 1, rows + 1).toArray();
+            Lookups legacy = lookups(db, ids, "select * from bench_claim_legacy where id = ?", false);
+            Lookups split = lookups(db, ids, "select * from bench_claim where id = ?", false);
+            Lookups splitWithText = lookups(db, ids, "select * from bench_claim where id = ?", true);
+            System.out.printf("%-28s %14s %14s%n", "findById p50 / p99 us", legacy.summary(), split.summary());
+            System.out.printf("%-28s %13.2f%% %13.2f%%%n", "  buffer pool hit rate", legacy.phase.hitRate, split.phase.hitRate);
+            System.out.printf("%-28s %14s %14s%n", "findById + raw text", legacy.summary(), splitWithText.summary());
+            System.out.printf("%-28s %13.2f%% %13.2f%%%n", "  buffer pool hit rate", legacy.phase.hitRate, splitWithText.phase.hitRate);
+        }
+    }
+
+    private static void createTables(Connection db) throws SQLException {
+        execute(db, "drop table if exists bench_claim_legacy, bench_claim, bench_claim_document");
+        execute(db, "create table bench_claim_legacy (" + STRUCTURED_COLUMNS + ", raw_text longtext)");
+        execute(db, "create table bench_claim (" + STRUCTURED_COLUMNS + ", document_hash varchar(64))");
+        execute(db, """
+                create table bench_claim_document (content_hash varchar(64) primary key,
+                compressed longblob not null, original_bytes int not null, created_at datetime(6))""");
+    }
+
+    private static void load(Connection db, int rows, double duplicates) throws SQLException {
+        String[] bodies = new String[DISTINCT_BODIES];
+        for (int i = 0; i < bodies.length; i++) {
+            bodies[i] = FnolFixtures.acordText(i) + FnolFixtures.claimText(1 + i % 3);
+        }
+        String insert = "insert into %s (policy_number, policy_holder_name, incident_date, incident_time, location,"
+                + " description, claim_type, estimated_damage, recommended_route, reasoning, created_at, %s)"
+                + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now(6), ?)";
+        Random random = new Random(2310);
+        Set<String> storedHashes = new HashSet<>();
+        db.setAutoCommit(false);
+        try (PreparedStatement legacy = db.prepareStatement(insert.formatted("bench_claim_legacy", "raw_text"));
+             PreparedStatement split = db.prepareStatement(insert.formatted("bench_claim", "document_hash"));
+             PreparedStatement document = db.prepareStatement(
+                     "insert into bench_claim_document (content_hash, compressed, original_bytes, created_at) values (?, ?, ?, now(6))")) {
+            for (int n = 1; n <= rows; n++) {
+                // a re-submitted document repeats an earlier claim's text exactly
+                int source = n > 1 && random.nextDouble() < duplicates ? 1 + random.nextInt(n - 1) : n;
+                String text = "Claim reference: " + source + "\n" + bodies[source % DISTINCT_BODIES];
+                String description = "Vehicle " + source + " was struck while stopped at a signal.";
+                bindStructured(legacy, n, description);
+                legacy.setString(11, text);
+                legacy.addBatch();
+
+                byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+                String hash = TextCompression.sha256Hex(utf8);
+                if (storedHashes.add(hash)) {
+                    document.setString(1, hash);
+                    document.setBytes(2, TextCompression.deflate(utf8));
+                    document.setInt(3, utf8.length);
+                    document.addBatch();
+                }
+                bindStructured(split, n, description);
+                split.setString(11, hash);
+                split.addBatch();
+
+                if (n % BATCH == 0 || n == rows) {
+                    legacy.executeBatch();
+                    document.executeBatch();
+                    split.executeBatch();
+                    db.commit();
+                    if (n % (BATCH * 100) == 0) System.out.printf("  %,d%n", n);
+                }
+            }
+        } finally {
+            db.setAutoCommit(true);
+        }
+    }
+
+    private static void bindStructured(PreparedStatement statement, int n, String description) throws SQLException {
+        statement.setString(1, "AXA-" + (100000 + n));
+        statement.setString(2, "Insured " + n);
+        statement.setObject(3, java.time.LocalDate.of(2024, 1, 1).plusDays(n % 365));
+        statement.setString(4, "10:15 AM");
+        statement.setString(5, n + " Lakeview Road, Springfield");
+        statement.setString(6, description);
+        statement.setString(7, n % 3 == 0 ? "PROPERTY" : "AUTO");
+        statement.setBigDecimal(8, java.math.BigDecimal.valueOf(500 + n % 40000));
+        statement.setString(9, n % 5 == 0 ? "MANUAL_REVIEW" : "FAST_TRACK");
+        statement.setString(10, "All mandatory fields present");
+    }
+
+    private static Lookups lookups(Connection db, long[] ids, String sql, boolean withText) throws SQLException {
+        long[] latencies = new long[ids.length];
+        try (PreparedStatement claim = db.prepareStatement(sql);
+             PreparedStatement document = db.prepareStatement(
+                     "select compressed, original_bytes from bench_claim_document where content_hash = ?")) {
+            Phase phase = phase(db, () -> {
+                for (int i = 0; i < ids.length; i++) {
+                    long t0 = System.nanoTime();
+                    claim.setLong(1, ids[i]);
+                    String hash = null;
+                    try (ResultSet rs = claim.executeQuery()) {
+                        if (rs.next() && withText) hash = rs.getString("document_hash");
+                    }
+                    if (hash != null) {
+                        document.setString(1, hash);
+                        try (ResultSet rs = document.executeQuery()) {
+                            if (rs.next()) TextCompression.inflate(rs.getBytes(1), rs.getInt(2));
+                        }
+                    }
+                    latencies[i] = System.nanoTime() - t0;
+                }
+            });
+            Arrays.sort(latencies);
+            return new Lookups(latencies, phase);
+        }
+    }
+
+    private static Phase phase(Connection db, SqlWork work) throws SQLException {
+        long[] before = bufferPool(db);
+        long t0 = System.nanoTime();
+        work.run();
+        double millis = (System.nanoTime() - t0) / 1e6;
+        long[] after = bufferPool(db);
+        long requests = after[0] - before[0];
+        long diskReads = after[1] - before[1];
+        return new Phase(millis, requests == 0 ? 100.0 : 100.0 * (requests - diskReads) / requests);
+    }
+
+    /** Innodb_buffer_pool_read_requests and Innodb_buffer_pool_reads (requests that went to disk). */
+    private static long[] bufferPool(Connection db) throws SQLException {
+        long[] counters = new long[2];
+        try (Statement statement = db.createStatement();
+             ResultSet rs = statement.executeQuery("show global status like 'Innodb_buffer_pool_read%'")) {
+            while (rs.next()) {
+                if (rs.getString(1).equalsIgnoreCase("Innodb_buffer_pool_read_requests")) counters[0] = rs.getLong(2);
+                if (rs.getString(1).equalsIgnoreCase("Innodb_buffer_pool_reads")) counters[1] = rs.getLong(2);
+            }
+        }
+        return counters;
+    }
+
+    private static String mb(Connection db, String table) throws SQLException {
+        try (PreparedStatement statement = db.prepareStatement(
+                "select data_length + index_length from information_schema.tables where table_schema = database() and table_name = ?")) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? String.format("%,.1f", rs.getLong(1) / 1048576.0) : "?";
+            }
+        }
+    }
+
+    private static void queryOnce(Connection db, String sql) throws SQLException {
+        try (Statement statement = db.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                rs.getLong(1);
+            }
+        }
+    }
+
+    private static void execute(Connection db, String sql) throws SQLException {
+        try (Statement statement = db.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    @FunctionalInterface
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+
+    private record Phase(double millis, double hitRate) {
+    }
+
+    private record Lookups(long[] sortedNanos, Phase phase) {
+
+        String summary() {
+            return String.format("%.0f / %.0f", at(0.50), at(0.99));
+        }
+
+        private double at(double p) {
+            return sortedNanos[Math.max(0, (int) Math.ceil(p * sortedNanos.length) - 1)] / 1e3;
+        }
+    }
+}
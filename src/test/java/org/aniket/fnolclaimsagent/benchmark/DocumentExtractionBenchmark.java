@@ -0,0 +1,67 @@
+package org.aniket.fnolclaimsagent.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aniket.fnolclaimsagent.cache.ExtractionResultCache;
+import org.aniket.fnolclaimsagent.config.ExtractionProperties;
+import org.aniket.fnolclaimsagent.config.ResultCacheProperties;
+import org.aniket.fnolclaimsagent.service.impl.DocumentExtractionServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code extractText} with the default settings (streaming, parallel ranges from 16 pages)
+ * and the result cache off, on a small (1 page), medium (10) and large (100) claim packet.
+ * <pre>mvn -Pbenchmark verify -Dbenchmark=DocumentExtractionBenchmark</pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DocumentExtractionBenchmark {
+
+    @Param({"1", "10", "100"})
+    int pages;
+
+    private ExecutorService executor;
+    private DocumentExtractionServiceImpl service;
+    private MockMultipartFile upload;
+
+    @Setup
+    public void setUp() {
+        FnolFixtures.quietLogging();
+        ExtractionProperties properties = new ExtractionProperties();
+        executor = Executors.newFixedThreadPool(properties.effectiveParallelism());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ResultCacheProperties noCache = new ResultCacheProperties();
+        noCache.setEnabled(false);
+        service = new DocumentExtractionServiceImpl(properties, executor, new ExtractionResultCache(noCache, registry), registry);
+        upload = new MockMultipartFile("file", "claim-" + pages + ".pdf", "application/pdf", FnolFixtures.claimPdf(pages));
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public String extractText() {
+        return service.extractText(upload);
+    }
+}
@@ -0,0 +1,119 @@
+package org.aniket.fnolclaimsagent.benchmark;
+
+import org.aniket.fnolclaimsagent.config.DuplicateProperties;
+import org.aniket.fnolclaimsagent.dto.DuplicateMatchDTO;
+import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.aniket.fnolclaimsagent.duplicate.DuplicateClaimIndex;
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.aniket.fnolclaimsagent.util.MinHash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Duplicate lookup for one analyzed claim against {@code claims} saved claims: the LSH
+ * index against comparing the signature with every saved claim. Half of the lookups are
+ * reworded copies of a saved claim, half are new losses. The index time should stay flat as
+ * {@code claims} grows; the scan grows with it.
+ * <pre>mvn -Pbenchmark verify -Dbenchmark=DuplicateLookupBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DuplicateLookupBenchmark {
+
+    private static final String[] STREETS = {"Lakeview Road", "Elm Street", "Harbor Drive", "Main Street", "Oak Avenue"};
+    private static final String[] CITIES = {"Springfield", "Riverton", "Fairview", "Kingston", "Salem", "Franklin"};
+    private static final String[] EVENTS = {"was rear-ended at a signal", "was damaged by hail in the lot",
+            "hit a deer on the highway", "was side-swiped while parked", "had the windshield cracked by gravel",
+            "slid into a guard rail on ice", "was backed into in a parking garage", "lost a wheel on the freeway"};
+    private static final String[] DETAILS = {"rear bumper and trunk lid damaged", "roof and hood dented",
+            "front grille and headlight broken", "driver door scraped", "windshield needs replacing",
+            "airbags deployed", "tow required from the scene", "minor scratches only"};
+    private static final int LOOKUPS = 1024;
+
+    @Param({"10000", "100000", "1000000"})
+    public int claims;
+
+    private DuplicateClaimIndex index;
+    private int[][] signatures;
+    private ExtractedFieldsDTO[] lookups;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DuplicateProperties properties = new DuplicateProperties();
+        properties.setMaxClaims(claims);
+        properties.setSnapshotFile("");
+        index = new DuplicateClaimIndex(properties);
+        signatures = new int[claims][];
+        for (int id = 1; id <= claims; id++) {
+            Claim claim = claim(id, new Random(id));
+            index.add(claim);
+            signatures[id - 1] = MinHash.signature(claim.getDescription(), claim.getLocation(),
+                    claim.getPolicyNumber(), claim.getIncidentDate());
+        }
+        Random random = new Random(7);
+        lookups = new ExtractedFieldsDTO[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            // a reworded copy of a saved claim, or a claim that was never saved
+            int id = i % 2 == 0 ? 1 + random.nextInt(claims) : claims + 1 + i;
+            Claim source = claim(id, new Random(id));
+            ExtractedFieldsDTO fields = new ExtractedFieldsDTO();
+            fields.setPolicyNumber(source.getPolicyNumber());
+            fields.setLocation(source.getLocation());
+            fields.setDescription(source.getDescription().replace("Insured vehicle", "The car"));
+            fields.setIncidentDate(source.getIncidentDate().toString());
+            lookups[i] = fields;
+        }
+    }
+
+    @Benchmark
+    public List<DuplicateMatchDTO> lshIndex() {
+        return index.findMatches(lookups[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        ExtractedFieldsDTO fields = lookups[next++ & (LOOKUPS - 1)];
+        int[] signature = MinHash.signature(fields.getDescription(), fields.getLocation(),
+                fields.getPolicyNumber(), fields.getIncidentDateValue());
+        int matches = 0;
+        for (int[] saved : signatures) {
+            if (MinHash.similarity(signature, saved) >= 0.5) matches++;
+        }
+        return matches;
+    }
+
+    private static Claim claim(int id, Random random) {
+        return Claim.builder()
+                .id((long) id)
+                .policyNumber("POL-" + (100_000 + id))
+                .location((1 + random.nextInt(400)) + " " + pick(random, STREETS) + ", " + pick(random, CITIES))
+                .description("Insured vehicle " + pick(random, EVENTS) + " near " + pick(random, CITIES) + ", "
+                        + pick(random, DETAILS) + " and " + pick(random, DETAILS))
+                .incidentDate(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(730)))
+                .build();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,84 @@
+package org.aniket.fnolclaimsagent.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aniket.fnolclaimsagent.cache.ExtractionResultCache;
+import org.aniket.fnolclaimsagent.config.ExtractionProperties;
+import org.aniket.fnolclaimsagent.config.ResultCacheProperties;
+import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.aniket.fnolclaimsagent.service.FieldExtractionSession;
+import org.aniket.fnolclaimsagent.service.impl.DocumentExtractionServiceImpl;
+import org.aniket.fnolclaimsagent.service.impl.FieldExtractionServiceImpl;
+import org.aniket.fnolclaimsagent.service.impl.ValidationServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text + fields of a claim packet whose mandatory fields are all on page 1: the whole document
+ * stripped (default settings) and then parsed, against {@code fnol.extraction.stop-when-complete}
+ * where fields are read page by page and stripping stops once validation has nothing missing.
+ * <pre>mvn -Pbenchmark verify -Dbenchmark=EarlyStopExtractionBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EarlyStopExtractionBenchmark {
+
+    @Param({"10", "100"})
+    int pages;
+
+    private final FieldExtractionServiceImpl fieldExtraction = new FieldExtractionServiceImpl();
+    private final ValidationServiceImpl validation = new ValidationServiceImpl();
+    private ExecutorService executor;
+    private DocumentExtractionServiceImpl service;
+    private MockMultipartFile upload;
+
+    @Setup
+    public void setUp() {
+        FnolFixtures.quietLogging();
+        ExtractionProperties properties = new ExtractionProperties();
+        executor = Executors.newFixedThreadPool(properties.effectiveParallelism());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ResultCacheProperties noCache = new ResultCacheProperties();
+        noCache.setEnabled(false);
+        service = new DocumentExtractionServiceImpl(properties, executor, new ExtractionResultCache(noCache, registry), registry);
+        upload = new MockMultipartFile("file", "claim-" + pages + ".pdf", "application/pdf", FnolFixtures.claimPdf(pages));
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public ExtractedFieldsDTO wholeDocument() {
+        return fieldExtraction.extractFields(service.extractText(upload));
+    }
+
+    @Benchmark
+    public ExtractedFieldsDTO stopWhenComplete() {
+        FieldExtractionSession session = fieldExtraction.openSession();
+        service.streamText(upload, page -> {
+            session.accept(page);
+            return !(session.allFieldsLocated() && validation.findMissingFields(session.fields()).isEmpty());
+        });
+        return session.fields();
+    }
+}
@@ -0,0 +1,125 @@
+package org.aniket.fnolclaimsagent.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic FNOL documents for the benchmarks: an ACORD-style first page followed by
+ * police report / adjuster note filler pages. Generation is seeded, so every run sees the
+ * same corpus.
+ */
+public final class FnolFixtures {
+
+    private static final int LINES_PER_PAGE = 45;
+
+    private static final String[] NARRATIVE = {
+            "Officer arrived on scene at approximately 15:52 and spoke with both drivers.",
+            "Vehicle 1 was stopped at the signal when Vehicle 2 failed to stop in time.",
+            "Road surface was dry, weather clear, daylight, no visual obstructions noted.",
+            "Both vehicles were driven from the scene; no tow was requested by either party.",
+            "Driver of Vehicle 2 stated the brakes felt soft before the collision occurred.",
+            "Photographs of the rear bumper, trunk lid and tail lamps were taken by the insured.",
+            "Repair shop estimate attached; parts on back order for approximately two weeks.",
+            "Independent witness confirmed the sequence of events described by the insured.",
+    };
+
+    private FnolFixtures() {
+    }
+
+    /** ACORD-style claim text as PDFTextStripper would produce it for the first page. */
+    public static String acordText(int variant) {
+        Random random = new Random(variant);
+        return String.join("\n", acordLines(random, variant)) + "\n";
+    }
+
+    /** Claim text spanning {@code pages} pages worth of lines. */
+    public static String claimText(int pages) {
+        Random random = new Random(pages);
+        StringBuilder sb = new StringBuilder();
+        for (int page = 1; page <= pages; page++) {
+            for (String line : pageLines(random, page, pages)) {
+                sb.append(line).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    public static byte[] claimPdf(int pages) {
+        Random random = new Random(pages);
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (int page = 1; page <= pages; page++) {
+                PDPage pdPage = new PDPage(PDRectangle.LETTER);
+                document.addPage(pdPage);
+                try (PDPageContentStream content = new PDPageContentStream(document, pdPage)) {
+                    content.beginText();
+                    content.setFont(font, 9);
+                    content.setLeading(15);
+                    content.newLineAtOffset(40, 750);
+                    for (String line : pageLines(random, page, pages)) {
+                        content.showText(line);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Keep per-request INFO logging out of the measurements. */
+    public static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.ERROR);
+    }
+
+    private static List<String> pageLines(Random random, int page, int pages) {
+        List<String> lines = page == 1 ? acordLines(random, pages) : new ArrayList<>();
+        while (lines.size() < LINES_PER_PAGE - 1) {
+            lines.add(NARRATIVE[random.nextInt(NARRATIVE.length)]);
+        }
+        lines.add("Page " + page + " of " + pages);
+        return lines;
+    }
+
+    private static List<String> acordLines(Random random, int variant) {
+        List<String> lines = new ArrayList<>();
+        lines.add("AUTOMOBILE LOSS NOTICE - CLAIM PACKET " + variant);
+        lines.add("Name of Insured: " + pick(random, "John Doe", "Maria Garcia", "Wei Chen", "Ola Nordmann"));
+        lines.add("Mailing Address: " + (100 + random.nextInt(900)) + " Main Street, Springfield, IL 62704");
+        lines.add("Policy Number: AXA-" + (100000 + random.nextInt(900000)));
+        lines.add("Line of Business: Personal Auto");
+        lines.add("Date of Loss: " + (1 + random.nextInt(12)) + "/" + (1 + random.nextInt(28)) + "/2025");
+        lines.add("Time of Loss: " + (1 + random.nextInt(12)) + ":" + (10 + random.nextInt(50)) + " PM");
+        lines.add("Location of Loss: " + (1 + random.nextInt(99)) + " Lakeview Road, Springfield, Illinois");
+        lines.add("Description of Accident:");
+        lines.add(pick(random, "A vehicle traveling behind rear-ended the insured vehicle at a red light.",
+                "Insured vehicle slid on ice and struck a guard rail.",
+                "Passenger was injured when the other driver ran a stop sign.",
+                "Other party statement inconsistent with damage pattern, possible staged collision."));
+        lines.add("INSURED VEHICLE INFORMATION");
+        lines.add("VIN: 4T1G11AK0MU" + (100000 + random.nextInt(900000)));
+        lines.add("ESTIMATE AMOUNT: $" + (500 + random.nextInt(40_000)));
+        return lines;
+    }
+
+    private static String pick(Random random, String... options) {
+        return options[random.nextInt(options.length)];
+    }
+}
@@ -0,0 +1,121 @@
+package org.aniket.fnolclaimsagent.benchmark;
+
+import org.aniket.fnolclaimsagent.FnolClaimsAgentApplication;
+import org.aniket.fnolclaimsagent.service.ClaimJobService;
+import org.aniket.fnolclaimsagent.util.InMemoryMultipartFile;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Job throughput with 1 to 4 worker processes on one shared MySQL. Each round queues
+ * {@code --jobs} claim packets through an API-role context in this JVM, starts that many
+ * separate worker JVMs ({@code fnol.jobs.role=worker}, one worker thread each) and reads the
+ * jobs/s from the first {@code started_at} to the last {@code finished_at} of the round, so
+ * process start-up is not counted. Each worker gets its own index directories, as separate
+ * nodes would. Give every worker process a core of its own, or the scaling measured is the
+ * host's. Options other than {@code --jobs} / {@code --workers} / {@code --pages} are passed
+ * to Spring in every process, so point it at a scratch database:
+ * <pre>
+ * mvn -Pload-test verify -Dload.main=org.aniket.fnolclaimsagent.benchmark.JobWorkerScalingDriver \
+ *     -Dload.args="--jobs=200 --workers=1,2,3,4 --spring.datasource.url=jdbc:mysql://localhost:3306/fnol_bench"
+ * </pre>
+ */
+public final class JobWorkerScalingDriver {
+
+    public static void main(String[] args) throws Exception {
+        int jobs = 200;
+        int pages = 10;
+        String workers = "1,2,3,4";
+        List<String> springArgs = new ArrayList<>(List.of("--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+                "--fnol.warmup.enabled=false", "--fnol.duplicates.snapshot-file="));
+        for (String arg : args) {
+            if (arg.startsWith("--jobs=")) jobs = Integer.parseInt(arg.substring("--jobs=".length()));
+            else if (arg.startsWith("--workers=")) workers = arg.substring("--workers=".length());
+            else if (arg.startsWith("--pages=")) pages = Integer.parseInt(arg.substring("--pages=".length()));
+            else springArgs.add(arg);
+        }
+        Path scratch = Path.of("target", "job-workers");
+        List<String> apiArgs = new ArrayList<>(springArgs);
+        apiArgs.add("--fnol.jobs.role=API");
+        apiArgs.add("--fnol.search.index-dir=" + scratch.resolve("api-index"));
+
+        byte[] pdf = FnolFixtures.claimPdf(pages);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FnolClaimsAgentApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(apiArgs.toArray(String[]::new))) {
+            ClaimJobService jobService = context.getBean(ClaimJobService.class);
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+            System.out.printf("%d jobs of %d pages per round, %d CPU%n", jobs, pages,
+                    Runtime.getRuntime().availableProcessors());
+            System.out.printf("%-10s %12s %12s %10s%n", "workers", "jobs/s", "scaling", "failed");
+            double single = 0;
+            for (String w : workers.split(",")) {
+                int processes = Integer.parseInt(w.trim());
+                long from = jdbc.queryForObject("select coalesce(max(id), 0) from claim_job", Long.class);
+                for (int i = 0; i < jobs; i++) {
+                    jobService.submit(new InMemoryMultipartFile("file", "claim-" + i + ".pdf", "application/pdf", pdf), null);
+                }
+                List<Process> started = new ArrayList<>();
+                try {
+                    for (int p = 0; p < processes; p++) {
+                        started.add(startWorker(springArgs, scratch.resolve("worker-" + p)));
+                    }
+                    awaitDone(jdbc, from, jobs, started);
+                } finally {
+                    started.forEach(Process::destroy);
+                    for (Process process : started) process.waitFor();
+                }
+                Map<String, Object> round = jdbc.queryForMap("""
+                        select min(started_at) first_start, max(finished_at) last_finish,
+                               sum(case when status = 'FAILED' then 1 else 0 end) failed
+                        from claim_job where id > ?""", from);
+                Duration took = Duration.between(((Timestamp) round.get("first_start")).toLocalDateTime(),
+                        ((Timestamp) round.get("last_finish")).toLocalDateTime());
+                double rate = jobs / (took.toMillis() / 1000.0);
+                if (single == 0) single = rate / processes;
+                System.out.printf("%-10d %12.1f %11.2fx %10s%n", processes, rate, rate / single, round.get("failed"));
+            }
+        }
+    }
+
+    private static Process startWorker(List<String> springArgs, Path dir) throws Exception {
+        Files.createDirectories(dir);
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                FnolClaimsAgentApplication.class.getName(),
+                "--spring.main.web-application-type=none",
+                "--fnol.jobs.role=WORKER",
+                "--fnol.jobs.workers=1",
+                "--fnol.search.index-dir=" + dir.resolve("claim-index"),
+                "--fnol.journal.dir=" + dir.resolve("claim-journal")));
+        command.addAll(springArgs);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(dir.resolveSibling(dir.getFileName() + ".log").toFile()))
+                .start();
+    }
+
+    private static void awaitDone(JdbcTemplate jdbc, long from, int jobs, List<Process> workers) throws InterruptedException {
+        while (true) {
+            Integer done = jdbc.queryForObject(
+                    "select count(*) from claim_job where id > ? and status in ('COMPLETED', 'FAILED')", Integer.class, from);
+            if (done != null && done >= jobs) return;
+            if (workers.stream().noneMatch(Process::isAlive)) {
+                throw new IllegalStateException("All worker processes exited; see target/job-workers/*.log");
+            }
+            Thread.sleep(200);
+        }
+    }
+}
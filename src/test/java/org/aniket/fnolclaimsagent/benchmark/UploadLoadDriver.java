@@ -0,0 +1,143 @@
+package org.aniket.fnolclaimsagent.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop upload load test against a running instance: {@code concurrency} clients each
+ * POST a PDF to {@code /api/claims/analyze} and send the next one as soon as the answer
+ * arrives. Run it once against a server started with {@code spring.threads.virtual.enabled=false}
+ * and once with {@code true}, and compare the throughput and p99 lines.
+ * <p>
+ * Every upload gets a unique trailing PDF comment, so the content-hash cache never answers
+ * for the server and each request pays for a full extraction.
+ * <pre>
+ * mvn -Pload-test verify -Dload.args="--url=http://localhost:8080 --concurrency=1000 --requests=20000"
+ * </pre>
+ */
+public final class UploadLoadDriver {
+
+    public static void main(String[] args) throws Exception {
+        FnolFixtures.quietLogging();
+        Map<String, String> options = parse(args);
+        URI uri = URI.create(options.getOrDefault("url", "http://localhost:8080") + "/api/claims/analyze");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "20000"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "2000"));
+        int pages = Integer.parseInt(options.getOrDefault("pages", "2"));
+        byte[] pdf = options.containsKey("file")
+                ? Files.readAllBytes(Path.of(options.get("file")))
+                : FnolFixtures.claimPdf(pages);
+
+        // virtual threads on the client side so 1k open uploads are not capped by the driver itself
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .executor(clients)
+                    .build();
+
+            System.out.printf("warmup: %d requests%n", warmup);
+            run(http, clients, uri, pdf, Math.min(concurrency, 64), warmup);
+
+            System.out.printf("measuring: %d requests, %d concurrent, %d byte PDF%n", requests, concurrency, pdf.length);
+            Result result = run(http, clients, uri, pdf, concurrency, requests);
+            result.print();
+        }
+    }
+
+    private static Result run(HttpClient http, ExecutorService clients, URI uri, byte[] pdf,
+                              int concurrency, int requests) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        Semaphore permits = new Semaphore(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            permits.acquire();
+            int n = i;
+            clients.execute(() -> {
+                try {
+                    String boundary = "----fnol" + UUID.randomUUID();
+                    HttpRequest request = HttpRequest.newBuilder(uri)
+                            .timeout(Duration.ofMinutes(5))
+                            .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                            .POST(HttpRequest.BodyPublishers.ofByteArray(multipart(boundary, uniqueCopy(pdf, n))))
+                            .build();
+                    long t0 = System.nanoTime();
+                    HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                    latencies[n] = System.nanoTime() - t0;
+                    if (response.statusCode() != 200) errors.incrementAndGet();
+                } catch (Exception ex) {
+                    latencies[n] = -1;
+                    errors.incrementAndGet();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+        permits.acquire(concurrency);
+        return new Result(latencies, errors.get(), System.nanoTime() - start);
+    }
+
+    private static byte[] uniqueCopy(byte[] pdf, int n) {
+        byte[] suffix = ("\n% load-test request " + n + "\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] copy = Arrays.copyOf(pdf, pdf.length + suffix.length);
+        System.arraycopy(suffix, 0, copy, pdf.length, suffix.length);
+        return copy;
+    }
+
+    private static byte[] multipart(String boundary, byte[] pdf) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(pdf.length + 256);
+        body.writeBytes(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"claim.pdf\"\r\n"
+                + "Content-Type: application/pdf\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        body.writeBytes(pdf);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return body.toByteArray();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private record Result(long[] latencies, int errors, long elapsedNanos) {
+
+        void print() {
+            long[] ok = Arrays.stream(latencies).filter(l -> l >= 0).sorted().toArray();
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("throughput: %.1f req/s (%d requests in %.1f s, %d errors)%n",
+                    latencies.length / seconds, latencies.length, seconds, errors);
+            if (ok.length == 0) return;
+            System.out.printf("latency ms: p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                    percentile(ok, 0.50), percentile(ok, 0.90), percentile(ok, 0.99), ok[ok.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.aniket.fnolclaimsagent.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final StubDataSource primary = new StubDataSource("primary");
+    private final StubDataSource first = new StubDataSource("replica-1");
+    private final StubDataSource second = new StubDataSource("replica-2");
+    private final ReplicaPool pool = new ReplicaPool(primary, replicas(), Duration.ofSeconds(5), new SimpleMeterRegistry());
+    private final ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, pool);
+
+    @AfterEach
+    void clear() {
+        ReadReplicas.request(false);
+    }
+
+    @Test
+    void onlyRequestedReadsGoToCaughtUpReplicasInTurn() throws Exception {
+        caughtUp();
+        assertThat(name(routing.getConnection())).isEqualTo("primary");
+
+        ReadReplicas.request(true);
+        assertThat(name(routing.getConnection())).isEqualTo("replica-1");
+        assertThat(name(routing.getConnection())).isEqualTo("replica-2");
+        assertThat(name(routing.getConnection())).isEqualTo("replica-1");
+    }
+
+    @Test
+    void laggingOrUnknownReplicasAreSkippedUntilTheyCatchUp() throws Exception {
+        ReadReplicas.request(true);
+        // no heartbeat yet
+        assertThat(name(routing.getConnection())).isEqualTo("primary");
+
+        pool.update(pool.replicas().get(0), 6_000_000L);
+        pool.update(pool.replicas().get(1), 1_000L);
+        assertThat(name(routing.getConnection())).isEqualTo("replica-2");
+        assertThat(name(routing.getConnection())).isEqualTo("replica-2");
+
+        pool.update(pool.replicas().get(1), null);
+        assertThat(name(routing.getConnection())).isEqualTo("primary");
+
+        pool.update(pool.replicas().get(0), 4_000_000L);
+        assertThat(name(routing.getConnection())).isEqualTo("replica-1");
+    }
+
+    @Test
+    void aReplicaThatFailsToConnectFallsBackToThePrimary() throws Exception {
+        caughtUp();
+        first.down = true;
+        ReadReplicas.request(true);
+
+        assertThat(name(routing.getConnection())).isEqualTo("primary");
+        assertThat(pool.replicas().get(0).available()).isFalse();
+        assertThat(name(routing.getConnection())).isEqualTo("replica-2");
+        assertThat(name(routing.getConnection())).isEqualTo("replica-2");
+    }
+
+    private Map<String, javax.sql.DataSource> replicas() {
+        Map<String, javax.sql.DataSource> replicas = new LinkedHashMap<>();
+        replicas.put(first.name, first);
+        replicas.put(second.name, second);
+        return replicas;
+    }
+
+    private void caughtUp() {
+        pool.replicas().forEach(r -> pool.update(r, 0L));
+    }
+
+    private static String name(Connection connection) {
+        return connection.toString();
+    }
+
+    private static final class StubDataSource extends AbstractDataSource {
+
+        private final String name;
+        private boolean down;
+
+        private StubDataSource(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) throw new SQLException(name + " is down");
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> method.getName().equals("toString") ? name : null);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
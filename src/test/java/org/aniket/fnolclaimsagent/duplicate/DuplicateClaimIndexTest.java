@@ -0,0 +1,117 @@
+package org.aniket.fnolclaimsagent.duplicate;
+
+import org.aniket.fnolclaimsagent.config.DuplicateProperties;
+import org.aniket.fnolclaimsagent.dto.DuplicateMatchDTO;
+import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DuplicateClaimIndexTest {
+
+    private static final String DESCRIPTION = "Insured vehicle was rear-ended by a delivery van while stopped at the "
+            + "traffic signal on Lakeview Road, rear bumper and trunk lid damaged, no injuries reported";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void findsTheSameLossReportedAgainInOtherWords() {
+        DuplicateClaimIndex index = new DuplicateClaimIndex(properties(1000));
+        index.add(claim(1, "POL-100", "12 Lakeview Road, Springfield", DESCRIPTION, LocalDate.of(2025, 3, 14)));
+        index.add(claim(2, "POL-200", "Harbor Drive, Riverton", "Kitchen fire spread to the cabinets and ceiling",
+                LocalDate.of(2025, 2, 1)));
+
+        // the agent's copy: same policy, place and day, description partly reworded
+        List<DuplicateMatchDTO> matches = index.findMatches(fields("pol-100", "12 Lakeview Road, Springfield",
+                "Vehicle was rear-ended by a delivery van while stopped at the traffic signal on Lakeview Road, "
+                        + "bumper and trunk lid damaged", "03/14/2025"));
+
+        assertThat(matches).singleElement().satisfies(m -> {
+            assertThat(m.getClaimId()).isEqualTo(1L);
+            assertThat(m.getSimilarity()).isGreaterThanOrEqualTo(0.5);
+            assertThat(m.isSamePolicyNumber()).isTrue();
+            assertThat(m.isSameIncidentDate()).isTrue();
+        });
+        assertThat(index.findMatches(fields("POL-300", "Main Street, Fairview",
+                "Tree fell on the garage roof during the storm", "01/05/2025"))).isEmpty();
+    }
+
+    @Test
+    void bucketsAreReadUpToTheChainLimitNewestFirst() {
+        DuplicateProperties properties = properties(1000);
+        properties.setMaxMatches(100);
+        DuplicateClaimIndex index = new DuplicateClaimIndex(properties);
+        for (int id = 1; id <= 200; id++) {
+            index.add(claim(id, "POL-100", "12 Lakeview Road", DESCRIPTION, LocalDate.of(2025, 3, 14)));
+        }
+        index.add(claim(1, "POL-100", "12 Lakeview Road", DESCRIPTION, LocalDate.of(2025, 3, 14)));
+
+        List<DuplicateMatchDTO> matches = index.findMatches(fields("POL-100", "12 Lakeview Road", DESCRIPTION, "03/14/2025"));
+
+        assertThat(index.size()).isEqualTo(200);
+        assertThat(matches).hasSize(DuplicateClaimIndex.MAX_CHAIN);
+        assertThat(matches.getFirst().getClaimId()).isEqualTo(200L);
+        assertThat(matches.getLast().getClaimId()).isEqualTo(200L - DuplicateClaimIndex.MAX_CHAIN + 1);
+    }
+
+    @Test
+    void oldestClaimsAreOverwrittenWhenFull() {
+        DuplicateClaimIndex index = new DuplicateClaimIndex(properties(3));
+        for (int id = 1; id <= 5; id++) {
+            index.add(claim(id, "POL-" + id, "Street " + id, "Description of loss number " + id, LocalDate.of(2025, 1, id)));
+        }
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.findMatches(fields("POL-1", "Street 1", "Description of loss number 1", "01/01/2025"))).isEmpty();
+        assertThat(index.findMatches(fields("POL-5", "Street 5", "Description of loss number 5", "01/05/2025")))
+                .extracting(DuplicateMatchDTO::getClaimId).first().isEqualTo(5L);
+    }
+
+    @Test
+    void snapshotIsReadBackOnStart() throws Exception {
+        DuplicateProperties properties = properties(1000);
+        properties.setSnapshotFile(dir.resolve("duplicates.bin").toString());
+        DuplicateClaimIndex index = new DuplicateClaimIndex(properties);
+        index.add(claim(41, "POL-100", "12 Lakeview Road", DESCRIPTION, LocalDate.of(2025, 3, 14)));
+        index.add(claim(42, "POL-200", "Harbor Drive", "Kitchen fire", LocalDate.of(2025, 2, 1)));
+        index.caughtUpTo(LocalDateTime.of(2026, 3, 15, 9, 30, 0, 250_000_000));
+        index.close();
+
+        DuplicateClaimIndex restarted = new DuplicateClaimIndex(properties);
+
+        assertThat(restarted.size()).isEqualTo(2);
+        assertThat(restarted.snapshotClaimId()).isEqualTo(42);
+        assertThat(restarted.snapshotCaughtUpTo()).isEqualTo(LocalDateTime.of(2026, 3, 15, 9, 30, 0, 250_000_000));
+        assertThat(restarted.findMatches(fields("POL-100", "12 Lakeview Road", DESCRIPTION, "03/14/2025")))
+                .extracting(DuplicateMatchDTO::getClaimId).containsExactly(41L);
+    }
+
+    private static DuplicateProperties properties(int maxClaims) {
+        DuplicateProperties properties = new DuplicateProperties();
+        properties.setMaxClaims(maxClaims);
+        properties.setSnapshotFile("");
+        return properties;
+    }
+
+    private static Claim claim(long id, String policy, String location, String description, LocalDate incident) {
+        return Claim.builder().id(id).policyNumber(policy).location(location).description(description)
+                .incidentDate(incident).build();
+    }
+
+    private static ExtractedFieldsDTO fields(String policy, String location, String description, String incidentDate) {
+        ExtractedFieldsDTO fields = new ExtractedFieldsDTO();
+        fields.setPolicyNumber(policy);
+        fields.setLocation(location);
+        fields.setDescription(description);
+        fields.setIncidentDate(incidentDate);
+        return fields;
+    }
+}
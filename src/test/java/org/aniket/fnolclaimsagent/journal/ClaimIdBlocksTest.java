@@ -0,0 +1,52 @@
+package org.aniket.fnolclaimsagent.journal;
+
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.PooledOptimizer;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ClaimIdBlocksTest {
+
+    private final InMemoryClaimTable table = new InMemoryClaimTable();
+
+    @Test
+    void blockIdsNeverOverlapHibernatesPooledIds() {
+        PooledOptimizer hibernate = new PooledOptimizer(Long.class, Claim.ID_ALLOCATION_SIZE);
+        AccessCallback sequence = new AccessCallback() {
+            @Override
+            public IntegralDataTypeHolder getNextValue() {
+                return IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class).initialize(table.hibernateNextValue());
+            }
+
+            @Override
+            public String getTenantIdentifier() {
+                return null;
+            }
+        };
+        // a block size that is not a multiple of the allocation size
+        ClaimIdBlocks blocks = new ClaimIdBlocks(table, new TransactionTemplate(mock(PlatformTransactionManager.class)), 120);
+        Set<Long> ids = new HashSet<>();
+        Random random = new Random(7);
+
+        for (int round = 0; round < 200; round++) {
+            for (int i = random.nextInt(80); i > 0; i--) {
+                assertThat(ids.add((Long) hibernate.generate(sequence))).as("Hibernate id").isTrue();
+            }
+            for (long id : blocks.take(1 + random.nextInt(60))) {
+                assertThat(ids.add(id)).as("journal id %d", id).isTrue();
+                assertThat(id).isPositive();
+            }
+        }
+    }
+}
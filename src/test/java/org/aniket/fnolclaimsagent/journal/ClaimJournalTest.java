@@ -0,0 +1,130 @@
+package org.aniket.fnolclaimsagent.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClaimJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordsAreReadInOrderAndCommittedOnesAreNotReadAgain() throws Exception {
+        try (ClaimJournal journal = new ClaimJournal(dir, 1 << 20)) {
+            long[] positions = journal.append(List.of(bytes("one"), bytes("two")));
+            journal.append(List.of(bytes("three")));
+
+            List<ClaimJournal.Record> first = journal.read(2);
+            assertThat(first).extracting(r -> text(r.payload())).containsExactly("one", "two");
+            assertThat(first.getFirst().position()).isEqualTo(positions[0]);
+            assertThat(text(journal.payloadAt(positions[1]))).isEqualTo("two");
+            journal.commit(first.getLast().next());
+
+            assertThat(journal.read(10)).extracting(r -> text(r.payload())).containsExactly("three");
+            assertThat(journal.read(10)).isEmpty();
+        }
+        try (ClaimJournal reopened = new ClaimJournal(dir, 1 << 20)) {
+            assertThat(reopened.read(10)).extracting(r -> text(r.payload())).containsExactly("three");
+        }
+    }
+
+    @Test
+    void rewindReadsUncommittedRecordsAgain() throws Exception {
+        try (ClaimJournal journal = new ClaimJournal(dir, 1 << 20)) {
+            journal.append(List.of(bytes("one"), bytes("two")));
+            journal.read(10);
+
+            journal.rewind();
+
+            assertThat(journal.read(10)).extracting(r -> text(r.payload())).containsExactly("one", "two");
+        }
+    }
+
+    @Test
+    void tornRecordAtTheEndIsCutOff() throws Exception {
+        long end;
+        try (ClaimJournal journal = new ClaimJournal(dir, 1 << 20)) {
+            journal.append(List.of(bytes("kept")));
+            end = journal.end();
+        }
+        // a length and a few payload bytes made it to disk, the crc did not match
+        try (FileChannel file = FileChannel.open(segments().getFirst(), StandardOpenOption.WRITE)) {
+            file.write(ByteBuffer.allocate(12).putInt(100).putInt(0).put(bytes("torn")).flip(), ClaimJournal.offsetOf(end));
+        }
+
+        try (ClaimJournal reopened = new ClaimJournal(dir, 1 << 20)) {
+            assertThat(reopened.end()).isEqualTo(end);
+            reopened.append(List.of(bytes("next")));
+            assertThat(reopened.read(10)).extracting(r -> text(r.payload())).containsExactly("kept", "next");
+        }
+    }
+
+    @Test
+    void fullSegmentsRollOverAndAreDeletedOnceCommitted() throws Exception {
+        try (ClaimJournal journal = new ClaimJournal(dir, 64)) {
+            journal.append(List.of(new byte[20], new byte[20]));
+            // larger than a whole segment: gets one of its own
+            journal.append(List.of(new byte[200], new byte[10]));
+            assertThat(segments()).hasSize(3);
+
+            List<ClaimJournal.Record> records = journal.read(10);
+            assertThat(records).extracting(r -> r.payload().length).containsExactly(20, 20, 200, 10);
+
+            journal.commit(records.getLast().next());
+            assertThat(segments()).hasSize(1);
+        }
+        try (ClaimJournal reopened = new ClaimJournal(dir, 64)) {
+            assertThat(reopened.read(10)).isEmpty();
+        }
+    }
+
+    @Test
+    void aBatchThatFailsHalfWayLeavesNoRecordBehind() throws Exception {
+        try (ClaimJournal journal = new ClaimJournal(dir, 64)) {
+            journal.append(List.of(bytes("kept")));
+            long end = journal.end();
+            // the batch fills segment 1, starts segment 2 and cannot start segment 3
+            Path blocked = Files.createDirectory(dir.resolve("0000000003.journal"));
+
+            assertThatThrownBy(() -> journal.append(List.of(new byte[20], new byte[20], new byte[200])))
+                    .isInstanceOf(IOException.class);
+
+            assertThat(journal.end()).isEqualTo(end);
+            assertThat(journal.read(10)).extracting(r -> text(r.payload())).containsExactly("kept");
+            Files.delete(blocked);
+            assertThat(segments()).hasSize(1);
+            journal.append(List.of(bytes("next")));
+            assertThat(journal.read(10)).extracting(r -> text(r.payload())).containsExactly("next");
+        }
+        try (ClaimJournal reopened = new ClaimJournal(dir, 64)) {
+            assertThat(reopened.read(10)).extracting(r -> text(r.payload())).containsExactly("kept", "next");
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,198 @@
+package org.aniket.fnolclaimsagent.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aniket.fnolclaimsagent.config.DuplicateProperties;
+import org.aniket.fnolclaimsagent.config.JournalProperties;
+import org.aniket.fnolclaimsagent.config.SearchProperties;
+import org.aniket.fnolclaimsagent.config.StatsProperties;
+import org.aniket.fnolclaimsagent.duplicate.DuplicateClaimIndex;
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.aniket.fnolclaimsagent.search.ClaimSearchIndex;
+import org.aniket.fnolclaimsagent.search.ClaimSearchQuery;
+import org.aniket.fnolclaimsagent.service.ClaimDocumentService;
+import org.aniket.fnolclaimsagent.service.ClaimDocumentService.StoredText;
+import org.aniket.fnolclaimsagent.stats.ClaimStatsRollup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ClaimWriteBehindTest {
+
+    @TempDir
+    Path dir;
+
+    private final InMemoryClaimTable table = new InMemoryClaimTable();
+    private final ClaimDocumentService documents = mock(ClaimDocumentService.class);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+    private ClaimSearchIndex searchIndex;
+    private SimpleMeterRegistry registry;
+
+    @AfterEach
+    void closeIndex() throws IOException {
+        if (searchIndex != null) searchIndex.close();
+    }
+
+    @Test
+    void pendingClaimsAreServedFromTheJournalUntilFlushed() throws Exception {
+        ClaimWriteBehind writeBehind = open();
+        List<Claim> saved = writeBehind.append(List.of(
+                claim("POL-1", "Hail damage to the roof"), claim("POL-2", "Kitchen fire")));
+        long id = saved.getFirst().getId();
+
+        assertThat(saved).extracting(Claim::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(table.ids()).isEmpty();
+        assertThat(writeBehind.find(id)).get().satisfies(c -> {
+            assertThat(c.getPolicyNumber()).isEqualTo("POL-1");
+            assertThat(c.getRawText()).isNull();
+        });
+        assertThat(writeBehind.text(id)).get().satisfies(t -> assertThat(text(t)).isEqualTo("Hail damage to the roof"));
+
+        writeBehind.flush();
+
+        assertThat(table.ids()).containsExactlyElementsOf(saved.stream().map(Claim::getId).toList());
+        assertThat(table.row(id)[1]).isEqualTo("POL-1");
+        verify(documents).storeAll(List.of("Hail damage to the roof", "Kitchen fire"));
+        assertThat(writeBehind.find(id)).isEmpty();
+        assertThat(writeBehind.text(id)).isEmpty();
+        writeBehind.close();
+        searchIndex.close();
+
+        // checkpointed: nothing is loaded back or written again
+        ClaimWriteBehind reopened = open();
+        assertThat(reopened.find(id)).isEmpty();
+        reopened.close();
+        assertThat(table.ids()).hasSize(2);
+    }
+
+    @Test
+    void batchWrittenButNotCheckpointedIsRecoveredAndWrittenOnce() throws Exception {
+        ClaimWriteBehind crashed = open();
+        List<Claim> saved = crashed.append(List.of(
+                claim("POL-1", "Hail damage to the roof"), claim("POL-2", "Kitchen fire in the basement")));
+        long first = saved.get(0).getId();
+        long second = saved.get(1).getId();
+        // the node stops after the flush transaction committed the first row and before the checkpoint moved;
+        // it is not closed, which would flush
+        table.insert(first);
+        searchIndex.close();
+
+        ClaimWriteBehind restarted = open();
+
+        assertThat(restarted.find(first)).isPresent();
+        assertThat(restarted.text(second)).get().satisfies(t -> assertThat(text(t)).isEqualTo("Kitchen fire in the basement"));
+        searchIndex.refreshBlocking();
+        assertThat(searchIndex.search(ClaimSearchQuery.text("basement"), 10).ids()).containsExactly(second);
+
+        restarted.flush();
+
+        assertThat(table.ids()).containsExactly(first, second);
+        assertThat(table.row(second)[1]).isEqualTo("POL-2");
+        assertThat(restarted.find(second)).isEmpty();
+        restarted.close();
+    }
+
+    @Test
+    void aFlushBetweenAppendAndForceWritesNothingAndLeavesNoPendingEntryBehind() throws Exception {
+        ClaimWriteBehind writeBehind = open();
+        List<Claim> flushedEarly = writeBehind.append(List.of(claim("POL-0", "Windscreen chip")));
+        AtomicReference<List<Long>> inTableDuringForce = new AtomicReference<>();
+        writeBehind.journal().beforeForce = () -> {
+            writeBehind.flush();
+            inTableDuringForce.set(table.ids());
+        };
+
+        List<Claim> saved = writeBehind.append(List.of(claim("POL-1", "Hail damage to the roof")));
+        long id = saved.getFirst().getId();
+
+        // the earlier claim was forced already, this one not yet
+        assertThat(inTableDuringForce.get()).containsExactly(flushedEarly.getFirst().getId());
+        assertThat(writeBehind.text(id)).get().satisfies(t -> assertThat(text(t)).isEqualTo("Hail damage to the roof"));
+        writeBehind.journal().beforeForce = () -> {
+        };
+        writeBehind.flush();
+        assertThat(table.ids()).contains(id);
+        assertThat(writeBehind.find(id)).isEmpty();
+        assertThat(registry.get("fnol.journal.lag").gauge().value()).isZero();
+        writeBehind.close();
+    }
+
+    @Test
+    void aSaveWhoseForceFailedIsNeverWritten() throws Exception {
+        ClaimWriteBehind writeBehind = open();
+        writeBehind.journal().beforeForce = () -> {
+            writeBehind.flush();
+            throw new UncheckedIOException(new IOException("disk full"));
+        };
+
+        Claim lost = claim("POL-1", "Hail damage to the roof");
+        assertThatThrownBy(() -> writeBehind.append(List.of(lost))).isInstanceOf(UncheckedIOException.class);
+        writeBehind.journal().beforeForce = () -> {
+        };
+        writeBehind.flush();
+
+        assertThat(table.ids()).isEmpty();
+        assertThat(writeBehind.find(lost.getId())).isEmpty();
+        assertThat(registry.get("fnol.journal.lag").gauge().value()).isZero();
+
+        // the client's retry is the only copy
+        Claim retried = writeBehind.append(List.of(claim("POL-1", "Hail damage to the roof"))).getFirst();
+        writeBehind.close();
+        searchIndex.close();
+        ClaimWriteBehind reopened = open();
+        reopened.flush();
+        assertThat(table.ids()).containsExactly(retried.getId());
+        reopened.close();
+    }
+
+    private ClaimWriteBehind open() throws IOException {
+        JournalProperties properties = new JournalProperties();
+        properties.setEnabled(true);
+        properties.setDir(dir.resolve("journal").toString());
+        SearchProperties search = new SearchProperties();
+        search.setIndexDir(dir.resolve("index").toString());
+        searchIndex = new ClaimSearchIndex(search);
+        DuplicateProperties duplicates = new DuplicateProperties();
+        duplicates.setSnapshotFile("");
+        registry = new SimpleMeterRegistry();
+        StatsProperties statsProperties = new StatsProperties();
+        statsProperties.setEnabled(false);
+        ClaimStatsRollup stats = new ClaimStatsRollup(statsProperties, null, table, transactionTemplate, registry);
+        return new ClaimWriteBehind(properties, JsonMapper.builder().build(), documents, table, transactionTemplate,
+                stats, searchIndex, new DuplicateClaimIndex(duplicates), registry);
+    }
+
+    private static Claim claim(String policy, String text) {
+        return Claim.builder()
+                .policyNumber(policy)
+                .description(text)
+                .incidentDate(LocalDate.of(2026, 3, 14))
+                .estimatedDamage(new BigDecimal("1200.50"))
+                .rawText(text)
+                .createdAt(LocalDateTime.of(2026, 3, 15, 9, 30))
+                .build();
+    }
+
+    private static String text(StoredText stored) throws IOException {
+        try (var in = stored.utf8()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.aniket.fnolclaimsagent.journal;
+
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** {@code claim_seq} and the claim rows, as far as the journal reads and writes them. */
+class InMemoryClaimTable extends JdbcTemplate {
+
+    private long nextVal = 1;
+    private final Map<Long, Object[]> rows = new TreeMap<>();
+
+    /** What Hibernate's table-backed sequence does for a pooled generator: read next_val and move it on. */
+    synchronized long hibernateNextValue() {
+        long value = nextVal;
+        nextVal += Claim.ID_ALLOCATION_SIZE;
+        return value;
+    }
+
+    synchronized void insert(long id) {
+        rows.put(id, new Object[]{id});
+    }
+
+    synchronized List<Long> ids() {
+        return new ArrayList<>(rows.keySet());
+    }
+
+    synchronized Object[] row(long id) {
+        return rows.get(id);
+    }
+
+    @Override
+    public synchronized <T> T queryForObject(String sql, Class<T> requiredType) {
+        if (!sql.startsWith("select next_val from claim_seq")) throw new UnsupportedOperationException(sql);
+        return requiredType.cast(nextVal);
+    }
+
+    @Override
+    public synchronized int update(String sql, Object... args) {
+        if (!sql.startsWith("update claim_seq set next_val")) throw new UnsupportedOperationException(sql);
+        nextVal = (Long) args[0];
+        return 1;
+    }
+
+    @Override
+    public synchronized <T> List<T> queryForList(String sql, Class<T> elementType) {
+        if (!sql.startsWith("select id from claim where id in")) throw new UnsupportedOperationException(sql);
+        String ids = sql.substring(sql.indexOf('(') + 1, sql.lastIndexOf(')'));
+        return Arrays.stream(ids.split(","))
+                .map(id -> Long.parseLong(id.trim()))
+                .filter(rows::containsKey)
+                .map(elementType::cast)
+                .toList();
+    }
+
+    @Override
+    public synchronized int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+        if (!sql.trim().startsWith("insert into claim ")) throw new UnsupportedOperationException(sql);
+        for (Object[] row : batchArgs) {
+            if (rows.putIfAbsent((Long) row[0], row) != null) throw new DuplicateKeyException("Duplicate claim id " + row[0]);
+        }
+        int[] counts = new int[batchArgs.size()];
+        Arrays.fill(counts, 1);
+        return counts;
+    }
+}
@@ -0,0 +1,81 @@
+package org.aniket.fnolclaimsagent.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aniket.fnolclaimsagent.cache.ExtractionResultCache;
+import org.aniket.fnolclaimsagent.config.ResultCacheProperties;
+import org.aniket.fnolclaimsagent.config.RoutingProperties;
+import org.aniket.fnolclaimsagent.dto.ClaimAnalysisResultDTO;
+import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoutingRuleRegistryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reloadsChangedFileAndDropsCachedAnalyses() throws Exception {
+        Path file = dir.resolve("rules.yml");
+        Files.writeString(file, rules(25000));
+        RoutingProperties properties = new RoutingProperties();
+        properties.setRulesLocation(file.toUri().toString());
+        ExtractionResultCache cache = new ExtractionResultCache(new ResultCacheProperties(), new SimpleMeterRegistry());
+        cache.putAnalysis("key", new ClaimAnalysisResultDTO());
+        RoutingRuleRegistry registry = new RoutingRuleRegistry(properties, new DefaultResourceLoader(), cache);
+
+        assertThat(route(registry, "30000")).isEqualTo("MANUAL_REVIEW");
+
+        Files.writeString(file, rules(50000));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+        registry.reloadIfChanged();
+
+        assertThat(route(registry, "30000")).isEqualTo("FAST_TRACK");
+        assertThat(cache.getAnalysis("key")).isNull();
+    }
+
+    @Test
+    void keepsPreviousRulesWhenFileIsInvalid() throws Exception {
+        Path file = dir.resolve("rules.yml");
+        Files.writeString(file, rules(25000));
+        RoutingProperties properties = new RoutingProperties();
+        properties.setRulesLocation(file.toUri().toString());
+        RoutingRuleRegistry registry = new RoutingRuleRegistry(properties, new DefaultResourceLoader(),
+                new ExtractionResultCache(new ResultCacheProperties(), new SimpleMeterRegistry()));
+
+        Files.writeString(file, rules(25000).replace("FAST_TRACK", "FAST_LANE"));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+        registry.reloadIfChanged();
+
+        assertThat(route(registry, "100")).isEqualTo("FAST_TRACK");
+    }
+
+    private static String route(RoutingRuleRegistry registry, String amount) {
+        ExtractedFieldsDTO fields = new ExtractedFieldsDTO();
+        fields.setEstimatedDamage(amount);
+        return registry.current().evaluate(fields, List.of(), "").route().name();
+    }
+
+    private static String rules(int fastTrackBelow) {
+        return """
+                routing:
+                  rules:
+                    - id: fast-track
+                      priority: 1
+                      route: FAST_TRACK
+                      when:
+                        amount-below: %d
+                    - id: default
+                      priority: 2
+                      route: MANUAL_REVIEW
+                """.formatted(fastTrackBelow);
+    }
+}
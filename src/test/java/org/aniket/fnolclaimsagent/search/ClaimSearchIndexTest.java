@@ -0,0 +1,108 @@
+package org.aniket.fnolclaimsagent.search;
+
+import org.aniket.fnolclaimsagent.config.SearchProperties;
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClaimSearchIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void everyWordHasToMatchSomewhere() throws Exception {
+        try (ClaimSearchIndex index = open()) {
+            index.indexAll(claims());
+
+            assertThat(ids(index, ClaimSearchQuery.text("hail roof"))).containsExactly(2L);
+            assertThat(ids(index, ClaimSearchQuery.text("Springfield"))).containsExactlyInAnyOrder(1L, 2L);
+            // only in the raw text
+            assertThat(ids(index, ClaimSearchQuery.text("ACORD"))).containsExactly(3L);
+            assertThat(ids(index, ClaimSearchQuery.text("hail tornado"))).isEmpty();
+            assertThat(ids(index, ClaimSearchQuery.text("--"))).isEmpty();
+        }
+    }
+
+    @Test
+    void attributeFiltersComeBackNewestFirst() throws Exception {
+        try (ClaimSearchIndex index = open()) {
+            index.indexAll(claims());
+
+            assertThat(ids(index, new ClaimSearchQuery(null, " pol-002 ", null, null, null, null, null))).containsExactly(2L);
+            assertThat(ids(index, new ClaimSearchQuery(null, null, "jane", null, null, null, null))).containsExactlyInAnyOrder(1L, 3L);
+            assertThat(ids(index, new ClaimSearchQuery(null, null, null, "springfield", "FAST_TRACK", null, null)))
+                    .containsExactly(1L);
+            assertThat(ids(index, new ClaimSearchQuery(null, null, null, null, null,
+                    LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 31)))).containsExactly(3L, 2L);
+            assertThat(ids(index, new ClaimSearchQuery(null, null, null, null, null, null, null))).containsExactly(3L, 2L, 1L);
+        }
+    }
+
+    @Test
+    void newClaimsBecomeSearchableWithTheNextRefreshNotTheNextSearch() throws Exception {
+        try (ClaimSearchIndex index = open()) {
+            index.indexAll(claims());
+
+            assertThat(index.search(ClaimSearchQuery.text("hail"), 10).ids()).isEmpty();
+            index.refresh();
+            assertThat(index.search(ClaimSearchQuery.text("hail"), 10).ids()).containsExactly(2L);
+        }
+    }
+
+    @Test
+    void reindexingReplacesAndCommitRecordsHighestId() throws Exception {
+        try (ClaimSearchIndex index = open()) {
+            index.indexAll(claims());
+            Claim changed = claims().get(1);
+            changed.setDescription("Water damage in the basement");
+            index.index(changed);
+
+            assertThat(ids(index, ClaimSearchQuery.text("hail"))).isEmpty();
+            assertThat(ids(index, ClaimSearchQuery.text("basement"))).containsExactly(2L);
+            assertThat(index.committedClaimId()).isZero();
+            assertThat(index.committedCaughtUpTo()).isNull();
+            index.caughtUpTo(LocalDateTime.of(2026, 3, 15, 9, 30));
+            index.caughtUpTo(LocalDateTime.of(2026, 3, 15, 9, 0));
+        }
+        try (ClaimSearchIndex reopened = open()) {
+            assertThat(reopened.committedClaimId()).isEqualTo(3);
+            assertThat(reopened.committedCaughtUpTo()).isEqualTo(LocalDateTime.of(2026, 3, 15, 9, 30));
+            assertThat(reopened.search(ClaimSearchQuery.text("springfield"), 10).total()).isEqualTo(2);
+        }
+    }
+
+    private ClaimSearchIndex open() throws Exception {
+        SearchProperties properties = new SearchProperties();
+        properties.setIndexDir(dir.toString());
+        return new ClaimSearchIndex(properties);
+    }
+
+    private static List<Long> ids(ClaimSearchIndex index, ClaimSearchQuery query) throws Exception {
+        index.refreshBlocking();
+        return index.search(query, 10).ids();
+    }
+
+    private static List<Claim> claims() {
+        return List.of(
+                claim(1, "POL-001", "Jane Miller", "12 Lakeview Road, Springfield", "Rear-ended at a signal",
+                        "FAST_TRACK", LocalDate.of(2024, 1, 15), "Policy Number: POL-001"),
+                claim(2, "POL-002", "Raj Patel", "4 Elm Street, Springfield", "Hail damaged the roof and windshield",
+                        "MANUAL_REVIEW", LocalDate.of(2024, 2, 20), "Policy Number: POL-002"),
+                claim(3, "POL-003", "Jane Okafor", "Harbor Drive, Riverton", "Parked car scratched",
+                        "FAST_TRACK", LocalDate.of(2024, 3, 5), "ACORD automobile loss notice"));
+    }
+
+    private static Claim claim(long id, String policy, String name, String location, String description,
+                               String route, LocalDate incident, String rawText) {
+        return Claim.builder().id(id).policyNumber(policy).policyHolderName(name).location(location)
+                .description(description).recommendedRoute(route).incidentDate(incident).rawText(rawText).build();
+    }
+}
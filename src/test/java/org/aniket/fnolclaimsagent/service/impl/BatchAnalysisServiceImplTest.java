@@ -0,0 +1,220 @@
+package org.aniket.fnolclaimsagent.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aniket.fnolclaimsagent.cache.ExtractionResultCache;
+import org.aniket.fnolclaimsagent.config.BatchProperties;
+import org.aniket.fnolclaimsagent.config.DuplicateProperties;
+import org.aniket.fnolclaimsagent.config.ExecutorConfig;
+import org.aniket.fnolclaimsagent.config.ExtractionProperties;
+import org.aniket.fnolclaimsagent.config.ResultCacheProperties;
+import org.aniket.fnolclaimsagent.dto.BatchItemResultDTO;
+import org.aniket.fnolclaimsagent.duplicate.DuplicateClaimIndex;
+import org.aniket.fnolclaimsagent.metrics.ClaimMetrics;
+import org.aniket.fnolclaimsagent.routing.RoutingRuleSet;
+import org.aniket.fnolclaimsagent.service.RoutingService;
+import org.aniket.fnolclaimsagent.util.InMemoryMultipartFile;
+import org.aniket.fnolclaimsagent.util.ZipEntryIterator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchAnalysisServiceImplTest {
+
+    private final List<ExecutorService> executors = new ArrayList<>();
+    private BatchAnalysisServiceImpl service;
+    private BatchProperties properties;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ExtractionResultCache cache = new ExtractionResultCache(new ResultCacheProperties(), registry);
+        DocumentExtractionServiceImpl extraction = new DocumentExtractionServiceImpl(
+                new ExtractionProperties(), track(Executors.newFixedThreadPool(2)), cache, registry);
+        RoutingRuleSet rules = RoutingRuleSet.load(new ClassPathResource("routing-rules.yml"));
+        properties = new BatchProperties();
+        properties.setMaxInFlight(3);
+        properties.setStageQueueCapacity(1);
+        service = new BatchAnalysisServiceImpl(extraction, new FieldExtractionServiceImpl(), new ValidationServiceImpl(),
+                slow(new RoutingServiceImpl(() -> rules)), cache, new DuplicateClaimIndex(noDuplicates()), properties, new ClaimMetrics(registry),
+                track(ExecutorConfig.blockingStage("extract-", 2, 1)),
+                track(ExecutorConfig.blockingStage("fields-", 1, 1)),
+                track(ExecutorConfig.blockingStage("route-", 1, 1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executors.forEach(ExecutorService::shutdownNow);
+    }
+
+    @Test
+    void reportsEveryDocumentOnceWithinTheInFlightLimit() {
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            files.add(textFile("claim-" + i + ".txt", claimText(i)));
+        }
+        files.add(new InMemoryMultipartFile("file", "broken.pdf", "application/pdf", "not a pdf".getBytes(StandardCharsets.UTF_8)));
+
+        List<BatchItemResultDTO> results = new ArrayList<>();
+        Pulled<MultipartFile> documents = new Pulled<>(files.iterator());
+        AtomicInteger peakInFlight = new AtomicInteger();
+        documents.onNext = () -> peakInFlight.accumulateAndGet(documents.count - results.size(), Math::max);
+        service.analyzeAll(documents, false, results::add);
+
+        // routing is the slow stage, so documents pile up to the limit but never past it
+        assertThat(peakInFlight).hasValue(properties.getMaxInFlight());
+        assertThat(results).hasSize(51);
+        assertThat(results).extracting(BatchItemResultDTO::getIndex).doesNotHaveDuplicates();
+        assertThat(results).filteredOn(r -> r.getStatus().equals("FAILED"))
+                .extracting(BatchItemResultDTO::getFileName).containsExactly("broken.pdf");
+        BatchItemResultDTO first = results.stream().filter(r -> r.getIndex() == 0).findFirst().orElseThrow();
+        assertThat(first.getAnalysis().getExtractedFields().getPolicyNumber()).isEqualTo("PN-0");
+        assertThat(first.getAnalysis().getRawText()).isNull();
+    }
+
+    @Test
+    void readsZipEntriesLazily() throws Exception {
+        ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(zipBytes)) {
+            for (int i = 0; i < 10; i++) {
+                zip.putNextEntry(new ZipEntry("batch/claim-" + i + ".txt"));
+                zip.write((claimText(i) + notes(i)).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.putNextEntry(new ZipEntry("batch/"));
+            zip.closeEntry();
+        }
+
+        List<BatchItemResultDTO> results = new ArrayList<>();
+        AtomicInteger pulledAtFirstResult = new AtomicInteger(-1);
+        AtomicLong archiveReadAtFirstResult = new AtomicLong(-1);
+        CountingInputStream archive = new CountingInputStream(new ByteArrayInputStream(zipBytes.toByteArray()));
+        try (ZipEntryIterator zipEntries = new ZipEntryIterator(archive, properties.getMaxEntrySize().toBytes())) {
+            Pulled<MultipartFile> entries = new Pulled<>(zipEntries);
+            service.analyzeAll(entries, true, result -> {
+                if (results.isEmpty()) {
+                    pulledAtFirstResult.set(entries.count);
+                    archiveReadAtFirstResult.set(archive.count);
+                }
+                results.add(result);
+            });
+        }
+
+        assertThat(pulledAtFirstResult.get()).isBetween(1, properties.getMaxInFlight());
+        // the iterator reads one entry ahead at most; the rest of the archive is still unread
+        assertThat(archiveReadAtFirstResult.get()).isLessThan(zipBytes.size() / 2);
+        assertThat(results).hasSize(10).allMatch(r -> r.getStatus().equals("OK"));
+        assertThat(results).allMatch(r -> r.getAnalysis().getRawText().contains("Policy Number"));
+    }
+
+    // a routing stage that takes its time, so the stages in front of it fill up
+    private static RoutingService slow(RoutingService routing) {
+        return (fields, missing, text) -> {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return routing.routeClaim(fields, missing, text);
+        };
+    }
+
+    private ExecutorService track(ExecutorService executor) {
+        executors.add(executor);
+        return executor;
+    }
+
+    private static MultipartFile textFile(String name, String text) {
+        return new InMemoryMultipartFile("file", name, "text/plain", text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String claimText(int i) {
+        return "Policy Number: PN-" + i + "\nName of Insured: Insured " + i + "\nDate of Loss: 01/02/2025\n"
+                + "Location of Loss: Main St\nDescription: bumper\nEstimate Amount: " + (1000 + i) + "\n";
+    }
+
+    // a few KB of words that do not compress away, so each entry takes up room in the archive
+    private static String notes(int i) {
+        Random random = new Random(i);
+        StringBuilder notes = new StringBuilder("Notes:");
+        for (int w = 0; w < 600; w++) {
+            notes.append(' ').append(Integer.toString(random.nextInt(1 << 20), 36));
+        }
+        return notes.append('\n').toString();
+    }
+
+    /** Counts the elements the service has taken. */
+    private static final class Pulled<T> implements Iterator<T> {
+
+        private final Iterator<T> delegate;
+        private Runnable onNext = () -> {
+        };
+        private int count;
+
+        private Pulled(Iterator<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public T next() {
+            T next = delegate.next();
+            count++;
+            onNext.run();
+            return next;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+
+    private static DuplicateProperties noDuplicates() {
+        DuplicateProperties duplicates = new DuplicateProperties();
+        duplicates.setEnabled(false);
+        return duplicates;
+    }
+}
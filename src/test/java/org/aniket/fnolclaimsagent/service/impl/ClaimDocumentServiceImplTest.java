@@ -0,0 +1,55 @@
+package org.aniket.fnolclaimsagent.service.impl;
+
+import org.aniket.fnolclaimsagent.repository.ClaimDocumentRepository;
+import org.aniket.fnolclaimsagent.util.TextCompression;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClaimDocumentServiceImplTest {
+
+    private final ClaimDocumentRepository documents = mock(ClaimDocumentRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ClaimDocumentServiceImpl service =
+            new ClaimDocumentServiceImpl(documents, new TransactionTemplate(transactionManager));
+
+    ClaimDocumentServiceImplTest() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void documentIsInsertedInATransactionOfItsOwn() {
+        service.store("Hail damage to the roof");
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().getPropagationBehavior())
+                .isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Test
+    void sameTextStoredConcurrentlyFailsOnlyTheDocumentInsert() {
+        // the insert reaches the database at commit, where the other request's row is already in
+        doThrow(new DataIntegrityViolationException("Duplicate entry")).when(transactionManager).commit(any());
+
+        String text = "Kitchen fire in the basement";
+        String hash = TextCompression.sha256Hex(text.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(service.store(text)).isEqualTo(hash);
+        assertThat(service.storeAll(List.of(text, "Windscreen chip"))).first().isEqualTo(hash);
+    }
+}
@@ -0,0 +1,273 @@
+package org.aniket.fnolclaimsagent.service.impl;
+
+import com.sun.net.httpserver.HttpServer;
+import org.aniket.fnolclaimsagent.config.JobProperties;
+import org.aniket.fnolclaimsagent.dto.ClaimAnalysisResultDTO;
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.aniket.fnolclaimsagent.model.ClaimJob;
+import org.aniket.fnolclaimsagent.model.ClaimJobPayload;
+import org.aniket.fnolclaimsagent.model.JobStatus;
+import org.aniket.fnolclaimsagent.repository.ClaimJobPayloadRepository;
+import org.aniket.fnolclaimsagent.repository.ClaimJobRepository;
+import org.aniket.fnolclaimsagent.service.ClaimAnalysisService;
+import org.aniket.fnolclaimsagent.service.ClaimService;
+import org.aniket.fnolclaimsagent.util.InMemoryMultipartFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ClaimJobServiceImplTest {
+
+    private static final String WORKER = "worker-1";
+    private static final byte[] UPLOAD = "Policy Number: POL-1".getBytes(StandardCharsets.UTF_8);
+
+    private final ClaimJobRepository jobs = mock(ClaimJobRepository.class);
+    private final ClaimJobPayloadRepository payloads = mock(ClaimJobPayloadRepository.class);
+    private final ClaimAnalysisService analysis = mock(ClaimAnalysisService.class);
+    private final ClaimService claims = mock(ClaimService.class);
+    private final JobProperties properties = new JobProperties();
+    private final LinkedBlockingQueue<String> callbacks = new LinkedBlockingQueue<>();
+    private final ClaimJobServiceImpl service;
+    private HttpServer callbackServer;
+
+    ClaimJobServiceImplTest() {
+        properties.setWorkerId(WORKER);
+        properties.setMaxAttempts(3);
+        properties.setRetryBackoff(Duration.ofSeconds(30));
+        properties.getCallbackAllowedUrls().add("https://example.org/hooks");
+        service = new ClaimJobServiceImpl(jobs, payloads, analysis, claims, mock(ExecutorService.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), properties);
+    }
+
+    @AfterEach
+    void stopCallbackServer() {
+        if (callbackServer != null) callbackServer.stop(0);
+    }
+
+    @Test
+    void submitQueuesTheUploadAndStatusReadsItBack() {
+        when(jobs.save(any())).thenAnswer(call -> {
+            ClaimJob job = call.getArgument(0);
+            job.setId(7L);
+            return job;
+        });
+
+        ClaimJob job = service.submit(new InMemoryMultipartFile("file", "fnol.txt", "text/plain", UPLOAD),
+                "https://example.org/hooks/fnol");
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.QUEUED);
+        assertThat(job.getSizeBytes()).isEqualTo(UPLOAD.length);
+        assertThat(job.getCallbackUrl()).isEqualTo("https://example.org/hooks/fnol");
+        ArgumentCaptor<ClaimJobPayload> payload = ArgumentCaptor.forClass(ClaimJobPayload.class);
+        verify(payloads).save(payload.capture());
+        assertThat(payload.getValue().getJobId()).isEqualTo(7L);
+        assertThat(payload.getValue().getContent()).isEqualTo(UPLOAD);
+
+        when(jobs.findById(7L)).thenReturn(Optional.of(job));
+        assertThat(service.findById(7L)).contains(job);
+    }
+
+    @Test
+    void submitRejectsCallbacksThatAreNotHttp() {
+        assertThatThrownBy(() -> service.submit(new InMemoryMultipartFile("file", "fnol.txt", "text/plain", UPLOAD),
+                "file:///etc/passwd"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jobs, payloads);
+    }
+
+    @Test
+    void submitRejectsCallbacksOutsideTheAllowList() {
+        for (String url : List.of("http://169.254.169.254/latest/meta-data", "http://example.org/hooks",
+                "https://example.org:8443/hooks", "https://example.org/hooksmith", "https://example.org/admin",
+                "https://example.org/hooks/../admin", "https://example.org.attacker.test/hooks",
+                "https://example.org@10.0.0.1/hooks")) {
+            assertThatThrownBy(() -> service.submit(new InMemoryMultipartFile("file", "fnol.txt", "text/plain", UPLOAD),
+                    url))
+                    .as(url)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        verifyNoInteractions(jobs, payloads);
+    }
+
+    @Test
+    void callbackIsSkippedOnceItsUrlIsNoLongerAllowed() throws Exception {
+        ClaimJob job = due(1, JobStatus.QUEUED, 0, callbackUrl());
+        properties.getCallbackAllowedUrls().clear();
+        ClaimAnalysisResultDTO result = analyzed("FAST_TRACK");
+        when(jobs.lockLeased(1L, WORKER)).thenReturn(Optional.of(1L));
+        when(claims.saveFromAnalysis(result)).thenReturn(Claim.builder().id(99L).build());
+
+        assertThat(service.runNext()).isTrue();
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(callbacks.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void completedJobSavesTheClaimDropsTheUploadAndCallsBack() throws Exception {
+        ClaimJob job = due(1, JobStatus.QUEUED, 0, callbackUrl());
+        ClaimAnalysisResultDTO result = analyzed("FAST_TRACK");
+        when(jobs.lockLeased(1L, WORKER)).thenReturn(Optional.of(1L));
+        when(claims.saveFromAnalysis(result)).thenReturn(Claim.builder().id(99L).build());
+
+        assertThat(service.runNext()).isTrue();
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(job.getAttempts()).isEqualTo(1);
+        assertThat(job.getClaimId()).isEqualTo(99L);
+        assertThat(job.getRecommendedRoute()).isEqualTo("FAST_TRACK");
+        assertThat(job.getLeaseOwner()).isNull();
+        verify(payloads).deleteById(1L);
+        String callback = callbacks.poll(5, TimeUnit.SECONDS);
+        assertThat(callback).contains("\"jobId\":1").contains("\"status\":\"COMPLETED\"").contains("\"claimId\":99")
+                .doesNotContain("callbackUrl").doesNotContain("leaseOwner").doesNotContain("fileName");
+    }
+
+    @Test
+    void jobWhoseLeaseRanOutSavesNothing() throws Exception {
+        ClaimJob job = due(1, JobStatus.QUEUED, 0, callbackUrl());
+        when(jobs.lockLeased(1L, WORKER)).thenReturn(Optional.empty());
+        analyzed("FAST_TRACK");
+
+        assertThat(service.runNext()).isTrue();
+
+        verify(claims, never()).saveFromAnalysis(any());
+        verify(payloads, never()).deleteById(any());
+        verify(jobs, never()).retryLater(any(), any(), any(), any());
+        verify(jobs, never()).deadLetter(any(), any(), any(), any());
+        assertThat(job.getStatus()).isEqualTo(JobStatus.RUNNING);
+        // the worker that took the job over reports it
+        assertThat(callbacks.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void failedRunIsRetriedWithTheBackoffDoubledPerAttempt() {
+        due(1, JobStatus.QUEUED, 1, null);
+        when(analysis.analyze(any())).thenThrow(new IllegalStateException("PDF is encrypted"));
+        LocalDateTime before = LocalDateTime.now();
+
+        service.runNext();
+
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(jobs).retryLater(eq(1L), eq(WORKER), eq("PDF is encrypted"), retryAt.capture());
+        // second attempt: twice the backoff
+        assertThat(retryAt.getValue()).isBetween(before.plusSeconds(60), LocalDateTime.now().plusSeconds(60));
+        verify(jobs, never()).deadLetter(any(), any(), any(), any());
+    }
+
+    @Test
+    void lastFailedAttemptGoesToTheDeadLetterQueue() throws Exception {
+        ClaimJob job = due(1, JobStatus.QUEUED, 2, callbackUrl());
+        when(analysis.analyze(any())).thenThrow(new IllegalStateException("PDF is encrypted"));
+        when(jobs.deadLetter(eq(1L), eq(WORKER), anyString(), any())).thenReturn(1);
+
+        service.runNext();
+
+        verify(jobs, never()).retryLater(any(), any(), any(), any());
+        assertThat(job.getStatus()).isEqualTo(JobStatus.FAILED);
+        assertThat(job.getError()).isEqualTo("PDF is encrypted");
+        assertThat(callbacks.poll(5, TimeUnit.SECONDS)).contains("\"status\":\"FAILED\"");
+    }
+
+    @Test
+    void jobWhoseLeaseExpiredOnEveryAttemptFailsWithoutRunning() throws Exception {
+        ClaimJob job = due(1, JobStatus.RUNNING, 3, callbackUrl());
+        job.setLeaseOwner("worker-that-died");
+
+        assertThat(service.runNext()).isFalse();
+
+        verifyNoInteractions(analysis, claims);
+        assertThat(job.getStatus()).isEqualTo(JobStatus.FAILED);
+        assertThat(job.getError()).isEqualTo("Worker lease expired on all 3 attempts");
+        assertThat(job.getLeaseOwner()).isNull();
+        assertThat(callbacks.poll(5, TimeUnit.SECONDS)).contains("\"status\":\"FAILED\"");
+    }
+
+    @Test
+    void expiredLeaseWithAttemptsLeftIsTakenOver() {
+        ClaimJob job = due(1, JobStatus.RUNNING, 1, null);
+        job.setLeaseOwner("worker-that-died");
+        when(jobs.lockLeased(1L, WORKER)).thenReturn(Optional.of(1L));
+        ClaimAnalysisResultDTO result = analyzed("MANUAL_REVIEW");
+        when(claims.saveFromAnalysis(result)).thenReturn(Claim.builder().id(5L).build());
+
+        service.runNext();
+
+        assertThat(job.getAttempts()).isEqualTo(2);
+        assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+    }
+
+    @Test
+    void onlyFailedJobsAreRequeued() {
+        ClaimJob completed = ClaimJob.builder().id(1L).status(JobStatus.COMPLETED).build();
+        ClaimJob requeued = ClaimJob.builder().id(2L).status(JobStatus.QUEUED).build();
+        when(jobs.findById(1L)).thenReturn(Optional.of(completed));
+        when(jobs.findById(2L)).thenReturn(Optional.of(requeued));
+        when(jobs.requeueFailed(2L)).thenReturn(1);
+
+        assertThatThrownBy(() -> service.requeue(1L)).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("COMPLETED");
+        assertThat(service.requeue(2L)).contains(requeued);
+        assertThat(service.requeue(3L)).isEmpty();
+    }
+
+    // the job lockDue hands out next, with its upload
+    private ClaimJob due(long id, JobStatus status, int attempts, String callbackUrl) {
+        ClaimJob job = ClaimJob.builder()
+                .id(id)
+                .status(status)
+                .attempts(attempts)
+                .fileName("fnol.txt")
+                .contentType("text/plain")
+                .callbackUrl(callbackUrl)
+                .build();
+        when(jobs.lockDue(any(), eq(1))).thenReturn(List.of(id));
+        when(jobs.findById(id)).thenReturn(Optional.of(job));
+        when(payloads.findById(id)).thenReturn(Optional.of(new ClaimJobPayload(id, UPLOAD)));
+        return job;
+    }
+
+    private ClaimAnalysisResultDTO analyzed(String route) {
+        ClaimAnalysisResultDTO result = new ClaimAnalysisResultDTO();
+        result.setRecommendedRoute(route);
+        when(analysis.analyze(any())).thenReturn(result);
+        return result;
+    }
+
+    private String callbackUrl() throws IOException {
+        callbackServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        callbackServer.createContext("/hook", exchange -> {
+            callbacks.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        callbackServer.start();
+        String url = "http://127.0.0.1:" + callbackServer.getAddress().getPort() + "/hook";
+        properties.getCallbackAllowedUrls().add(url);
+        return url;
+    }
+}
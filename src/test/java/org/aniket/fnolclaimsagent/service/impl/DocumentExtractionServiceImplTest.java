@@ -0,0 +1,91 @@
+package org.aniket.fnolclaimsagent.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aniket.fnolclaimsagent.cache.ExtractionResultCache;
+import org.aniket.fnolclaimsagent.config.ExtractionProperties;
+import org.aniket.fnolclaimsagent.config.ResultCacheProperties;
+import org.aniket.fnolclaimsagent.util.InMemoryMultipartFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentExtractionServiceImplTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService pages = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        pages.shutdownNow();
+    }
+
+    @Test
+    void spooledPdfReadsTheSameTextAsTheInMemoryPathAndLeavesNoFileBehind() throws Exception {
+        InMemoryMultipartFile pdf = sample();
+
+        String spooled = extraction(true, false).extractText(pdf);
+        String inMemory = extraction(false, false).extractText(pdf);
+
+        assertThat(spooled).isNotBlank().isEqualTo(inMemory);
+        assertThat(spoolDir).isEmptyDirectory();
+        assertThat(registry.get("fnol.extraction.allocated").tag("mode", "streaming").summary().count()).isEqualTo(1);
+        assertThat(registry.get("fnol.extraction.allocated").tag("mode", "in-memory").summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void memoryMappedSpoolFileIsDeletedToo() throws Exception {
+        assertThat(extraction(true, true).extractText(sample())).isNotBlank();
+        assertThat(spoolDir).isEmptyDirectory();
+    }
+
+    @Test
+    void spoolFileIsDeletedWhenReadingStopsEarly() throws Exception {
+        AtomicInteger handedOver = new AtomicInteger();
+
+        extraction(true, false).streamText(sample(), page -> {
+            handedOver.incrementAndGet();
+            return false;
+        });
+
+        assertThat(handedOver).hasValue(1);
+        assertThat(spoolDir).isEmptyDirectory();
+    }
+
+    @Test
+    void spoolFileIsDeletedWhenThePdfCannotBeParsed() {
+        InMemoryMultipartFile broken = new InMemoryMultipartFile("file", "broken.pdf", "application/pdf",
+                "%PDF-1.7 not really".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> extraction(true, false).extractText(broken)).isInstanceOf(RuntimeException.class);
+        assertThat(spoolDir).isEmptyDirectory();
+    }
+
+    private DocumentExtractionServiceImpl extraction(boolean streaming, boolean memoryMapped) {
+        ExtractionProperties properties = new ExtractionProperties();
+        properties.setStreaming(streaming);
+        properties.setMemoryMapped(memoryMapped);
+        properties.setTempDir(spoolDir.toString());
+        // a fresh cache each time, so every call extracts
+        return new DocumentExtractionServiceImpl(properties, pages,
+                new ExtractionResultCache(new ResultCacheProperties(), registry), registry);
+    }
+
+    private static InMemoryMultipartFile sample() throws IOException {
+        return new InMemoryMultipartFile("file", "sample.pdf", "application/pdf",
+                new ClassPathResource("fnols/sample.pdf").getContentAsByteArray());
+    }
+}
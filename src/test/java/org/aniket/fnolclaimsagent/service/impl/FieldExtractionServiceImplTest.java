@@ -0,0 +1,185 @@
+package org.aniket.fnolclaimsagent.service.impl;
+
+import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.aniket.fnolclaimsagent.service.FieldExtractionSession;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FieldExtractionServiceImplTest {
+
+    private final FieldExtractionServiceImpl engine = new FieldExtractionServiceImpl();
+    private final LegacyFieldExtraction legacy = new LegacyFieldExtraction();
+
+    private static final String[] FRAGMENTS = {
+            "Name of Insured: John Doe",
+            "NAME OF INSURED - Jane Roe",
+            "name of insured",
+            "Insured: ACME Logistics LLC",
+            "Policy Number: AXA-998877",
+            "POLICY NUMBER PN 12-34",
+            "Other Policy Number: SF-556677",
+            "Policy #: (none)",
+            "policy: HOME/4455",
+            "Date of Loss: 02/09/2025",
+            "DATE OF LOSS AND TIME 3/7/24 10:15",
+            "Loss Date: 2025-01-31",
+            "Time of Loss: 3:45 PM",
+            "Location of Loss: 55 Lakeview Road, Springfield",
+            "LOCATION OF LOSS",
+            "Address: 1 Infinite Loop",
+            "Description of Accident:",
+            "DESCRIPTION OF ACCIDENT (ACORD 2)",
+            "Rear-ended at a red light, minor damage.",
+            "Vehicle slid on ice into a fence.",
+            "Remarks: see attached police report",
+            "INSURED VEHICLE INFORMATION",
+            "Page 1 of 3",
+            "ESTIMATE AMOUNT: $1850",
+            "Estimate Amount: 25,000.00",
+            "ESTIMATE AMOUNT: pending",
+            "Estimated Damage Amount: $ 12,400",
+            "Estimate: USD 900",
+            "Claim Type: AUTO",
+            "Type: Sedan",
+            "INJURY INFORMATION",
+            "Passenger injured, taken to hospital",
+            "No injuries were reported.",
+            "Any Injuries: No",
+            ": orphan value",
+            "a: too short key",
+            "   ",
+            "",
+            "x",
+            "AUTOMOBILE LOSS NOTICE",
+            "Witness Name: Robert Johnson",
+    };
+
+    @Test
+    void matchesLegacyOnSamplePdf() throws Exception {
+        byte[] pdf = new ClassPathResource("fnols/sample.pdf").getContentAsByteArray();
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            String text = new PDFTextStripper().getText(document);
+            ExtractedFieldsDTO dto = engine.extractFields(text);
+
+            assertSameAsLegacy(text);
+            assertThat(dto.getPolicyNumber()).isEqualTo("AXA-998877");
+            assertThat(dto.getPolicyHolderName()).isEqualTo("John Doe");
+            assertThat(dto.getEstimatedDamage()).isEqualTo("1850");
+        }
+    }
+
+    @Test
+    void matchesLegacyOnHandWrittenDocuments() {
+        for (String text : handWrittenCorpus()) {
+            assertSameAsLegacy(text);
+        }
+    }
+
+    @Test
+    void matchesLegacyOnGeneratedDocuments() {
+        Random random = new Random(2310);
+        for (int doc = 0; doc < 2_000; doc++) {
+            StringBuilder sb = new StringBuilder();
+            int lines = 1 + random.nextInt(40);
+            for (int i = 0; i < lines; i++) {
+                String line = FRAGMENTS[random.nextInt(FRAGMENTS.length)];
+                if (random.nextInt(5) == 0) line = line.toUpperCase();
+                if (random.nextInt(7) == 0) line = "  " + line + " \t";
+                sb.append(line).append(random.nextBoolean() ? "\n" : "\r\n");
+            }
+            assertSameAsLegacy(sb.toString());
+        }
+    }
+
+    @Test
+    void blankTextYieldsEmptyDto() {
+        assertThat(engine.extractFields(null)).isEqualTo(new ExtractedFieldsDTO());
+        assertThat(engine.extractFields(" \n ")).isEqualTo(new ExtractedFieldsDTO());
+        assertThat(engine.openSession().fields()).isEqualTo(new ExtractedFieldsDTO());
+    }
+
+    @Test
+    void sessionFedInPiecesMatchesWholeText() {
+        Random random = new Random(15);
+        List<String> corpus = handWrittenCorpus();
+        for (int doc = 0; doc < 500; doc++) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 1 + random.nextInt(40); i > 0; i--) {
+                sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]).append(random.nextBoolean() ? "\n" : "\r\n");
+            }
+            corpus.add(sb.toString());
+        }
+        for (String text : corpus) {
+            FieldExtractionSession session = engine.openSession();
+            for (int at = 0; at < text.length(); ) {
+                int next = Math.min(text.length(), at + 1 + random.nextInt(60));
+                session.accept(text.substring(at, next));
+                at = next;
+            }
+            assertThat(session.fields()).as("fields for:%n%s", text).isEqualTo(engine.extractFields(text));
+            assertThat(session.text()).isEqualTo(text);
+        }
+    }
+
+    @Test
+    void sessionLocatesAllFieldsOnAcordFirstPage() {
+        FieldExtractionSession session = engine.openSession();
+        session.accept("AUTOMOBILE LOSS NOTICE\nName of Insured: John Doe\nPolicy Number: AXA-1\n");
+        assertThat(session.allFieldsLocated()).isFalse();
+        session.accept("Date of Loss: 2/9/2025\nLocation of Loss: 1 Main St\nDescription of Accident:\n"
+                + "Rear-ended at a light.\nINSURED VEHICLE INFORMATION\nESTIMATE AMOUNT: $1850\n");
+        assertThat(session.allFieldsLocated()).isTrue();
+        assertThat(new ValidationServiceImpl().findMissingFields(session.fields())).isEmpty();
+        assertThat(session.fields().getDescription()).endsWith("Rear-ended at a light.");
+    }
+
+    private void assertSameAsLegacy(String text) {
+        assertThat(engine.extractFields(text))
+                .as("fields for:%n%s", text)
+                .isEqualTo(legacy.extractFields(text));
+    }
+
+    private static List<String> handWrittenCorpus() {
+        List<String> corpus = new ArrayList<>();
+        corpus.add("""
+                ACORD AUTOMOBILE LOSS NOTICE
+                POLICY NUMBER
+                AB-1234-XY
+                NAME OF INSURED
+                Maria Garcia
+                DATE OF LOSS AND TIME
+                11/03/2024   08:30 AM
+                LOCATION OF LOSS
+                Intersection of 5th Ave and Pine St
+                DESCRIPTION OF ACCIDENT
+                Insured was struck on the driver side while turning left.
+                Page 1 of 2
+                ESTIMATE AMOUNT $ 4,750.25
+                """);
+        corpus.add("""
+                Claim Type: PROPERTY
+                Policy Number: HO-77
+                Description: Kitchen fire, smoke damage to two rooms
+                Estimate: 32,000
+                Location: 9 Elm Court
+                Date of Loss: 12/24/2024
+                Policy Number: HO-78
+                """);
+        corpus.add("ESTIMATE AMOUNT: n/a\nsee below\nESTIMATE AMOUNT: 610.00\n");
+        corpus.add("DESCRIPTION OF ACCIDENT with no terminator at all and an injured driver");
+        corpus.add("Description of Accident: \n\nLOSS PAYEE\n");
+        corpus.add("policy number: \npolicy number\r\n:::::\r\nPN-1");
+        corpus.add("Location of Loss:\r\n   \r\n");
+        corpus.add("Name of Insured:\tTom Élise\r\nDate of Loss : 1/2/2025\r\nTime: 9am");
+        return corpus;
+    }
+}
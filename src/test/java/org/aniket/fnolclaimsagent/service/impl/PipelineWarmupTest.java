@@ -0,0 +1,52 @@
+package org.aniket.fnolclaimsagent.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aniket.fnolclaimsagent.cache.ExtractionResultCache;
+import org.aniket.fnolclaimsagent.config.ExtractionProperties;
+import org.aniket.fnolclaimsagent.config.ResultCacheProperties;
+import org.aniket.fnolclaimsagent.config.WarmupProperties;
+import org.aniket.fnolclaimsagent.routing.RoutingRuleSet;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.core.io.ClassPathResource;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PipelineWarmupTest {
+
+    @Test
+    void runsEveryPassWithoutTouchingTheResultCache() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ExtractionResultCache cache = new ExtractionResultCache(new ResultCacheProperties(), registry);
+        ExecutorService pages = Executors.newSingleThreadExecutor();
+        try {
+            DocumentExtractionServiceImpl extraction = new DocumentExtractionServiceImpl(
+                    new ExtractionProperties(), pages, cache, registry);
+            RoutingRuleSet rules = RoutingRuleSet.load(new ClassPathResource("routing-rules.yml"));
+            WarmupProperties properties = new WarmupProperties();
+            properties.setIterations(3);
+            StaticListableBeanFactory beans = new StaticListableBeanFactory();
+            beans.addBean("jsonMapper", JsonMapper.builder().build());
+
+            new PipelineWarmup(properties, extraction, new FieldExtractionServiceImpl(), new ValidationServiceImpl(),
+                    new RoutingServiceImpl(() -> rules), beans.getBeanProvider(JsonMapper.class))
+                    .run(new DefaultApplicationArguments());
+
+            assertThat(registry.get("fnol.extraction.content.type").tag("type", "application/pdf").counter().count())
+                    .isEqualTo(3);
+            assertThat(registry.get("fnol.extraction.content.type").tag("type", "text/plain").counter().count())
+                    .isEqualTo(3);
+            assertThat(registry.get("fnol.extraction.fallback").tag("path", "classpath_sample").counter().count())
+                    .isEqualTo(1);
+            assertThat(registry.get("cache.gets").tag("cache", "fnol.analysis").tag("result", "miss")
+                    .functionCounter().count()).isZero();
+        } finally {
+            pages.shutdownNow();
+        }
+    }
+}
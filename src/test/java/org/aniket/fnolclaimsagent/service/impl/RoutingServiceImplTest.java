@@ -0,0 +1,139 @@
+package org.aniket.fnolclaimsagent.service.impl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.aniket.fnolclaimsagent.dto.ClaimAnalysisResultDTO;
+import org.aniket.fnolclaimsagent.dto.ExtractedFieldsDTO;
+import org.aniket.fnolclaimsagent.routing.RoutingRuleSet;
+import org.aniket.fnolclaimsagent.routing.RuleDefinition;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RoutingServiceImplTest {
+
+    private static final String[] CLAIM_TYPES = {null, "", "AUTO", "PROPERTY", "Bodily Injury", "  injured party ", "INJURY"};
+    private static final String[] AMOUNTS = {null, "", "n/a", "$1,850", "24999.99", "25000", "25,000.00", "$ 99,000", "1.2.3"};
+    private static final String[] TEXT_LINES = {
+            "Rear-ended at a red light, minor damage.",
+            "Other party statement INCONSISTENT with damage pattern.",
+            "Possible Staged collision.",
+            "Suspicious timing of policy change.",
+            "Receipts appear fabricated.",
+            "FRAUD unit notified.",
+            "Road surface was dry, weather clear.",
+            "Photographs attached.",
+    };
+
+    private static final Logger LEGACY_LOG = (Logger) LoggerFactory.getLogger(LegacyRouting.class);
+    private static Level legacyLevel;
+
+    private final LegacyRouting legacy = new LegacyRouting();
+
+    // the unparseable amounts are part of the comparison; the reference warns about each one
+    @BeforeAll
+    static void quietLegacyRouting() {
+        legacyLevel = LEGACY_LOG.getLevel();
+        LEGACY_LOG.setLevel(Level.ERROR);
+    }
+
+    @AfterAll
+    static void restoreLegacyRouting() {
+        LEGACY_LOG.setLevel(legacyLevel);
+    }
+
+    @Test
+    void defaultRulesMatchLegacyRouting() throws Exception {
+        RoutingRuleSet rules = RoutingRuleSet.load(new ClassPathResource("routing-rules.yml"));
+        RoutingServiceImpl engine = new RoutingServiceImpl(() -> rules);
+        Random random = new Random(13);
+        for (int i = 0; i < 5_000; i++) {
+            ExtractedFieldsDTO fields = new ExtractedFieldsDTO();
+            fields.setClaimType(CLAIM_TYPES[random.nextInt(CLAIM_TYPES.length)]);
+            fields.setEstimatedDamage(AMOUNTS[random.nextInt(AMOUNTS.length)]);
+            List<String> missing = random.nextBoolean() ? List.of() : List.of("policyNumber", "location");
+            StringBuilder text = new StringBuilder();
+            for (int l = random.nextInt(4); l > 0; l--) {
+                text.append(TEXT_LINES[random.nextInt(TEXT_LINES.length)]).append('\n');
+            }
+            String rawText = random.nextInt(10) == 0 ? null : text.toString();
+
+            ClaimAnalysisResultDTO expected = legacy.routeClaim(fields, missing, rawText);
+            ClaimAnalysisResultDTO actual = engine.routeClaim(fields, missing, rawText);
+
+            assertThat(actual.getRecommendedRoute()).as("route for %s / %s / %s", fields, missing, rawText)
+                    .isEqualTo(expected.getRecommendedRoute());
+            assertThat(actual.getReasoning()).startsWith(expected.getReasoning()).contains("[rule: ");
+            assertThat(actual.getMissingFields()).isEqualTo(expected.getMissingFields());
+        }
+    }
+
+    @Test
+    void lineOfBusinessThresholdRunsBeforeGeneralRule() {
+        RoutingRuleSet rules = RoutingRuleSet.compile(List.of(
+                rule("property-fast-track", 10, "FAST_TRACK", r -> {
+                    r.getWhen().setClaimTypes(List.of("PROPERTY"));
+                    r.getWhen().setAmountBelow(new BigDecimal("50000"));
+                }),
+                rule("fast-track", 20, "FAST_TRACK", r -> r.getWhen().setAmountBelow(new BigDecimal("25000"))),
+                rule("default", 99, "MANUAL_REVIEW", r -> { })));
+        RoutingServiceImpl engine = new RoutingServiceImpl(() -> rules);
+
+        assertThat(engine.routeClaim(fields("property", "40000"), List.of(), "").getReasoning())
+                .endsWith("[rule: property-fast-track]");
+        assertThat(engine.routeClaim(fields("AUTO", "40000"), List.of(), "").getRecommendedRoute())
+                .isEqualTo("MANUAL_REVIEW");
+    }
+
+    @Test
+    void keywordsFromManyRulesShareOneScan() {
+        RoutingRuleSet rules = RoutingRuleSet.compile(List.of(
+                rule("arson", 1, "INVESTIGATION", r -> {
+                    r.getWhen().setTextContainsAny(List.of("accelerant", "arson"));
+                    r.setReasoning("Fire keywords: {keywords}");
+                }),
+                rule("theft", 2, "SPECIALIST_QUEUE", r -> r.getWhen().setTextContainsAny(List.of("stolen", "theft"))),
+                rule("default", 99, "MANUAL_REVIEW", r -> { })));
+        RoutingServiceImpl engine = new RoutingServiceImpl(() -> rules);
+
+        assertThat(engine.routeClaim(fields("AUTO", "1"), List.of(), "Vehicle STOLEN overnight").getRecommendedRoute())
+                .isEqualTo("SPECIALIST_QUEUE");
+        assertThat(engine.routeClaim(fields("AUTO", "1"), List.of(), "ARSON suspected, accelerant found").getReasoning())
+                .isEqualTo("Fire keywords: accelerant, arson [rule: arson]");
+    }
+
+    @Test
+    void rejectsUnknownRoutesAndDuplicateIds() {
+        assertThatThrownBy(() -> RoutingRuleSet.compile(List.of(rule("a", 1, "FAST_LANE", r -> { }))))
+                .hasMessageContaining("unknown route FAST_LANE");
+        assertThatThrownBy(() -> RoutingRuleSet.compile(List.of(
+                rule("a", 1, "FAST_TRACK", r -> { }), rule("a", 2, "FAST_TRACK", r -> { }))))
+                .hasMessageContaining("duplicated");
+    }
+
+    private static ExtractedFieldsDTO fields(String claimType, String amount) {
+        ExtractedFieldsDTO fields = new ExtractedFieldsDTO();
+        fields.setClaimType(claimType);
+        fields.setEstimatedDamage(amount);
+        return fields;
+    }
+
+    private static RuleDefinition rule(String id, int priority, String route, java.util.function.Consumer<RuleDefinition> setup) {
+        RuleDefinition rule = new RuleDefinition();
+        rule.setId(id);
+        rule.setPriority(priority);
+        rule.setRoute(route);
+        setup.accept(rule);
+        return rule;
+    }
+}
@@ -0,0 +1,72 @@
+package org.aniket.fnolclaimsagent.stats;
+
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.aniket.fnolclaimsagent.model.StatsDimension;
+import org.aniket.fnolclaimsagent.stats.ClaimStatsRollup.Bucket;
+import org.aniket.fnolclaimsagent.stats.ClaimStatsRollup.Sum;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClaimStatsRollupTest {
+
+    @Test
+    void claimsAreCountedOncePerDimension() {
+        SortedMap<Bucket, Sum> buckets = ClaimStatsRollup.buckets(List.of(
+                claim("FAST_TRACK", "AUTO", LocalDate.of(2026, 3, 14), "1200.50"),
+                claim("FAST_TRACK", "PROPERTY", LocalDate.of(2026, 3, 14), null),
+                claim(null, "AUTO", null, "99.50")));
+
+        assertThat(buckets.get(new Bucket(StatsDimension.ROUTE, "FAST_TRACK"))).isEqualTo(sum(2, "1200.50"));
+        assertThat(buckets.get(new Bucket(StatsDimension.ROUTE, ""))).isEqualTo(sum(1, "99.50"));
+        assertThat(buckets.get(new Bucket(StatsDimension.CLAIM_TYPE, "AUTO"))).isEqualTo(sum(2, "1300.00"));
+        assertThat(buckets.get(new Bucket(StatsDimension.INCIDENT_DATE, "2026-03-14"))).isEqualTo(sum(2, "1200.50"));
+        assertThat(buckets.get(new Bucket(StatsDimension.INCIDENT_DATE, ""))).isEqualTo(sum(1, "99.50"));
+        assertThat(buckets.get(new Bucket(StatsDimension.CREATED_DATE, "2026-03-15"))).isEqualTo(sum(3, "1300.00"));
+        assertThat(buckets.get(new Bucket(StatsDimension.TOTAL, ""))).isEqualTo(sum(3, "1300.00"));
+        assertThat(buckets).hasSize(8);
+        // taken in this order by every transaction
+        assertThat(buckets.firstKey().dimension()).isEqualTo(StatsDimension.ROUTE);
+    }
+
+    @Test
+    void reconciliationAddsOnlyTheDifference() {
+        SortedMap<Bucket, Sum> actual = new TreeMap<>();
+        actual.put(new Bucket(StatsDimension.ROUTE, "FAST_TRACK"), sum(5, "500.00"));
+        actual.put(new Bucket(StatsDimension.ROUTE, "INVESTIGATION"), sum(2, "10000.00"));
+        actual.put(new Bucket(StatsDimension.TOTAL, ""), sum(7, "10500.00"));
+        SortedMap<Bucket, Sum> rolledUp = new TreeMap<>();
+        rolledUp.put(new Bucket(StatsDimension.ROUTE, "FAST_TRACK"), sum(5, "500.00"));
+        rolledUp.put(new Bucket(StatsDimension.ROUTE, "MANUAL_REVIEW"), sum(1, "40.00"));
+        rolledUp.put(new Bucket(StatsDimension.TOTAL, ""), sum(6, "540.00"));
+
+        List<Object[]> corrections = ClaimStatsRollup.corrections(actual, rolledUp);
+
+        assertThat(corrections).extracting(r -> r[0] + "/" + r[1] + " " + r[3] + " " + r[4]).containsExactly(
+                "ROUTE/INVESTIGATION 2 10000.00",
+                "ROUTE/MANUAL_REVIEW -1 -40.00",
+                "TOTAL/ 1 9960.00");
+        assertThat(corrections).allSatisfy(r -> assertThat(r[2]).isEqualTo(0));
+    }
+
+    private static Claim claim(String route, String type, LocalDate incident, String damage) {
+        return Claim.builder()
+                .recommendedRoute(route)
+                .claimType(type)
+                .incidentDate(incident)
+                .estimatedDamage(damage == null ? null : new BigDecimal(damage))
+                .createdAt(LocalDateTime.of(2026, 3, 15, 9, 30))
+                .build();
+    }
+
+    private static Sum sum(long claims, String damage) {
+        return new Sum(claims, new BigDecimal(damage));
+    }
+}
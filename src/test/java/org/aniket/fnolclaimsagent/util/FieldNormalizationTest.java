@@ -0,0 +1,73 @@
+package org.aniket.fnolclaimsagent.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FieldNormalizationTest {
+
+    private static final String AMOUNT_CHARS = "0123456789.,.$ -eUSD";
+    private static final String DATE_CHARS = "0123456789//-- +";
+
+    @Test
+    void amountsMatchRegexAndBigDecimal() {
+        for (String s : new String[]{null, "", " ", ".", "..", "5.", ".5", "0", "000.000", "$1,850", "25,000.00",
+                "$ 12,400", "USD 900", "-500", "1e5", "1.2.3", "pending", "12345678901234567890.5", "1234567890123456789.1.2"}) {
+            assertThat(FieldNormalization.parseAmount(s)).as(s).isEqualTo(legacyAmount(s));
+        }
+        Random random = new Random(14);
+        for (int i = 0; i < 50_000; i++) {
+            String s = randomString(random, AMOUNT_CHARS, 24);
+            assertThat(FieldNormalization.parseAmount(s)).as(s).isEqualTo(legacyAmount(s));
+        }
+    }
+
+    @Test
+    void datesMatchFormatterChain() {
+        for (String s : new String[]{null, "", "02/09/2025", "2/30/2023", "31/2/2024", "13/13/2024", "0/5/2024",
+                "1/1/0000", "1/1/12025", "002/003/2025", "2025-02-30", "2025-1-01", " 1/1/2025", "04/31/2024",
+                "+1/1/2025", "1/+1/2025", "1/1/+202", "2024-02-29", "2023-02-29"}) {
+            assertThat(FieldNormalization.parseIncidentDate(s)).as(s).isEqualTo(legacyDate(s));
+        }
+        Random random = new Random(14);
+        for (int i = 0; i < 50_000; i++) {
+            String s = random.nextBoolean()
+                    ? (1 + random.nextInt(40)) + "/" + random.nextInt(40) + "/" + (1990 + random.nextInt(40))
+                    : randomString(random, DATE_CHARS, 12);
+            assertThat(FieldNormalization.parseIncidentDate(s)).as(s).isEqualTo(legacyDate(s));
+        }
+    }
+
+    private static String randomString(Random random, String alphabet, int maxLength) {
+        char[] chars = new char[random.nextInt(maxLength)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        return new String(chars);
+    }
+
+    private static BigDecimal legacyAmount(String s) {
+        if (s == null || s.isBlank()) return null;
+        try {
+            return new BigDecimal(s.replaceAll("[^0-9.]", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static LocalDate legacyDate(String s) {
+        if (s == null) return null;
+        for (String pattern : new String[]{"M/d/yyyy", "MM/dd/yyyy", "d/M/yyyy", "dd/MM/yyyy", "yyyy-MM-dd"}) {
+            try {
+                return LocalDate.parse(s, DateTimeFormatter.ofPattern(pattern));
+            } catch (Exception ignored) {
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,32 @@
+package org.aniket.fnolclaimsagent.util;
+
+import org.aniket.fnolclaimsagent.model.Claim;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingJsonTest {
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    @Test
+    void streamedTextGivesTheSameJsonAsTheInlineString() {
+        String text = "Description of Accident: \"rear-ended\"\tat the signal\\\nÉlise 追突事故 \u0001\n".repeat(3000);
+        Claim claim = Claim.builder().id(42L).policyNumber("POL-1").incidentDate(LocalDate.of(2025, 3, 14))
+                .estimatedDamage(new BigDecimal("1250.50")).documentHash("ab").build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        StreamingJson.writeWithText(mapper, claim, "rawText",
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), out);
+
+        claim.setRawText(text);
+        assertThat(mapper.readTree(out.toByteArray())).isEqualTo(mapper.readTree(mapper.writeValueAsBytes(claim)));
+    }
+}
@@ -0,0 +1,58 @@
+package org.aniket.fnolclaimsagent.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TextCompressionTest {
+
+    @Test
+    void roundTripsUnicodeText() {
+        String text = "Name of Insured: Tom Élise\nDescription of Accident: 追突事故\n".repeat(200);
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+
+        byte[] compressed = TextCompression.deflate(utf8);
+
+        assertThat(compressed.length).isLessThan(utf8.length / 5);
+        assertThat(TextCompression.inflate(compressed, utf8.length)).isEqualTo(text);
+        assertThat(TextCompression.inflate(TextCompression.deflate(new byte[0]), 0)).isEmpty();
+    }
+
+    @Test
+    void inflatingStreamsTheSameBytes() throws IOException {
+        String text = "Location of Loss: 55 Lakeview Road\n".repeat(5000);
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = TextCompression.deflate(utf8);
+
+        try (InputStream in = TextCompression.inflating(compressed)) {
+            assertThat(in.readAllBytes()).isEqualTo(utf8);
+        }
+        try (InputStream in = TextCompression.inflating(java.util.Arrays.copyOf(compressed, compressed.length / 2))) {
+            assertThatThrownBy(in::readAllBytes).isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    void hashIdentifiesContent() {
+        byte[] a = "Policy Number: AXA-1".getBytes(StandardCharsets.UTF_8);
+        byte[] b = "Policy Number: AXA-2".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(TextCompression.sha256Hex(a)).hasSize(64).isEqualTo(TextCompression.sha256Hex(a.clone()));
+        assertThat(TextCompression.sha256Hex(a)).isNotEqualTo(TextCompression.sha256Hex(b));
+    }
+
+    @Test
+    void rejectsTruncatedInput() {
+        byte[] utf8 = "Location of Loss: 55 Lakeview Road".repeat(50).getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = TextCompression.deflate(utf8);
+        byte[] truncated = java.util.Arrays.copyOf(compressed, compressed.length / 2);
+
+        assertThatThrownBy(() -> TextCompression.inflate(truncated, utf8.length))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
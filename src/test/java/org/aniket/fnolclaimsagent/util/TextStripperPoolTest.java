@@ -0,0 +1,52 @@
+package org.aniket.fnolclaimsagent.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextStripperPoolTest {
+
+    @Test
+    void reusedStripperProducesSameTextAsFreshOne() throws Exception {
+        assertThat(TextStripperPool.canReset()).as("PDFBox internals changed, pooling is off").isTrue();
+        byte[] pdf = new ClassPathResource("fnols/sample.pdf").getContentAsByteArray();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TextStripperPool pool = new TextStripperPool(1, true, registry);
+
+        String expected;
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            expected = new PDFTextStripper().getText(document);
+        }
+        PDFTextStripper first = pool.borrow();
+        pool.release(first);
+        for (int i = 0; i < 3; i++) {
+            PDFTextStripper stripper = pool.borrow();
+            assertThat(stripper).isSameAs(first);
+            try (PDDocument document = Loader.loadPDF(pdf)) {
+                stripper.setStartPage(1);
+                stripper.setEndPage(Integer.MAX_VALUE);
+                assertThat(stripper.getText(document)).isEqualTo(expected);
+            }
+            pool.release(stripper);
+        }
+
+        assertThat(registry.get("fnol.extraction.stripper").tag("result", "created").counter().count()).isEqualTo(1);
+        assertThat(registry.get("fnol.extraction.stripper").tag("result", "reused").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void keepsAtMostMaxIdle() throws Exception {
+        TextStripperPool pool = new TextStripperPool(1, true, new SimpleMeterRegistry());
+        PDFTextStripper a = pool.borrow();
+        PDFTextStripper b = pool.borrow();
+        pool.release(a);
+        pool.release(b);
+        assertThat(pool.borrow()).isSameAs(a);
+        assertThat(pool.borrow()).isNotSameAs(b);
+    }
+}